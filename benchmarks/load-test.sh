@@ -0,0 +1,25 @@
+#!/bin/sh
+# Starts the application once per threading mode and runs the same load test against each.
+# Needs the MySQL database from application.properties, seeded with the data the paths point to,
+# and both jars built (see README). Arguments are passed on to LoadTest: paths, concurrency, duration.
+set -e
+
+cd "$(dirname "$0")"
+
+APP_JAR=../target/progwebjava-0.0.1-SNAPSHOT-exec.jar
+URL=http://localhost:8088
+
+for mode in false true; do
+    java -jar "$APP_JAR" --spring.threads.virtual.enabled=$mode > "target/load-test-app-$mode.log" 2>&1 &
+    app=$!
+
+    until curl -sf "$URL/actuator/health" > /dev/null; do
+        sleep 1
+    done
+
+    echo "virtual threads: $mode"
+    java -cp target/benchmarks.jar com.andreitudose.progwebjava.benchmarks.LoadTest "$URL" "$@"
+
+    kill $app
+    wait $app || true
+done
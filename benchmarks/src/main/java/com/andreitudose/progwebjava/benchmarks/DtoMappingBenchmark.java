@@ -0,0 +1,43 @@
+package com.andreitudose.progwebjava.benchmarks;
+
+import com.andreitudose.progwebjava.dtos.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Benchmark
+    public void courseResponseDto(SyntheticGraph graph, Blackhole blackhole) {
+        for(var course : graph.courses) {
+            blackhole.consume(new CourseResponseDto().fromCourse(course));
+        }
+    }
+
+    @Benchmark
+    public void semesterDetailedResponseDto(SyntheticGraph graph, Blackhole blackhole) {
+        for(var semester : graph.semesters) {
+            blackhole.consume(new SemesterDetailedResponseDto().fromSemester(semester));
+        }
+    }
+
+    @Benchmark
+    public void programmeDetailedResponseDto(SyntheticGraph graph, Blackhole blackhole) {
+        for(var programme : graph.programmes) {
+            blackhole.consume(new ProgrammeDetailedResponseDto().fromProgramme(programme));
+        }
+    }
+
+    @Benchmark
+    public void studentDetailedResponseDto(SyntheticGraph graph, Blackhole blackhole) {
+        for(var student : graph.studentList) {
+            blackhole.consume(new StudentDetailedResponseDto().fromStudent(student));
+        }
+    }
+}
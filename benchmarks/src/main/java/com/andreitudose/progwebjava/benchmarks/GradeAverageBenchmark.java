@@ -0,0 +1,101 @@
+package com.andreitudose.progwebjava.benchmarks;
+
+import com.andreitudose.progwebjava.events.EntityChangePublisher;
+import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.services.ETagResolver;
+import com.andreitudose.progwebjava.services.GradeAggregateService;
+import com.andreitudose.progwebjava.services.GradeSummaryCache;
+import com.andreitudose.progwebjava.services.PathResolver;
+import com.andreitudose.progwebjava.services.ProgrammeService;
+import com.andreitudose.progwebjava.services.SemesterService;
+import com.andreitudose.progwebjava.utils.GradeCalculator;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GradeAverageBenchmark {
+    private GradeAggregateService gradeAggregateService;
+    private SemesterService semesterService;
+    private ProgrammeService programmeService;
+
+    @Setup(Level.Trial)
+    public void setUp(SyntheticGraph graph) {
+        var repositories = new InMemoryRepositories(graph);
+        var pathResolver = new PathResolver(repositories.studentRepository,
+                                            repositories.programmeRepository,
+                                            repositories.yearOfStudyRepository,
+                                            repositories.semesterRepository);
+
+        gradeAggregateService = new GradeAggregateService(repositories.gradeAggregateRepository,
+                                                          repositories.courseRepository,
+                                                          repositories.programmeRepository,
+                                                          repositories.yearOfStudyRepository,
+                                                          repositories.semesterRepository,
+                                                          new GradeSummaryCache(Duration.ofSeconds(30), 10_000));
+        var validator = Validation.buildDefaultValidatorFactory().getValidator();
+        var entityChangePublisher = new EntityChangePublisher(event -> {});
+        var eTagResolver = new ETagResolver(repositories.studentRepository,
+                                            repositories.programmeRepository,
+                                            repositories.courseTypeRepository,
+                                            repositories.yearOfStudyRepository,
+                                            repositories.semesterRepository,
+                                            repositories.courseRepository,
+                                            pathResolver);
+        semesterService = new SemesterService(repositories.semesterRepository, pathResolver, gradeAggregateService,
+                                              validator, entityChangePublisher, eTagResolver);
+        programmeService = new ProgrammeService(repositories.programmeRepository, pathResolver, gradeAggregateService,
+                                                validator, entityChangePublisher, eTagResolver);
+
+        gradeAggregateService.materializeMissing();
+    }
+
+    // recomputes every level's aggregate from the grouped sums (answered in memory here, by the database in the app)
+    @Benchmark
+    public void materializeAggregates() {
+        gradeAggregateService.materializeMissing();
+    }
+
+    // the engine alone, summing each semester from its primitive columns
+    @Benchmark
+    public void semesterTotals(SyntheticGraph graph, Blackhole blackhole) {
+        for(var semester : graph.semesters) {
+            blackhole.consume(GradeCalculator.sum(semester.getCourses()));
+        }
+    }
+
+    @Benchmark
+    public void semesterGradeAverages(SyntheticGraph graph, Blackhole blackhole) throws NotFoundException {
+        for(var semester : graph.semesters) {
+            var yearOfStudy = semester.getYearOfStudy();
+            var programme = yearOfStudy.getProgramme();
+            blackhole.consume(semesterService.getGradeAverage(programme.getStudent().getId(), programme.getId(),
+                                                              yearOfStudy.getId(), semester.getId()));
+        }
+    }
+
+    @Benchmark
+    public void programmeGradeAverages(SyntheticGraph graph, Blackhole blackhole) throws NotFoundException {
+        for(var programme : graph.programmes) {
+            blackhole.consume(programmeService.getGradeAverage(programme.getStudent().getId(), programme.getId()));
+        }
+    }
+
+    @Benchmark
+    public void courseAggregateDeltas(SyntheticGraph graph) {
+        for(var semester : graph.semesters) {
+            var yearOfStudy = semester.getYearOfStudy();
+
+            gradeAggregateService.coursesAdded(yearOfStudy.getProgramme().getId(), yearOfStudy.getId(),
+                                               semester.getId(), semester.getCourses());
+        }
+    }
+}
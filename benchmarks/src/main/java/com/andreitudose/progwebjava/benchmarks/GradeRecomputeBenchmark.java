@@ -0,0 +1,57 @@
+package com.andreitudose.progwebjava.benchmarks;
+
+import com.andreitudose.progwebjava.dtos.GradeRecomputeStatusDto;
+import com.andreitudose.progwebjava.services.GradeAggregateService;
+import com.andreitudose.progwebjava.services.GradeRecomputeService;
+import com.andreitudose.progwebjava.services.GradeSummaryCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full background recompute over the synthetic graph, one chunk per transaction in the app. With in-memory
+ * repositories this only shows the job's own overhead and how it scales with parallelism; against a database the
+ * chunks are dominated by the grouped sum queries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GradeRecomputeBenchmark {
+    @Param({"1", "4"})
+    public int parallelism;
+
+    @Param("100")
+    public int chunkSize;
+
+    private GradeRecomputeService gradeRecomputeService;
+
+    @Setup(Level.Trial)
+    public void setUp(SyntheticGraph graph) {
+        var repositories = new InMemoryRepositories(graph);
+        var gradeSummaryCache = new GradeSummaryCache(Duration.ofSeconds(30), 10_000);
+        var gradeAggregateService = new GradeAggregateService(repositories.gradeAggregateRepository,
+                                                              repositories.courseRepository,
+                                                              repositories.programmeRepository,
+                                                              repositories.yearOfStudyRepository,
+                                                              repositories.semesterRepository,
+                                                              gradeSummaryCache);
+
+        gradeRecomputeService = new GradeRecomputeService(gradeAggregateService, repositories.programmeRepository,
+                                                          gradeSummaryCache, parallelism, chunkSize);
+    }
+
+    @Benchmark
+    public GradeRecomputeStatusDto recomputeAll() {
+        gradeRecomputeService.start();
+
+        while(gradeRecomputeService.getStatus().getState() == GradeRecomputeStatusDto.State.RUNNING) {
+            Thread.onSpinWait();
+        }
+
+        return gradeRecomputeService.getStatus();
+    }
+}
@@ -0,0 +1,172 @@
+package com.andreitudose.progwebjava.benchmarks;
+
+import com.andreitudose.progwebjava.model.*;
+import com.andreitudose.progwebjava.repositories.*;
+import com.andreitudose.progwebjava.utils.GradeCalculator;
+import com.andreitudose.progwebjava.utils.GradeTotals;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Spring Data repository interfaces answered from a {@link SyntheticGraph} with map lookups, so the
+ * benchmarks measure the service code rather than a database. Only the methods the benchmarked
+ * services call are implemented; anything else throws.
+ */
+public class InMemoryRepositories {
+    public final StudentRepository studentRepository;
+    public final ProgrammeRepository programmeRepository;
+    public final YearOfStudyRepository yearOfStudyRepository;
+    public final SemesterRepository semesterRepository;
+    public final GradeAggregateRepository gradeAggregateRepository;
+    public final CourseRepository courseRepository;
+    public final CourseTypeRepository courseTypeRepository;
+
+    private final Map<GradeAggregateLevel, Map<Integer, GradeAggregate>> gradeAggregates =
+            new EnumMap<>(GradeAggregateLevel.class);
+
+    @SuppressWarnings("unchecked")
+    public InMemoryRepositories(SyntheticGraph graph) {
+        var students = index(graph.studentList, Student::getId);
+        var programmes = index(graph.programmes, Programme::getId);
+        var yearsOfStudy = index(graph.yearsOfStudy, YearOfStudy::getId);
+        var semesters = index(graph.semesters, Semester::getId);
+
+        for(var level : GradeAggregateLevel.values()) {
+            gradeAggregates.put(level, new ConcurrentHashMap<>());
+        }
+
+        studentRepository = repository(StudentRepository.class, Map.of(
+                "findById", args -> Optional.ofNullable(students.get((Integer) args[0])),
+                "existsById", args -> students.containsKey((Integer) args[0])));
+
+        programmeRepository = repository(ProgrammeRepository.class, Map.of(
+                "findById", args -> Optional.ofNullable(programmes.get((Integer) args[0])),
+                "findIdsWithoutGradeAggregate", args -> ids(graph.programmes, Programme::getId),
+                "findAllIds", args -> ids(graph.programmes, Programme::getId)));
+
+        yearOfStudyRepository = repository(YearOfStudyRepository.class, Map.of(
+                "findByPath", args -> Optional.ofNullable(yearsOfStudy.get((Integer) args[2]))
+                        .filter(x -> x.getProgramme().getId().equals(args[1])
+                                && x.getProgramme().getStudent().getId().equals(args[0])),
+                "findIdsWithoutGradeAggregate", args -> ids(graph.yearsOfStudy, YearOfStudy::getId),
+                "findIdsByProgrammeIdIn", args -> ((Collection<Integer>) args[0]).stream()
+                        .flatMap(x -> programmes.get(x).getYearsOfStudy().stream())
+                        .map(YearOfStudy::getId)
+                        .toList()));
+
+        semesterRepository = repository(SemesterRepository.class, Map.of(
+                "findByPath", args -> Optional.ofNullable(semesters.get((Integer) args[3]))
+                        .filter(x -> x.getYearOfStudy().getId().equals(args[2])
+                                && x.getYearOfStudy().getProgramme().getId().equals(args[1])
+                                && x.getYearOfStudy().getProgramme().getStudent().getId().equals(args[0])),
+                "findIdsWithoutGradeAggregate", args -> ids(graph.semesters, Semester::getId),
+                "findIdsByProgrammeIdIn", args -> ((Collection<Integer>) args[0]).stream()
+                        .flatMap(x -> programmes.get(x).getYearsOfStudy().stream())
+                        .flatMap(x -> x.getSemesters().stream())
+                        .map(Semester::getId)
+                        .toList()));
+
+        gradeAggregateRepository = repository(GradeAggregateRepository.class, Map.of(
+                "findByLevelAndEntityId", args -> Optional.ofNullable(
+                        gradeAggregates.get((GradeAggregateLevel) args[0]).get((Integer) args[1])),
+                "findByLevelAndEntityIdIn", args -> ((Collection<Integer>) args[1]).stream()
+                        .map(gradeAggregates.get((GradeAggregateLevel) args[0])::get)
+                        .filter(Objects::nonNull)
+                        .toList(),
+                "saveAll", args -> {
+                    var saved = new ArrayList<GradeAggregate>();
+                    for(var aggregate : (Iterable<GradeAggregate>) args[0]) {
+                        gradeAggregates.get(aggregate.getLevel()).put(aggregate.getEntityId(), aggregate);
+                        saved.add(aggregate);
+                    }
+                    return saved;
+                },
+                "applyDelta", args -> 0));
+
+        // the grouped sums the database would compute, one row per requested level
+        courseRepository = repository(CourseRepository.class, Map.of(
+                "sumGradesBySemester", args -> sumGrades(args, semesters, Semester::getCourses),
+                "sumGradesByYearOfStudy", args -> sumGrades(args, yearsOfStudy, yearOfStudy ->
+                        yearOfStudy.getSemesters().stream()
+                                .flatMap(semester -> semester.getCourses().stream())
+                                .toList()),
+                "sumGradesByProgramme", args -> sumGrades(args, programmes, programme ->
+                        programme.getYearsOfStudy().stream()
+                                .flatMap(yearOfStudy -> yearOfStudy.getSemesters().stream())
+                                .flatMap(semester -> semester.getCourses().stream())
+                                .toList())));
+
+        // only needed to build the ETag resolver, the benchmarks send no conditional requests
+        courseTypeRepository = repository(CourseTypeRepository.class, Map.of());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<GradeTotalsRow> sumGrades(Object[] args, Map<Integer, T> entities,
+                                                      Function<T, Collection<Course>> courses) {
+        return ((Collection<Integer>) args[0]).stream()
+                .map(id -> (GradeTotalsRow) new Totals(id, GradeCalculator.sum(courses.apply(entities.get(id)))))
+                .toList();
+    }
+
+    private static <T> List<Integer> ids(List<T> entities, Function<T, Integer> id) {
+        return entities.stream().map(id).toList();
+    }
+
+    private record Totals(Integer entityId, GradeTotals totals) implements GradeTotalsRow {
+        public Integer getEntityId() {
+            return entityId;
+        }
+
+        public Long getWeightedGradeSum() {
+            return totals.getWeightedGradeSum();
+        }
+
+        public Long getAveragedCredits() {
+            return (long) totals.getAveragedCredits();
+        }
+
+        public Long getPassedCredits() {
+            return (long) totals.getPassedCredits();
+        }
+
+        public Long getNumberOfCourses() {
+            return (long) totals.getNumberOfCourses();
+        }
+    }
+
+    private static <T> Map<Integer, T> index(List<T> entities, Function<T, Integer> id) {
+        return entities.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if(method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+
+            if(method.getDeclaringClass() == Object.class) {
+                return switch(method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> type.getSimpleName();
+                };
+            }
+
+            var implementation = methods.get(method.getName());
+
+            if(implementation == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+
+            return implementation.apply(args);
+        };
+
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+}
@@ -0,0 +1,116 @@
+package com.andreitudose.progwebjava.benchmarks;
+
+import com.andreitudose.progwebjava.dtos.SemesterDetailedResponseDto;
+import com.andreitudose.progwebjava.dtos.TranscriptResponseDto;
+import com.andreitudose.progwebjava.model.Course;
+import com.andreitudose.progwebjava.model.Programme;
+import com.andreitudose.progwebjava.model.Semester;
+import com.andreitudose.progwebjava.model.YearOfStudy;
+import com.andreitudose.progwebjava.repositories.TranscriptRow;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes every student's transcript and every semester's detailed response, with plain reflective
+ * bean serialization and with the Blackbird module (app.serialization.blackbird.enabled).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"reflection", "blackbird"})
+    public String mode;
+
+    private ObjectWriter transcriptWriter;
+    private ObjectWriter semesterWriter;
+    private List<TranscriptResponseDto> transcripts;
+    private List<SemesterDetailedResponseDto> semesters;
+    private final OutputStream outputStream = OutputStream.nullOutputStream();
+
+    @Setup(Level.Trial)
+    public void setUp(SyntheticGraph graph) {
+        var builder = JsonMapper.builder().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        if(mode.equals("blackbird")) {
+            builder.addModule(new BlackbirdModule());
+        }
+
+        var mapper = builder.build();
+        transcriptWriter = mapper.writerFor(TranscriptResponseDto.class);
+        semesterWriter = mapper.writerFor(SemesterDetailedResponseDto.class);
+
+        transcripts = new ArrayList<>(graph.studentList.size());
+
+        for(var student : graph.studentList) {
+            var rows = new ArrayList<TranscriptRow>();
+
+            for(var programme : student.getProgrammes()) {
+                for(var yearOfStudy : programme.getYearsOfStudy()) {
+                    for(var semester : yearOfStudy.getSemesters()) {
+                        for(var course : semester.getCourses()) {
+                            rows.add(row(programme, yearOfStudy, semester, course));
+                        }
+                    }
+                }
+            }
+
+            transcripts.add(new TranscriptResponseDto().fromTranscriptRows(student, rows));
+        }
+
+        semesters = graph.semesters.stream().map(x -> new SemesterDetailedResponseDto().fromSemester(x)).toList();
+    }
+
+    @Benchmark
+    public void transcripts() throws IOException {
+        for(var transcript : transcripts) {
+            transcriptWriter.writeValue(outputStream, transcript);
+        }
+    }
+
+    @Benchmark
+    public void semesterDetailedResponses() throws IOException {
+        for(var semester : semesters) {
+            semesterWriter.writeValue(outputStream, semester);
+        }
+    }
+
+    private static TranscriptRow row(Programme programme, YearOfStudy yearOfStudy, Semester semester, Course course) {
+        return new TranscriptRow() {
+            public Integer getProgrammeId() { return programme.getId(); }
+            public String getProgrammeName() { return programme.getName(); }
+            public Long getProgrammeWeightedGradeSum() { return null; }
+            public Integer getProgrammeTotalCredits() { return null; }
+            public Integer getProgrammePassedCredits() { return null; }
+            public Integer getYearOfStudyId() { return yearOfStudy.getId(); }
+            public Integer getYearOfStudyNumber() { return yearOfStudy.getNumber(); }
+            public Integer getYearOfStudyCalendarYearOfStart() { return yearOfStudy.getCalendarYearOfStart(); }
+            public Integer getYearOfStudyCalendarYearOfEnd() { return yearOfStudy.getCalendarYearOfEnd(); }
+            public Long getYearOfStudyWeightedGradeSum() { return null; }
+            public Integer getYearOfStudyTotalCredits() { return null; }
+            public Integer getYearOfStudyPassedCredits() { return null; }
+            public Integer getSemesterId() { return semester.getId(); }
+            public Integer getSemesterNumber() { return semester.getNumber(); }
+            public Long getSemesterWeightedGradeSum() { return null; }
+            public Integer getSemesterTotalCredits() { return null; }
+            public Integer getSemesterPassedCredits() { return null; }
+            public Integer getCourseId() { return course.getId(); }
+            public String getCourseName() { return course.getName(); }
+            public String getCourseTypeName() { return course.getCourseType().getName(); }
+            public Integer getCourseNumberOfCredits() { return course.getNumberOfCredits(); }
+            public Integer getCourseGrade() { return course.getGrade(); }
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package com.andreitudose.progwebjava.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load generator: a fixed number of clients each send GET requests back to back
+ * against a running instance, for a fixed duration after a warm-up. Used to compare the
+ * thread-per-request and virtual-thread modes of the application.
+ *
+ * Arguments (all optional): url, comma-separated paths, concurrency, duration and warm-up in seconds.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        var url = args.length > 0 ? args[0] : "http://localhost:8088";
+        var paths = args.length > 1 ? args[1].split(",") : new String[] { "/students/1/programmes/1/average" };
+        var concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        var duration = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 30);
+        var warmup = Duration.ofSeconds(args.length > 4 ? Long.parseLong(args[4]) : 5);
+
+        var client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        var requests = Arrays.stream(paths)
+                .map(x -> HttpRequest.newBuilder(URI.create(url + x)).timeout(Duration.ofSeconds(30)).build())
+                .toList();
+
+        run(client, requests, concurrency, warmup);
+        var result = run(client, requests, concurrency, duration);
+
+        long[] latencies = result.latencies().stream().mapToLong(Long::longValue).sorted().toArray();
+        double throughput = latencies.length / (duration.toMillis() / 1000.0);
+
+        System.out.printf(Locale.ROOT,
+                "{\"url\":\"%s\",\"paths\":\"%s\",\"concurrency\":%d,\"durationSeconds\":%d,\"requests\":%d," +
+                "\"errors\":%d,\"throughput\":%.1f,\"p50Ms\":%.2f,\"p95Ms\":%.2f,\"p99Ms\":%.2f}%n",
+                url, String.join(",", paths), concurrency, duration.toSeconds(), latencies.length,
+                result.errors(), throughput,
+                percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99));
+    }
+
+    private record Result(List<Long> latencies, long errors) {
+    }
+
+    private static Result run(HttpClient client, List<HttpRequest> requests, int concurrency, Duration duration)
+            throws InterruptedException {
+        var deadline = System.nanoTime() + duration.toNanos();
+        var latencies = new ArrayList<List<Long>>();
+        var errors = new LongAdder();
+
+        try(var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for(int i = 0; i < concurrency; i++) {
+                var clientLatencies = new ArrayList<Long>();
+                var offset = i;
+                latencies.add(clientLatencies);
+
+                executor.submit(() -> {
+                    for(int n = offset; System.nanoTime() < deadline; n++) {
+                        var start = System.nanoTime();
+
+                        try {
+                            var response = client.send(requests.get(n % requests.size()),
+                                                       HttpResponse.BodyHandlers.discarding());
+
+                            if(response.statusCode() >= 400) {
+                                errors.increment();
+                                continue;
+                            }
+
+                            clientLatencies.add(System.nanoTime() - start);
+                        }
+                        catch(Exception ex) {
+                            errors.increment();
+                        }
+                    }
+                });
+            }
+        }
+
+        return new Result(latencies.stream().flatMap(List::stream).toList(), errors.sum());
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        if(sortedLatencies.length == 0) {
+            return Double.NaN;
+        }
+
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+
+        return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
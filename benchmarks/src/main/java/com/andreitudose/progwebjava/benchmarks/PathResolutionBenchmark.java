@@ -0,0 +1,54 @@
+package com.andreitudose.progwebjava.benchmarks;
+
+import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.services.PathResolver;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathResolutionBenchmark {
+    private PathResolver pathResolver;
+
+    @Setup(Level.Trial)
+    public void setUp(SyntheticGraph graph) {
+        var repositories = new InMemoryRepositories(graph);
+
+        pathResolver = new PathResolver(repositories.studentRepository,
+                                        repositories.programmeRepository,
+                                        repositories.yearOfStudyRepository,
+                                        repositories.semesterRepository);
+    }
+
+    @Benchmark
+    public void resolveSemesters(SyntheticGraph graph, Blackhole blackhole) throws NotFoundException {
+        for(var semester : graph.semesters) {
+            var yearOfStudy = semester.getYearOfStudy();
+            var programme = yearOfStudy.getProgramme();
+
+            blackhole.consume(pathResolver.getSemester(programme.getStudent().getId(), programme.getId(),
+                                                       yearOfStudy.getId(), semester.getId()));
+        }
+    }
+
+    // a missing semester walks back up the path to find the first missing level
+    @Benchmark
+    public void resolveMissingSemesters(SyntheticGraph graph, Blackhole blackhole) {
+        for(var yearOfStudy : graph.yearsOfStudy) {
+            var programme = yearOfStudy.getProgramme();
+
+            try {
+                pathResolver.getSemester(programme.getStudent().getId(), programme.getId(), yearOfStudy.getId(), 0);
+            }
+            catch(NotFoundException ex) {
+                blackhole.consume(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.andreitudose.progwebjava.benchmarks;
+
+import com.andreitudose.progwebjava.dtos.StudentDetailedResponseDto;
+import com.andreitudose.progwebjava.utils.SerializationUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    private final Map<String, String> errors = Map.of("name", "must not be blank",
+                                                      "grade", "must be less than or equal to 10");
+    private List<StudentDetailedResponseDto> students;
+
+    @Setup(Level.Trial)
+    public void setUp(SyntheticGraph graph) {
+        students = graph.studentList.stream()
+                .map(x -> new StudentDetailedResponseDto().fromStudent(x))
+                .collect(Collectors.toList());
+    }
+
+    // what every BadRequestException used to pay
+    @Benchmark
+    public String errorsNewMapper() throws JsonProcessingException {
+        return new ObjectMapper().writeValueAsString(errors);
+    }
+
+    @Benchmark
+    public String errorsSharedWriter() {
+        return SerializationUtils.serialize(errors);
+    }
+
+    @Benchmark
+    public void studentsToString(Blackhole blackhole) {
+        for(var student : students) {
+            blackhole.consume(SerializationUtils.serialize(student));
+        }
+    }
+
+    @Benchmark
+    public void studentsToStream(Blackhole blackhole) throws IOException {
+        var outputStream = OutputStream.nullOutputStream();
+
+        for(var student : students) {
+            SerializationUtils.serialize(student, outputStream);
+        }
+
+        blackhole.consume(outputStream);
+    }
+}
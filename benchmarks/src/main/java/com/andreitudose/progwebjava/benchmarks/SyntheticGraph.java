@@ -0,0 +1,111 @@
+package com.andreitudose.progwebjava.benchmarks;
+
+import com.andreitudose.progwebjava.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * An in-memory students x programmes x years x semesters x courses object graph. Every level's
+ * fan-out is a JMH parameter, so the size can be changed with e.g. -p coursesPerSemester=20.
+ */
+@State(Scope.Benchmark)
+public class SyntheticGraph {
+
+    @Param("100")
+    public int students;
+
+    @Param("2")
+    public int programmesPerStudent;
+
+    @Param("3")
+    public int yearsOfStudyPerProgramme;
+
+    @Param("2")
+    public int semestersPerYearOfStudy;
+
+    @Param("8")
+    public int coursesPerSemester;
+
+    public final List<Student> studentList = new ArrayList<>();
+    public final List<Programme> programmes = new ArrayList<>();
+    public final List<YearOfStudy> yearsOfStudy = new ArrayList<>();
+    public final List<Semester> semesters = new ArrayList<>();
+    public final List<Course> courses = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void build() {
+        var random = new Random(42);
+
+        for(int s = 0; s < students; s++) {
+            var student = new Student();
+            student.setId(studentList.size() + 1);
+            student.setFirstName("FirstName" + student.getId());
+            student.setLastName("LastName" + student.getId());
+            student.setEmail("student" + student.getId() + "@example.com");
+            student.setProgrammes(new HashSet<>());
+            studentList.add(student);
+
+            for(int p = 0; p < programmesPerStudent; p++) {
+                var programme = new Programme();
+                programme.setId(programmes.size() + 1);
+                programme.setName("Programme" + programme.getId());
+                programme.setStudent(student);
+                student.getProgrammes().add(programme);
+                programmes.add(programme);
+
+                var mandatory = courseType(programme, 2 * programme.getId() - 1, "Mandatory", true);
+                var optional = courseType(programme, 2 * programme.getId(), "Optional", false);
+
+                for(int y = 0; y < yearsOfStudyPerProgramme; y++) {
+                    var yearOfStudy = new YearOfStudy();
+                    yearOfStudy.setId(yearsOfStudy.size() + 1);
+                    yearOfStudy.setNumber(y + 1);
+                    yearOfStudy.setCalendarYearOfStart(2020 + y);
+                    yearOfStudy.setCalendarYearOfEnd(2021 + y);
+                    yearOfStudy.setProgramme(programme);
+                    programme.getYearsOfStudy().add(yearOfStudy);
+                    yearsOfStudy.add(yearOfStudy);
+
+                    for(int m = 0; m < semestersPerYearOfStudy; m++) {
+                        var semester = new Semester();
+                        semester.setId(semesters.size() + 1);
+                        semester.setNumber(m + 1);
+                        semester.setYearOfStudy(yearOfStudy);
+                        yearOfStudy.getSemesters().add(semester);
+                        semesters.add(semester);
+
+                        for(int c = 0; c < coursesPerSemester; c++) {
+                            var course = new Course();
+                            course.setId(courses.size() + 1);
+                            course.setName("Course" + course.getId());
+                            course.setNumberOfCredits(1 + random.nextInt(6));
+                            course.setGrade(random.nextInt(11));
+                            var courseType = c % 4 == 3 ? optional : mandatory;
+                            course.setCourseType(courseType);
+                            course.setSemester(semester);
+                            semester.getCourses().add(course);
+                            courseType.getCourses().add(course);
+                            courses.add(course);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // every fourth course is optional, so the averages exercise excluded course types
+    private static CourseType courseType(Programme programme, int id, String name, boolean consideredForGradeAverage) {
+        var courseType = new CourseType();
+        courseType.setId(id);
+        courseType.setName(name);
+        courseType.setConsideredForGradeAverage(consideredForGradeAverage);
+        courseType.setProgramme(programme);
+        programme.getCourseTypes().add(courseType);
+
+        return courseType;
+    }
+}
@@ -0,0 +1,60 @@
+package com.andreitudose.progwebjava.benchmarks;
+
+import com.andreitudose.progwebjava.dtos.CourseRequestDto;
+import com.andreitudose.progwebjava.utils.ValidationGroups;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+    private ValidatorFactory factory;
+    private Validator validator;
+    private CourseRequestDto request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+
+        request = new CourseRequestDto();
+        request.setName("Algebra");
+        request.setCourseTypeId(1);
+        request.setNumberOfCredits(6);
+        request.setGrade(9);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        factory.close();
+    }
+
+    // what every service constructor used to pay, six times per startup
+    @Benchmark
+    public void buildValidatorFactory(Blackhole blackhole) {
+        try(var factory = Validation.buildDefaultValidatorFactory()) {
+            blackhole.consume(factory.getValidator().validate(request));
+        }
+    }
+
+    // the old request path: @Valid in the controller, then again in the service
+    @Benchmark
+    public void validateTwice(Blackhole blackhole) {
+        blackhole.consume(validator.validate(request));
+        blackhole.consume(validator.validate(request));
+    }
+
+    @Benchmark
+    public void validateOnce(Blackhole blackhole) {
+        blackhole.consume(validator.validate(request, ValidationGroups.Create.class));
+    }
+}
@@ -0,0 +1,57 @@
+package com.andreitudose.progwebjava.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Runs the @Async entity change listeners on an executor of their own, so a burst of writes can't hold up the
+ * streaming export or other work on Spring Boot's task executor. Class-based proxies, like the rest of Boot's AOP, so
+ * listeners can still be injected by their own type.
+ */
+@Configuration
+@EnableAsync(proxyTargetClass = true)
+public class AsyncConfiguration {
+    public static final String ENTITY_CHANGE_EXECUTOR = "entityChangeExecutor";
+
+    // One thread is plenty for the listeners; a full queue rejects the batch, which Spring logs after the commit.
+    @Bean(ENTITY_CHANGE_EXECUTOR)
+    public ThreadPoolTaskExecutor entityChangeExecutor(
+            @Value("${app.entity-changes.queue-capacity:10000}") int queueCapacity) {
+
+        var executor = new ThreadPoolTaskExecutor();
+
+        executor.setThreadNamePrefix("entity-change-");
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+
+        return executor;
+    }
+
+    // Boot only creates its task executor when there is no other one, so it is declared here the same way.
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor applicationTaskExecutorVirtualThreads(SimpleAsyncTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.andreitudose.progwebjava.config;
+
+import com.andreitudose.progwebjava.model.Course;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the course id sequence past the existing course ids at startup, before requests are served. Courses created
+ * with IDENTITY ids predate the sequence, which starts at 1 when ddl-auto creates it on such a database.
+ */
+@Component
+public class CourseSequenceInitializer implements SmartInitializingSingleton {
+    private final JdbcTemplate jdbcTemplate;
+
+    // the entity manager factory creates or updates the schema, so it has to exist first
+    public CourseSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        var maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from courses", Long.class);
+        // Hibernate's pooled optimizer hands out the ids up to the fetched value, which then has to be past max(id)
+        var nextValue = maxId + Course.ID_ALLOCATION_SIZE;
+
+        var database = jdbcTemplate.execute((ConnectionCallback<String>) x -> x.getMetaData().getDatabaseProductName());
+
+        if("MySQL".equals(database)) {
+            // MySQL has no sequences, Hibernate emulates them with a single row table; never moved backwards
+            jdbcTemplate.update("update " + Course.ID_SEQUENCE + " set next_val = ? where next_val < ?",
+                    nextValue, nextValue);
+        }
+        // other databases have real sequences, H2 in the tests runs a single instance so restarting it is safe
+        else if(maxId > 0) {
+            jdbcTemplate.execute("alter sequence " + Course.ID_SEQUENCE + " restart with " + nextValue);
+        }
+    }
+}
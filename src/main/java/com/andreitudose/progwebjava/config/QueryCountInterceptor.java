@@ -0,0 +1,57 @@
+package com.andreitudose.progwebjava.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how many SQL statements each request ran, tagged like http.server.requests.
+ */
+@Component
+public class QueryCountInterceptor implements HandlerInterceptor {
+    private final QueryCounter queryCounter;
+    private final MeterRegistry meterRegistry;
+
+    // one summary per tag combination, so a request doesn't build and look up its meter in the registry
+    private final Map<MeterKey, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public QueryCountInterceptor(QueryCounter queryCounter, MeterRegistry meterRegistry) {
+        this.queryCounter = queryCounter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        queryCounter.start();
+
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        var uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        var key = new MeterKey(request.getMethod(), uri == null ? "UNKNOWN" : uri.toString(), response.getStatus());
+
+        summaries.computeIfAbsent(key, this::register).record(queryCounter.stop());
+    }
+
+    private DistributionSummary register(MeterKey key) {
+        return DistributionSummary.builder("http.server.requests.queries")
+                .description("SQL statements executed per request")
+                .tag("method", key.method())
+                .tag("uri", key.uri())
+                .tag("status", Integer.toString(key.status()))
+                .register(meterRegistry);
+    }
+
+    private record MeterKey(String method, String uri, int status) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.andreitudose.progwebjava.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #start()} and
+ * {@link #stop()}. Statements issued while no count is running are ignored.
+ */
+@Component
+public class QueryCounter implements StatementInspector {
+    private final ThreadLocal<int[]> count = new ThreadLocal<>();
+
+    public void start() {
+        count.set(new int[1]);
+    }
+
+    public int stop() {
+        var current = count.get();
+        count.remove();
+
+        return current == null ? 0 : current[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        var current = count.get();
+
+        if(current != null) {
+            current[0]++;
+        }
+
+        return sql;
+    }
+}
@@ -0,0 +1,21 @@
+package com.andreitudose.progwebjava.config;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * With app.serialization.blackbird.enabled the application's ObjectMapper, the one Spring MVC and the
+ * student export use, reads DTO properties through generated lambdas instead of reflection.
+ */
+@Configuration
+public class SerializationConfiguration {
+
+    // Spring Boot registers every Module bean on the ObjectMapper; static, so it is known before the mapper is built
+    @Bean
+    @ConditionalOnProperty(name = "app.serialization.blackbird.enabled", havingValue = "true")
+    public static BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,26 @@
+package com.andreitudose.progwebjava.controllers;
+
+import com.andreitudose.progwebjava.dtos.CacheRegionStatisticsDto;
+import com.andreitudose.progwebjava.services.CacheStatisticsService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@ConditionalOnProperty(name = "app.cache-statistics.enabled", havingValue = "true")
+@RestController
+@RequestMapping("/cache-statistics")
+public class CacheStatisticsController {
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    public CacheStatisticsController(CacheStatisticsService cacheStatisticsService) {
+        this.cacheStatisticsService = cacheStatisticsService;
+    }
+
+    @GetMapping
+    public List<CacheRegionStatisticsDto> getAll() {
+        return cacheStatisticsService.getAll();
+    }
+}
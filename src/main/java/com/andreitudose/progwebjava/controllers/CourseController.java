@@ -1,16 +1,19 @@
 package com.andreitudose.progwebjava.controllers;
 
+import com.andreitudose.progwebjava.dtos.CourseBulkImportResponseDto;
 import com.andreitudose.progwebjava.dtos.CourseRequestDto;
 import com.andreitudose.progwebjava.dtos.CourseResponseDto;
 import com.andreitudose.progwebjava.exceptions.BadRequestException;
 import com.andreitudose.progwebjava.exceptions.CannotDeleteException;
 import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.exceptions.PreconditionFailedException;
 import com.andreitudose.progwebjava.services.CourseService;
-import jakarta.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -37,15 +40,25 @@ public class CourseController {
     }
 
     @GetMapping("/{id}")
-    public CourseResponseDto getById(
+    public ResponseEntity<CourseResponseDto> getById(
             @PathVariable Integer studentId,
             @PathVariable Integer programmeId,
             @PathVariable Integer yearOfStudyId,
             @PathVariable Integer semesterId,
-            @PathVariable Integer id)
+            @PathVariable Integer id,
+            WebRequest webRequest)
                 throws NotFoundException {
 
-        return courseService.getById(studentId, programmeId, yearOfStudyId, semesterId, id);
+        // a revalidation is answered from the versions alone, without loading the representation
+        if(webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(
+                        courseService.getETag(studentId, programmeId, yearOfStudyId, semesterId, id))) {
+            return null;
+        }
+
+        var response = courseService.getById(studentId, programmeId, yearOfStudyId, semesterId, id);
+
+        return ResponseEntity.ok().eTag(response.getETag()).body(response);
     }
 
     @PostMapping
@@ -54,7 +67,7 @@ public class CourseController {
             @PathVariable Integer programmeId,
             @PathVariable Integer yearOfStudyId,
             @PathVariable Integer semesterId,
-            @Valid @RequestBody CourseRequestDto request
+            @RequestBody CourseRequestDto request
     )
             throws URISyntaxException, NotFoundException, BadRequestException {
         var response = courseService.create(studentId, programmeId, yearOfStudyId, semesterId, request);
@@ -71,6 +84,30 @@ public class CourseController {
         return new ResponseEntity<>(response, responseHeaders, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CourseBulkImportResponseDto createAll(
+            @PathVariable Integer studentId,
+            @PathVariable Integer programmeId,
+            @PathVariable Integer yearOfStudyId,
+            @PathVariable Integer semesterId,
+            @RequestBody List<CourseRequestDto> requests
+    )
+            throws NotFoundException, BadRequestException {
+        return courseService.createAll(studentId, programmeId, yearOfStudyId, semesterId, requests);
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public CourseBulkImportResponseDto createAllFromCsv(
+            @PathVariable Integer studentId,
+            @PathVariable Integer programmeId,
+            @PathVariable Integer yearOfStudyId,
+            @PathVariable Integer semesterId,
+            @RequestBody String csv
+    )
+            throws NotFoundException, BadRequestException {
+        return courseService.createAllFromCsv(studentId, programmeId, yearOfStudyId, semesterId, csv);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<CourseResponseDto> update(
             @PathVariable Integer studentId,
@@ -78,10 +115,11 @@ public class CourseController {
             @PathVariable Integer yearOfStudyId,
             @PathVariable Integer semesterId,
             @PathVariable Integer id,
-            @Valid @RequestBody CourseRequestDto request
+            @RequestBody CourseRequestDto request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     )
-            throws URISyntaxException, NotFoundException, BadRequestException {
-        var response = courseService.update(studentId, programmeId, yearOfStudyId, semesterId, id, request);
+            throws URISyntaxException, NotFoundException, BadRequestException, PreconditionFailedException {
+        var response = courseService.update(studentId, programmeId, yearOfStudyId, semesterId, id, request, ifMatch);
 
         HttpHeaders responseHeaders = new HttpHeaders();
         responseHeaders.setLocation(new URI(
@@ -101,11 +139,12 @@ public class CourseController {
             @PathVariable Integer programmeId,
             @PathVariable Integer yearOfStudyId,
             @PathVariable Integer semesterId,
-            @PathVariable Integer id
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     )
-            throws NotFoundException, CannotDeleteException {
+            throws NotFoundException, CannotDeleteException, PreconditionFailedException {
 
-        courseService.delete(studentId, programmeId, yearOfStudyId, semesterId, id);
+        courseService.delete(studentId, programmeId, yearOfStudyId, semesterId, id, ifMatch);
 
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
@@ -7,12 +7,13 @@ import com.andreitudose.progwebjava.exceptions.BadRequestException;
 import com.andreitudose.progwebjava.exceptions.CannotDeleteException;
 import com.andreitudose.progwebjava.exceptions.DuplicateItemException;
 import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.exceptions.PreconditionFailedException;
 import com.andreitudose.progwebjava.services.CourseTypeService;
-import jakarta.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -36,20 +37,29 @@ public class CourseTypeController {
     }
 
     @GetMapping("/{id}")
-    public CourseTypeDetailedResponseDto getById(
+    public ResponseEntity<CourseTypeDetailedResponseDto> getById(
             @PathVariable Integer studentId,
             @PathVariable Integer programmeId,
-            @PathVariable Integer id)
+            @PathVariable Integer id,
+            WebRequest webRequest)
                 throws NotFoundException {
 
-        return courseTypeService.getById(studentId, programmeId, id);
+        // a revalidation is answered from the versions alone, without loading the representation
+        if(webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(courseTypeService.getETag(studentId, programmeId, id))) {
+            return null;
+        }
+
+        var response = courseTypeService.getById(studentId, programmeId, id);
+
+        return ResponseEntity.ok().eTag(response.getETag()).body(response);
     }
 
     @PostMapping
     public ResponseEntity<CourseTypeResponseDto> create(
             @PathVariable Integer studentId,
             @PathVariable Integer programmeId,
-            @Valid @RequestBody CourseTypeRequestDto request
+            @RequestBody CourseTypeRequestDto request
     )
             throws URISyntaxException, NotFoundException, DuplicateItemException, BadRequestException {
         var response = courseTypeService.create(studentId, programmeId, request);
@@ -69,10 +79,12 @@ public class CourseTypeController {
             @PathVariable Integer studentId,
             @PathVariable Integer programmeId,
             @PathVariable Integer id,
-            @Valid @RequestBody CourseTypeRequestDto request
+            @RequestBody CourseTypeRequestDto request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     )
-            throws URISyntaxException, NotFoundException, DuplicateItemException, BadRequestException {
-        var response = courseTypeService.update(studentId, programmeId, id, request);
+            throws URISyntaxException, NotFoundException, DuplicateItemException, BadRequestException,
+                   PreconditionFailedException {
+        var response = courseTypeService.update(studentId, programmeId, id, request, ifMatch);
 
         HttpHeaders responseHeaders = new HttpHeaders();
         responseHeaders.setLocation(new URI(
@@ -88,11 +100,12 @@ public class CourseTypeController {
     public ResponseEntity<Void> delete(
             @PathVariable Integer studentId,
             @PathVariable Integer programmeId,
-            @PathVariable Integer id
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     )
-            throws NotFoundException, CannotDeleteException {
+            throws NotFoundException, CannotDeleteException, PreconditionFailedException {
 
-        courseTypeService.delete(studentId, programmeId, id);
+        courseTypeService.delete(studentId, programmeId, id, ifMatch);
 
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
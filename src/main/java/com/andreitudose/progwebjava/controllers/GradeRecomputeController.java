@@ -0,0 +1,29 @@
+package com.andreitudose.progwebjava.controllers;
+
+import com.andreitudose.progwebjava.dtos.GradeRecomputeStatusDto;
+import com.andreitudose.progwebjava.services.GradeRecomputeService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/grade-recompute")
+public class GradeRecomputeController {
+
+    private final GradeRecomputeService gradeRecomputeService;
+
+    public GradeRecomputeController(GradeRecomputeService gradeRecomputeService) {
+        this.gradeRecomputeService = gradeRecomputeService;
+    }
+
+    @PostMapping
+    public ResponseEntity<GradeRecomputeStatusDto> start() {
+        return new ResponseEntity<>(gradeRecomputeService.start(), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping
+    public GradeRecomputeStatusDto getStatus() {
+        return gradeRecomputeService.getStatus();
+    }
+}
@@ -8,12 +8,13 @@ import com.andreitudose.progwebjava.exceptions.BadRequestException;
 import com.andreitudose.progwebjava.exceptions.CannotDeleteException;
 import com.andreitudose.progwebjava.exceptions.DuplicateItemException;
 import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.exceptions.PreconditionFailedException;
 import com.andreitudose.progwebjava.services.ProgrammeService;
-import jakarta.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -36,19 +37,28 @@ public class ProgrammeController {
     }
 
     @GetMapping("/{id}")
-    public ProgrammeDetailedResponseDto getById(
+    public ResponseEntity<ProgrammeDetailedResponseDto> getById(
             @PathVariable Integer studentId,
-            @PathVariable Integer id
+            @PathVariable Integer id,
+            WebRequest webRequest
     )
             throws NotFoundException {
 
-        return programmeService.getById(studentId, id);
+        // a revalidation is answered from the versions alone, without loading the representation
+        if(webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(programmeService.getETag(studentId, id))) {
+            return null;
+        }
+
+        var response = programmeService.getById(studentId, id);
+
+        return ResponseEntity.ok().eTag(response.getETag()).body(response);
     }
 
     @PostMapping
     public ResponseEntity<ProgrammeResponseDto> create(
             @PathVariable Integer studentId,
-            @Valid @RequestBody ProgrammeRequestDto request
+            @RequestBody ProgrammeRequestDto request
     )
             throws URISyntaxException, NotFoundException, BadRequestException, DuplicateItemException {
         var response = programmeService.create(studentId, request);
@@ -63,10 +73,12 @@ public class ProgrammeController {
     public ResponseEntity<ProgrammeResponseDto> update(
             @PathVariable Integer studentId,
             @PathVariable Integer id,
-            @Valid @RequestBody ProgrammeRequestDto request
+            @RequestBody ProgrammeRequestDto request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     )
-            throws URISyntaxException, NotFoundException, BadRequestException, DuplicateItemException {
-        var response = programmeService.update(studentId, id, request);
+            throws URISyntaxException, NotFoundException, BadRequestException, DuplicateItemException,
+                   PreconditionFailedException {
+        var response = programmeService.update(studentId, id, request, ifMatch);
 
         HttpHeaders responseHeaders = new HttpHeaders();
         responseHeaders.setLocation(new URI(String.format("/students/%s/programmes/%s", studentId, response.getId())));
@@ -75,21 +87,24 @@ public class ProgrammeController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Integer studentId, @PathVariable Integer id)
-            throws NotFoundException, CannotDeleteException {
+    public ResponseEntity<Void> delete(@PathVariable Integer studentId, @PathVariable Integer id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws NotFoundException, CannotDeleteException, PreconditionFailedException {
 
-        programmeService.delete(studentId, id);
+        programmeService.delete(studentId, id, ifMatch);
 
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
     @GetMapping("/{id}/average")
-    public Double getAverage(@PathVariable Integer id) throws NotFoundException {
-        return programmeService.getGradeAverage(id);
+    public Double getAverage(@PathVariable Integer studentId,
+                             @PathVariable Integer id) throws NotFoundException {
+        return programmeService.getGradeAverage(studentId, id);
     }
 
     @GetMapping("/{id}/credits")
-    public Integer getAccumulatedCredits(@PathVariable Integer id) throws NotFoundException {
-        return programmeService.getTotalCredits(id);
+    public Integer getAccumulatedCredits(@PathVariable Integer studentId,
+                                         @PathVariable Integer id) throws NotFoundException {
+        return programmeService.getTotalCredits(studentId, id);
     }
 }
@@ -0,0 +1,26 @@
+package com.andreitudose.progwebjava.controllers;
+
+import com.andreitudose.progwebjava.dtos.RankingResponseDto;
+import com.andreitudose.progwebjava.exceptions.BadRequestException;
+import com.andreitudose.progwebjava.services.RankingService;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/rankings")
+public class RankingController {
+
+    private final RankingService rankingService;
+
+    public RankingController(RankingService rankingService) {
+        this.rankingService = rankingService;
+    }
+
+    @GetMapping
+    public RankingResponseDto get(@RequestParam String programmeName,
+                                  @RequestParam Integer yearOfStudyNumber,
+                                  @RequestParam(defaultValue = "50") int limit)
+            throws BadRequestException {
+        return rankingService.get(programmeName, yearOfStudyNumber, limit);
+    }
+}
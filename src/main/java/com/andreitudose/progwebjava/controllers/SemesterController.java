@@ -7,12 +7,13 @@ import com.andreitudose.progwebjava.exceptions.BadRequestException;
 import com.andreitudose.progwebjava.exceptions.CannotDeleteException;
 import com.andreitudose.progwebjava.exceptions.DuplicateItemException;
 import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.exceptions.PreconditionFailedException;
 import com.andreitudose.progwebjava.services.SemesterService;
-import jakarta.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -38,14 +39,23 @@ public class SemesterController {
     }
 
     @GetMapping("/{id}")
-    public SemesterDetailedResponseDto getById(
+    public ResponseEntity<SemesterDetailedResponseDto> getById(
             @PathVariable Integer studentId,
             @PathVariable Integer programmeId,
             @PathVariable Integer yearOfStudyId,
-            @PathVariable Integer id)
+            @PathVariable Integer id,
+            WebRequest webRequest)
                 throws NotFoundException {
 
-        return semesterService.getById(studentId, programmeId, yearOfStudyId, id);
+        // a revalidation is answered from the versions alone, without loading the representation
+        if(webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(semesterService.getETag(studentId, programmeId, yearOfStudyId, id))) {
+            return null;
+        }
+
+        var response = semesterService.getById(studentId, programmeId, yearOfStudyId, id);
+
+        return ResponseEntity.ok().eTag(response.getETag()).body(response);
     }
 
     @PostMapping
@@ -53,7 +63,7 @@ public class SemesterController {
             @PathVariable Integer studentId,
             @PathVariable Integer programmeId,
             @PathVariable Integer yearOfStudyId,
-            @Valid @RequestBody SemesterRequestDto request
+            @RequestBody SemesterRequestDto request
     )
             throws URISyntaxException, NotFoundException, DuplicateItemException, BadRequestException {
         var response = semesterService.create(studentId, programmeId, yearOfStudyId, request);
@@ -75,10 +85,12 @@ public class SemesterController {
             @PathVariable Integer programmeId,
             @PathVariable Integer yearOfStudyId,
             @PathVariable Integer id,
-            @Valid @RequestBody SemesterRequestDto request
+            @RequestBody SemesterRequestDto request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     )
-            throws URISyntaxException, NotFoundException, DuplicateItemException, BadRequestException {
-        var response = semesterService.update(studentId, programmeId, yearOfStudyId, id, request);
+            throws URISyntaxException, NotFoundException, DuplicateItemException, BadRequestException,
+                   PreconditionFailedException {
+        var response = semesterService.update(studentId, programmeId, yearOfStudyId, id, request, ifMatch);
 
         HttpHeaders responseHeaders = new HttpHeaders();
         responseHeaders.setLocation(new URI(
@@ -96,22 +108,29 @@ public class SemesterController {
             @PathVariable Integer studentId,
             @PathVariable Integer programmeId,
             @PathVariable Integer yearOfStudyId,
-            @PathVariable Integer id
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     )
-            throws NotFoundException, CannotDeleteException {
+            throws NotFoundException, CannotDeleteException, PreconditionFailedException {
 
-        semesterService.delete(studentId, programmeId, yearOfStudyId, id);
+        semesterService.delete(studentId, programmeId, yearOfStudyId, id, ifMatch);
 
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
     @GetMapping("/{id}/average")
-    public Double getAverage(@PathVariable Integer id) throws NotFoundException {
-        return semesterService.getGradeAverage(id);
+    public Double getAverage(@PathVariable Integer studentId,
+                             @PathVariable Integer programmeId,
+                             @PathVariable Integer yearOfStudyId,
+                             @PathVariable Integer id) throws NotFoundException {
+        return semesterService.getGradeAverage(studentId, programmeId, yearOfStudyId, id);
     }
 
     @GetMapping("/{id}/credits")
-    public Integer getAccumulatedCredits(@PathVariable Integer id) throws NotFoundException {
-        return semesterService.getTotalCredits(id);
+    public Integer getAccumulatedCredits(@PathVariable Integer studentId,
+                                         @PathVariable Integer programmeId,
+                                         @PathVariable Integer yearOfStudyId,
+                                         @PathVariable Integer id) throws NotFoundException {
+        return semesterService.getTotalCredits(studentId, programmeId, yearOfStudyId, id);
     }
 }
@@ -1,22 +1,27 @@
 package com.andreitudose.progwebjava.controllers;
 
 import com.andreitudose.progwebjava.dtos.StudentDetailedResponseDto;
+import com.andreitudose.progwebjava.dtos.StudentPageResponseDto;
 import com.andreitudose.progwebjava.dtos.StudentRequestDto;
 import com.andreitudose.progwebjava.dtos.StudentResponseDto;
+import com.andreitudose.progwebjava.dtos.TranscriptResponseDto;
 import com.andreitudose.progwebjava.exceptions.BadRequestException;
 import com.andreitudose.progwebjava.exceptions.CannotDeleteException;
 import com.andreitudose.progwebjava.exceptions.DuplicateItemException;
 import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.exceptions.PreconditionFailedException;
 import com.andreitudose.progwebjava.services.StudentService;
-import jakarta.validation.Valid;
+import com.andreitudose.progwebjava.services.TranscriptService;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -24,26 +29,62 @@ import java.util.List;
 public class StudentController {
 
     private final StudentService studentService;
+    private final TranscriptService transcriptService;
 
-    public StudentController(StudentService studentService) {
+    public StudentController(StudentService studentService, TranscriptService transcriptService) {
         this.studentService = studentService;
+        this.transcriptService = transcriptService;
     }
 
     @GetMapping
-    public List<StudentResponseDto> getAll() {
-        return studentService.getAll();
+    public StudentPageResponseDto getAll(@RequestParam(defaultValue = "id") String sort,
+                                         @RequestParam(defaultValue = "asc") String direction,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(defaultValue = "50") int size)
+            throws BadRequestException {
+        return studentService.getAll(sort, direction, after, size);
+    }
+
+    @GetMapping("/search")
+    public StudentPageResponseDto search(@RequestParam(required = false) String q,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(defaultValue = "50") int size)
+            throws BadRequestException {
+        return studentService.search(q, after, size);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(studentService::export);
     }
 
 
     @GetMapping("/{id}")
-    public StudentDetailedResponseDto getById(@PathVariable Integer id)
+    public ResponseEntity<StudentDetailedResponseDto> getById(@PathVariable Integer id, WebRequest webRequest)
+            throws NotFoundException {
+
+        // a revalidation is answered from the versions alone, without loading the representation
+        if(webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(studentService.getETag(id))) {
+            return null;
+        }
+
+        var response = studentService.getById(id);
+
+        return ResponseEntity.ok().eTag(response.getETag()).body(response);
+    }
+
+    @GetMapping("/{id}/transcript")
+    public TranscriptResponseDto getTranscript(@PathVariable Integer id)
             throws NotFoundException {
 
-        return studentService.getById(id);
+        return transcriptService.get(id);
     }
 
     @PostMapping
-    public ResponseEntity<StudentResponseDto> create(@Valid @RequestBody StudentRequestDto request)
+    public ResponseEntity<StudentResponseDto> create(@RequestBody StudentRequestDto request)
             throws URISyntaxException, BadRequestException, DuplicateItemException {
         var response = studentService.create(request);
 
@@ -56,10 +97,12 @@ public class StudentController {
     @PutMapping("/{id}")
     public ResponseEntity<StudentResponseDto> update(
             @PathVariable Integer id,
-            @Valid @RequestBody StudentRequestDto request
+            @RequestBody StudentRequestDto request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     )
-            throws URISyntaxException, NotFoundException, BadRequestException, DuplicateItemException {
-        var response = studentService.update(id, request);
+            throws URISyntaxException, NotFoundException, BadRequestException, DuplicateItemException,
+                   PreconditionFailedException {
+        var response = studentService.update(id, request, ifMatch);
 
         HttpHeaders responseHeaders = new HttpHeaders();
         responseHeaders.setLocation(new URI(String.format("/students/%s", response.getId())));
@@ -68,10 +111,11 @@ public class StudentController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Integer id)
-            throws NotFoundException, CannotDeleteException {
+    public ResponseEntity<Void> delete(@PathVariable Integer id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws NotFoundException, CannotDeleteException, PreconditionFailedException {
 
-        studentService.delete(id);
+        studentService.delete(id, ifMatch);
 
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
@@ -7,12 +7,13 @@ import com.andreitudose.progwebjava.exceptions.BadRequestException;
 import com.andreitudose.progwebjava.exceptions.CannotDeleteException;
 import com.andreitudose.progwebjava.exceptions.DuplicateItemException;
 import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.exceptions.PreconditionFailedException;
 import com.andreitudose.progwebjava.services.YearOfStudyService;
-import jakarta.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -36,20 +37,29 @@ public class YearOfStudyController {
     }
 
     @GetMapping("/{id}")
-    public YearOfStudyDetailedResponseDto getById(
+    public ResponseEntity<YearOfStudyDetailedResponseDto> getById(
             @PathVariable Integer studentId,
             @PathVariable Integer programmeId,
-            @PathVariable Integer id)
+            @PathVariable Integer id,
+            WebRequest webRequest)
                 throws NotFoundException {
 
-        return yearOfStudyService.getById(studentId, programmeId, id);
+        // a revalidation is answered from the versions alone, without loading the representation
+        if(webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(yearOfStudyService.getETag(studentId, programmeId, id))) {
+            return null;
+        }
+
+        var response = yearOfStudyService.getById(studentId, programmeId, id);
+
+        return ResponseEntity.ok().eTag(response.getETag()).body(response);
     }
 
     @PostMapping
     public ResponseEntity<YearOfStudyResponseDto> create(
             @PathVariable Integer studentId,
             @PathVariable Integer programmeId,
-            @Valid @RequestBody YearOfStudyRequestDto request
+            @RequestBody YearOfStudyRequestDto request
     )
             throws URISyntaxException, NotFoundException, DuplicateItemException, BadRequestException {
         var response = yearOfStudyService.create(studentId, programmeId, request);
@@ -69,10 +79,12 @@ public class YearOfStudyController {
             @PathVariable Integer studentId,
             @PathVariable Integer programmeId,
             @PathVariable Integer id,
-            @Valid @RequestBody YearOfStudyRequestDto request
+            @RequestBody YearOfStudyRequestDto request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     )
-            throws URISyntaxException, NotFoundException, DuplicateItemException, BadRequestException {
-        var response = yearOfStudyService.update(studentId, programmeId, id, request);
+            throws URISyntaxException, NotFoundException, DuplicateItemException, BadRequestException,
+                   PreconditionFailedException {
+        var response = yearOfStudyService.update(studentId, programmeId, id, request, ifMatch);
 
         HttpHeaders responseHeaders = new HttpHeaders();
         responseHeaders.setLocation(new URI(
@@ -88,22 +100,27 @@ public class YearOfStudyController {
     public ResponseEntity<Void> delete(
             @PathVariable Integer studentId,
             @PathVariable Integer programmeId,
-            @PathVariable Integer id
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     )
-            throws NotFoundException, CannotDeleteException {
+            throws NotFoundException, CannotDeleteException, PreconditionFailedException {
 
-        yearOfStudyService.delete(studentId, programmeId, id);
+        yearOfStudyService.delete(studentId, programmeId, id, ifMatch);
 
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
     @GetMapping("/{id}/average")
-    public Double getAverage(@PathVariable Integer id) throws NotFoundException {
-        return yearOfStudyService.getGradeAverage(id);
+    public Double getAverage(@PathVariable Integer studentId,
+                             @PathVariable Integer programmeId,
+                             @PathVariable Integer id) throws NotFoundException {
+        return yearOfStudyService.getGradeAverage(studentId, programmeId, id);
     }
 
     @GetMapping("/{id}/credits")
-    public Integer getAccumulatedCredits(@PathVariable Integer id) throws NotFoundException {
-        return yearOfStudyService.getTotalCredits(id);
+    public Integer getAccumulatedCredits(@PathVariable Integer studentId,
+                                         @PathVariable Integer programmeId,
+                                         @PathVariable Integer id) throws NotFoundException {
+        return yearOfStudyService.getTotalCredits(studentId, programmeId, id);
     }
 }
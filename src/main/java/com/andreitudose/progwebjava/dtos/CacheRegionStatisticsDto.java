@@ -0,0 +1,63 @@
+package com.andreitudose.progwebjava.dtos;
+
+import org.hibernate.stat.CacheRegionStatistics;
+
+public class CacheRegionStatisticsDto {
+    private String region;
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    private Double hitRatio;
+
+    public CacheRegionStatisticsDto fromCacheRegionStatistics(String region, CacheRegionStatistics statistics) {
+        this.region = region;
+        this.hitCount = statistics.getHitCount();
+        this.missCount = statistics.getMissCount();
+        this.putCount = statistics.getPutCount();
+
+        long lookups = hitCount + missCount;
+        this.hitRatio = lookups == 0 ? null : (double) hitCount / lookups;
+
+        return this;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public void setPutCount(long putCount) {
+        this.putCount = putCount;
+    }
+
+    public Double getHitRatio() {
+        return hitRatio;
+    }
+
+    public void setHitRatio(Double hitRatio) {
+        this.hitRatio = hitRatio;
+    }
+}
@@ -0,0 +1,25 @@
+package com.andreitudose.progwebjava.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CourseBulkImportResponseDto {
+    private int created;
+    private List<CourseBulkImportErrorDto> errors = new ArrayList<>();
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public List<CourseBulkImportErrorDto> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<CourseBulkImportErrorDto> errors) {
+        this.errors = errors;
+    }
+}
@@ -1,6 +1,7 @@
 package com.andreitudose.progwebjava.dtos;
 
 import com.andreitudose.progwebjava.model.Course;
+import com.andreitudose.progwebjava.utils.ValidationGroups;
 import jakarta.validation.constraints.*;
 
 import java.math.BigDecimal;
@@ -10,7 +11,7 @@ public class CourseRequestDto {
     @Size(min = 1, max = 100)
     private String name;
 
-    @NotNull
+    @NotNull(groups = ValidationGroups.Create.class)
     private Integer courseTypeId;
 
     @Min(value = 1)
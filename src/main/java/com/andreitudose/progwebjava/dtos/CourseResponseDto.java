@@ -1,9 +1,13 @@
 package com.andreitudose.progwebjava.dtos;
 
 import com.andreitudose.progwebjava.model.Course;
+import com.andreitudose.progwebjava.repositories.CourseRow;
+import com.andreitudose.progwebjava.utils.ETagUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
-public class CourseResponseDto {
+public class CourseResponseDto implements VersionedDto {
     private Integer id;
+    private Long version;
 
     private String name;
 
@@ -14,6 +18,7 @@ public class CourseResponseDto {
     public CourseResponseDto fromCourse(Course course) {
 
         setId(course.getId());
+        setVersion(course.getVersion());
         setName(course.getName());
         setGrade(course.getGrade());
         setNumberOfCredits(course.getNumberOfCredits());
@@ -21,6 +26,17 @@ public class CourseResponseDto {
         return this;
     }
 
+    public CourseResponseDto fromCourseRow(CourseRow row) {
+
+        setId(row.getId());
+        setVersion(row.getVersion());
+        setName(row.getName());
+        setGrade(row.getGrade());
+        setNumberOfCredits(row.getNumberOfCredits());
+
+        return this;
+    }
+
 
     public Integer getId() {
         return id;
@@ -30,6 +46,20 @@ public class CourseResponseDto {
         this.id = id;
     }
 
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @JsonIgnore
+    public String getETag() {
+        return ETagUtils.of(version);
+    }
+
     public String getName() {
         return name;
     }
@@ -1,26 +1,28 @@
 package com.andreitudose.progwebjava.dtos;
 
 import com.andreitudose.progwebjava.model.CourseType;
+import com.andreitudose.progwebjava.utils.DtoUtils;
+import com.andreitudose.progwebjava.utils.ETagUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
 
 public class CourseTypeDetailedResponseDto {
     private Integer id;
+    private Long version;
     private String name;
     private boolean isConsideredForGradeAverage;
-    private Set<CourseResponseDto> courses = new HashSet<>();
+    private List<CourseResponseDto> courses = new ArrayList<>();
 
     public CourseTypeDetailedResponseDto fromCourseType(CourseType courseType) {
 
         setId(courseType.getId());
+        setVersion(courseType.getVersion());
         setName(courseType.getName());
         setConsideredForGradeAverage(courseType.isConsideredForGradeAverage());
         setCourses(
-                courseType.getCourses().stream()
-                        .map(x -> new CourseResponseDto().fromCourse(x))
-                        .collect(Collectors.toSet())
+                DtoUtils.toList(courseType.getCourses(), x -> new CourseResponseDto().fromCourse(x))
         );
         return this;
     }
@@ -34,6 +36,20 @@ public class CourseTypeDetailedResponseDto {
         this.id = id;
     }
 
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @JsonIgnore
+    public String getETag() {
+        return ETagUtils.of(version, courses);
+    }
+
     public String getName() {
         return name;
     }
@@ -50,11 +66,11 @@ public class CourseTypeDetailedResponseDto {
         isConsideredForGradeAverage = consideredForGradeAverage;
     }
 
-    public Set<CourseResponseDto> getCourses() {
+    public List<CourseResponseDto> getCourses() {
         return courses;
     }
 
-    public void setCourses(Set<CourseResponseDto> courses) {
+    public void setCourses(List<CourseResponseDto> courses) {
         this.courses = courses;
     }
 }
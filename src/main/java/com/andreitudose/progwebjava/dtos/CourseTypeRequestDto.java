@@ -9,11 +9,12 @@ public class CourseTypeRequestDto {
     @Size(min = 1, max = 100)
     private String name;
 
-    private boolean isConsideredForGradeAverage;
+    private Boolean isConsideredForGradeAverage;
 
     public CourseType toCourseType(CourseType course) {
         course.setName(this.getName());
-
+        // when absent the courses count towards the average, as they did before the flag was stored
+        course.setConsideredForGradeAverage(!Boolean.FALSE.equals(this.getConsideredForGradeAverage()));
 
         return course;
     }
@@ -26,11 +27,11 @@ public class CourseTypeRequestDto {
         this.name = name;
     }
 
-    public boolean isConsideredForGradeAverage() {
+    public Boolean getConsideredForGradeAverage() {
         return isConsideredForGradeAverage;
     }
 
-    public void setConsideredForGradeAverage(boolean consideredForGradeAverage) {
+    public void setConsideredForGradeAverage(Boolean consideredForGradeAverage) {
         isConsideredForGradeAverage = consideredForGradeAverage;
     }
 }
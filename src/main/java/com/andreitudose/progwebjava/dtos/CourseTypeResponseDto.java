@@ -1,15 +1,18 @@
 package com.andreitudose.progwebjava.dtos;
 
 import com.andreitudose.progwebjava.model.CourseType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
-public class CourseTypeResponseDto {
+public class CourseTypeResponseDto implements VersionedDto {
     private Integer id;
+    private Long version;
     private String name;
     private boolean isConsideredForGradeAverage;
 
     public CourseTypeResponseDto fromCourseType(CourseType courseType) {
 
         setId(courseType.getId());
+        setVersion(courseType.getVersion());
         setName(courseType.getName());
         setConsideredForGradeAverage(courseType.isConsideredForGradeAverage());
 
@@ -25,6 +28,15 @@ public class CourseTypeResponseDto {
         this.id = id;
     }
 
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
@@ -0,0 +1,76 @@
+package com.andreitudose.progwebjava.dtos;
+
+import java.time.Instant;
+
+public class GradeRecomputeStatusDto {
+    public enum State {
+        IDLE,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private State state;
+    private int totalProgrammes;
+    private int processedProgrammes;
+    private int failedChunks;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String lastError;
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public int getTotalProgrammes() {
+        return totalProgrammes;
+    }
+
+    public void setTotalProgrammes(int totalProgrammes) {
+        this.totalProgrammes = totalProgrammes;
+    }
+
+    public int getProcessedProgrammes() {
+        return processedProgrammes;
+    }
+
+    public void setProcessedProgrammes(int processedProgrammes) {
+        this.processedProgrammes = processedProgrammes;
+    }
+
+    public int getFailedChunks() {
+        return failedChunks;
+    }
+
+    public void setFailedChunks(int failedChunks) {
+        this.failedChunks = failedChunks;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -2,29 +2,29 @@ package com.andreitudose.progwebjava.dtos;
 
 import com.andreitudose.progwebjava.model.Programme;
 import com.andreitudose.progwebjava.model.YearOfStudy;
+import com.andreitudose.progwebjava.utils.DtoUtils;
+import com.andreitudose.progwebjava.utils.ETagUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
 
 public class ProgrammeDetailedResponseDto {
     private Integer id;
+    private Long version;
     private String name;
-    private Set<YearOfStudyResponseDto> yearsOfStudy = new HashSet<>();
-    private Set<CourseTypeResponseDto> courseTypes = new HashSet<>();
+    private List<YearOfStudyResponseDto> yearsOfStudy = new ArrayList<>();
+    private List<CourseTypeResponseDto> courseTypes = new ArrayList<>();
     public ProgrammeDetailedResponseDto fromProgramme(Programme programme) {
 
         setId(programme.getId());
+        setVersion(programme.getVersion());
         setName(programme.getName());
         setYearsOfStudy(
-                programme.getYearsOfStudy().stream()
-                        .map(x -> new YearOfStudyResponseDto().fromYearOfStudy(x))
-                        .collect(Collectors.toSet())
+                DtoUtils.toList(programme.getYearsOfStudy(), x -> new YearOfStudyResponseDto().fromYearOfStudy(x))
         );
         setCourseTypes(
-                programme.getCourseTypes().stream()
-                        .map(x -> new CourseTypeResponseDto().fromCourseType(x))
-                        .collect(Collectors.toSet())
+                DtoUtils.toList(programme.getCourseTypes(), x -> new CourseTypeResponseDto().fromCourseType(x))
         );
         return this;
     }
@@ -38,6 +38,20 @@ public class ProgrammeDetailedResponseDto {
         this.id = id;
     }
 
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @JsonIgnore
+    public String getETag() {
+        return ETagUtils.of(version, yearsOfStudy, courseTypes);
+    }
+
     public String getName() {
         return name;
     }
@@ -46,19 +60,19 @@ public class ProgrammeDetailedResponseDto {
         this.name = name;
     }
 
-    public Set<YearOfStudyResponseDto> getYearsOfStudy() {
+    public List<YearOfStudyResponseDto> getYearsOfStudy() {
         return yearsOfStudy;
     }
 
-    public void setYearsOfStudy(Set<YearOfStudyResponseDto> yearsOfStudy) {
+    public void setYearsOfStudy(List<YearOfStudyResponseDto> yearsOfStudy) {
         this.yearsOfStudy = yearsOfStudy;
     }
 
-    public Set<CourseTypeResponseDto> getCourseTypes() {
+    public List<CourseTypeResponseDto> getCourseTypes() {
         return courseTypes;
     }
 
-    public void setCourseTypes(Set<CourseTypeResponseDto> courseTypes) {
+    public void setCourseTypes(List<CourseTypeResponseDto> courseTypes) {
         this.courseTypes = courseTypes;
     }
 }
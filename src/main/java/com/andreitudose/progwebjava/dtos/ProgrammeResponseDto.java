@@ -1,18 +1,31 @@
 package com.andreitudose.progwebjava.dtos;
 
 import com.andreitudose.progwebjava.model.Programme;
+import com.andreitudose.progwebjava.repositories.ProgrammeRow;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
-public class ProgrammeResponseDto {
+public class ProgrammeResponseDto implements VersionedDto {
     private Integer id;
+    private Long version;
     private String name;
     public ProgrammeResponseDto fromProgramme(Programme programme) {
 
         setId(programme.getId());
+        setVersion(programme.getVersion());
         setName(programme.getName());
 
         return this;
     }
 
+    public ProgrammeResponseDto fromProgrammeRow(ProgrammeRow row) {
+
+        setId(row.getId());
+        setVersion(row.getVersion());
+        setName(row.getName());
+
+        return this;
+    }
+
 
     public Integer getId() {
         return id;
@@ -22,6 +35,15 @@ public class ProgrammeResponseDto {
         this.id = id;
     }
 
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
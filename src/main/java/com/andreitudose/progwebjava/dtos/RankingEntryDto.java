@@ -0,0 +1,83 @@
+package com.andreitudose.progwebjava.dtos;
+
+import com.andreitudose.progwebjava.repositories.RankingRow;
+import com.andreitudose.progwebjava.utils.GradeCalculator;
+
+public class RankingEntryDto {
+    private Integer rank;
+    private Integer studentId;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private Double gradeAverage;
+    private Integer credits;
+
+    public RankingEntryDto fromRankingRow(RankingRow row, Integer rank) {
+
+        setRank(rank);
+        setStudentId(row.getStudentId());
+        setFirstName(row.getFirstName());
+        setLastName(row.getLastName());
+        setEmail(row.getEmail());
+        setGradeAverage(GradeCalculator.average(row.getWeightedGradeSum(), row.getTotalCredits()));
+        setCredits(row.getPassedCredits());
+
+        return this;
+    }
+
+    public Integer getRank() {
+        return rank;
+    }
+
+    public void setRank(Integer rank) {
+        this.rank = rank;
+    }
+
+    public Integer getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Integer studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public Double getGradeAverage() {
+        return gradeAverage;
+    }
+
+    public void setGradeAverage(Double gradeAverage) {
+        this.gradeAverage = gradeAverage;
+    }
+
+    public Integer getCredits() {
+        return credits;
+    }
+
+    public void setCredits(Integer credits) {
+        this.credits = credits;
+    }
+}
@@ -0,0 +1,64 @@
+package com.andreitudose.progwebjava.dtos;
+
+import com.andreitudose.progwebjava.repositories.RankingRow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RankingResponseDto {
+    private String programmeName;
+    private Integer yearOfStudyNumber;
+    private List<RankingEntryDto> students = new ArrayList<>();
+
+    // Rows arrive best first; students with exactly the same average share a rank ("1, 2, 2, 4").
+    public RankingResponseDto fromRankingRows(String programmeName, Integer yearOfStudyNumber, List<RankingRow> rows) {
+
+        setProgrammeName(programmeName);
+        setYearOfStudyNumber(yearOfStudyNumber);
+
+        RankingRow previous = null;
+        int rank = 0;
+
+        for(int i = 0; i < rows.size(); i++) {
+            var row = rows.get(i);
+
+            if(previous == null || !sameAverage(previous, row)) {
+                rank = i + 1;
+            }
+
+            students.add(new RankingEntryDto().fromRankingRow(row, rank));
+            previous = row;
+        }
+
+        return this;
+    }
+
+    private static boolean sameAverage(RankingRow first, RankingRow second) {
+        return first.getWeightedGradeSum() * second.getTotalCredits()
+                == second.getWeightedGradeSum() * first.getTotalCredits();
+    }
+
+    public String getProgrammeName() {
+        return programmeName;
+    }
+
+    public void setProgrammeName(String programmeName) {
+        this.programmeName = programmeName;
+    }
+
+    public Integer getYearOfStudyNumber() {
+        return yearOfStudyNumber;
+    }
+
+    public void setYearOfStudyNumber(Integer yearOfStudyNumber) {
+        this.yearOfStudyNumber = yearOfStudyNumber;
+    }
+
+    public List<RankingEntryDto> getStudents() {
+        return students;
+    }
+
+    public void setStudents(List<RankingEntryDto> students) {
+        this.students = students;
+    }
+}
@@ -2,23 +2,25 @@ package com.andreitudose.progwebjava.dtos;
 
 import com.andreitudose.progwebjava.model.Semester;
 import com.andreitudose.progwebjava.model.YearOfStudy;
+import com.andreitudose.progwebjava.utils.DtoUtils;
+import com.andreitudose.progwebjava.utils.ETagUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
 
 public class SemesterDetailedResponseDto {
     private Integer id;
+    private Long version;
     private Integer number;
-    private Set<CourseResponseDto> courses = new HashSet<>();
+    private List<CourseResponseDto> courses = new ArrayList<>();
     public SemesterDetailedResponseDto fromSemester(Semester semester) {
 
         setId(semester.getId());
+        setVersion(semester.getVersion());
         setNumber(semester.getNumber());
         setCourses(
-                semester.getCourses().stream()
-                        .map(x -> new CourseResponseDto().fromCourse(x))
-                        .collect(Collectors.toSet())
+                DtoUtils.toList(semester.getCourses(), x -> new CourseResponseDto().fromCourse(x))
         );
         return this;
     }
@@ -32,6 +34,20 @@ public class SemesterDetailedResponseDto {
         this.id = id;
     }
 
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @JsonIgnore
+    public String getETag() {
+        return ETagUtils.of(version, courses);
+    }
+
     public Integer getNumber() {
         return number;
     }
@@ -40,11 +56,11 @@ public class SemesterDetailedResponseDto {
         this.number = number;
     }
 
-    public Set<CourseResponseDto> getCourses() {
+    public List<CourseResponseDto> getCourses() {
         return courses;
     }
 
-    public void setCourses(Set<CourseResponseDto> courses) {
+    public void setCourses(List<CourseResponseDto> courses) {
         this.courses = courses;
     }
 }
@@ -1,19 +1,32 @@
 package com.andreitudose.progwebjava.dtos;
 
 import com.andreitudose.progwebjava.model.Semester;
+import com.andreitudose.progwebjava.repositories.SemesterRow;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
-public class SemesterResponseDto {
+public class SemesterResponseDto implements VersionedDto {
     private Integer id;
+    private Long version;
     private Integer number;
 
     public SemesterResponseDto fromSemester(Semester semester) {
 
         setId(semester.getId());
+        setVersion(semester.getVersion());
         setNumber(semester.getNumber());
 
         return this;
     }
 
+    public SemesterResponseDto fromSemesterRow(SemesterRow row) {
+
+        setId(row.getId());
+        setVersion(row.getVersion());
+        setNumber(row.getNumber());
+
+        return this;
+    }
+
 
     public Integer getId() {
         return id;
@@ -23,6 +36,15 @@ public class SemesterResponseDto {
         this.id = id;
     }
 
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Integer getNumber() {
         return number;
     }
@@ -1,28 +1,30 @@
 package com.andreitudose.progwebjava.dtos;
 
 import com.andreitudose.progwebjava.model.Student;
+import com.andreitudose.progwebjava.utils.DtoUtils;
+import com.andreitudose.progwebjava.utils.ETagUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
 
 public class StudentDetailedResponseDto {
     private Integer id;
+    private Long version;
     private String firstName;
     private String lastName;
     private String email;
-    private Set<ProgrammeResponseDto> programmes = new HashSet<>();
+    private List<ProgrammeResponseDto> programmes = new ArrayList<>();
 
     public StudentDetailedResponseDto fromStudent(Student student) {
 
         setId(student.getId());
+        setVersion(student.getVersion());
         setFirstName(student.getFirstName());
         setLastName(student.getLastName());
         setEmail(student.getEmail());
         setProgrammes(
-                student.getProgrammes().stream()
-                        .map(x -> new ProgrammeResponseDto().fromProgramme(x))
-                        .collect(Collectors.toSet())
+                DtoUtils.toList(student.getProgrammes(), x -> new ProgrammeResponseDto().fromProgramme(x))
         );
         return this;
     }
@@ -36,6 +38,20 @@ public class StudentDetailedResponseDto {
         this.id = id;
     }
 
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @JsonIgnore
+    public String getETag() {
+        return ETagUtils.of(version, programmes);
+    }
+
     public String getFirstName() {
         return firstName;
     }
@@ -60,11 +76,11 @@ public class StudentDetailedResponseDto {
         this.email = email;
     }
 
-    public Set<ProgrammeResponseDto> getProgrammes() {
+    public List<ProgrammeResponseDto> getProgrammes() {
         return programmes;
     }
 
-    public void setProgrammes(Set<ProgrammeResponseDto> programmes) {
+    public void setProgrammes(List<ProgrammeResponseDto> programmes) {
         this.programmes = programmes;
     }
 }
@@ -0,0 +1,25 @@
+package com.andreitudose.progwebjava.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StudentPageResponseDto {
+    private List<StudentResponseDto> items = new ArrayList<>();
+    private String nextCursor;
+
+    public List<StudentResponseDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<StudentResponseDto> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -1,9 +1,12 @@
 package com.andreitudose.progwebjava.dtos;
 
 import com.andreitudose.progwebjava.model.Student;
+import com.andreitudose.progwebjava.repositories.StudentSearchRow;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
-public class StudentResponseDto {
+public class StudentResponseDto implements VersionedDto {
     private Integer id;
+    private Long version;
     private String firstName;
     private String lastName;
     private String email;
@@ -11,6 +14,7 @@ public class StudentResponseDto {
     public StudentResponseDto fromStudent(Student student) {
 
         setId(student.getId());
+        setVersion(student.getVersion());
         setFirstName(student.getFirstName());
         setLastName(student.getLastName());
         setEmail(student.getEmail());
@@ -18,6 +22,15 @@ public class StudentResponseDto {
         return this;
     }
 
+    public StudentResponseDto fromStudentSearchRow(StudentSearchRow row) {
+
+        setId(row.getId());
+        setFirstName(row.getFirstName());
+        setLastName(row.getLastName());
+        setEmail(row.getEmail());
+
+        return this;
+    }
 
     public Integer getId() {
         return id;
@@ -27,6 +40,15 @@ public class StudentResponseDto {
         this.id = id;
     }
 
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getFirstName() {
         return firstName;
     }
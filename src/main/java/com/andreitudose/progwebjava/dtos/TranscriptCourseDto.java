@@ -0,0 +1,62 @@
+package com.andreitudose.progwebjava.dtos;
+
+import com.andreitudose.progwebjava.repositories.TranscriptRow;
+
+public class TranscriptCourseDto {
+    private Integer id;
+    private String name;
+    private String courseType;
+    private Integer numberOfCredits;
+    private Integer grade;
+
+    public TranscriptCourseDto fromTranscriptRow(TranscriptRow row) {
+
+        setId(row.getCourseId());
+        setName(row.getCourseName());
+        setCourseType(row.getCourseTypeName());
+        setNumberOfCredits(row.getCourseNumberOfCredits());
+        setGrade(row.getCourseGrade());
+
+        return this;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCourseType() {
+        return courseType;
+    }
+
+    public void setCourseType(String courseType) {
+        this.courseType = courseType;
+    }
+
+    public Integer getNumberOfCredits() {
+        return numberOfCredits;
+    }
+
+    public void setNumberOfCredits(Integer numberOfCredits) {
+        this.numberOfCredits = numberOfCredits;
+    }
+
+    public Integer getGrade() {
+        return grade;
+    }
+
+    public void setGrade(Integer grade) {
+        this.grade = grade;
+    }
+}
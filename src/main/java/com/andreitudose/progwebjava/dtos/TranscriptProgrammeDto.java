@@ -0,0 +1,65 @@
+package com.andreitudose.progwebjava.dtos;
+
+import com.andreitudose.progwebjava.repositories.TranscriptRow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TranscriptProgrammeDto {
+    private Integer id;
+    private String name;
+    private Double gradeAverage;
+    private Integer credits;
+    private List<TranscriptYearOfStudyDto> yearsOfStudy = new ArrayList<>();
+
+    public TranscriptProgrammeDto fromTranscriptRow(TranscriptRow row) {
+
+        setId(row.getProgrammeId());
+        setName(row.getProgrammeName());
+        setGradeAverage(TranscriptResponseDto.gradeAverage(row.getProgrammeWeightedGradeSum(),
+                                                           row.getProgrammeTotalCredits()));
+        setCredits(row.getProgrammePassedCredits());
+
+        return this;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Double getGradeAverage() {
+        return gradeAverage;
+    }
+
+    public void setGradeAverage(Double gradeAverage) {
+        this.gradeAverage = gradeAverage;
+    }
+
+    public Integer getCredits() {
+        return credits;
+    }
+
+    public void setCredits(Integer credits) {
+        this.credits = credits;
+    }
+
+    public List<TranscriptYearOfStudyDto> getYearsOfStudy() {
+        return yearsOfStudy;
+    }
+
+    public void setYearsOfStudy(List<TranscriptYearOfStudyDto> yearsOfStudy) {
+        this.yearsOfStudy = yearsOfStudy;
+    }
+}
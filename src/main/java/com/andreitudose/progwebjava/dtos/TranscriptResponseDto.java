@@ -0,0 +1,111 @@
+package com.andreitudose.progwebjava.dtos;
+
+import com.andreitudose.progwebjava.model.Student;
+import com.andreitudose.progwebjava.repositories.TranscriptRow;
+import com.andreitudose.progwebjava.utils.GradeCalculator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+public class TranscriptResponseDto {
+    private Integer id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private List<TranscriptProgrammeDto> programmes = new ArrayList<>();
+
+    // rows must be ordered by programme, year of study, semester and course, as returned by the transcript query
+    public TranscriptResponseDto fromTranscriptRows(Student student, List<TranscriptRow> rows) {
+
+        setId(student.getId());
+        setFirstName(student.getFirstName());
+        setLastName(student.getLastName());
+        setEmail(student.getEmail());
+
+        var programmes = new LinkedHashMap<Integer, TranscriptProgrammeDto>();
+        var yearsOfStudy = new LinkedHashMap<Integer, TranscriptYearOfStudyDto>();
+        var semesters = new LinkedHashMap<Integer, TranscriptSemesterDto>();
+
+        for(var row : rows) {
+            var programme = programmes.computeIfAbsent(row.getProgrammeId(),
+                    x -> new TranscriptProgrammeDto().fromTranscriptRow(row));
+
+            if(row.getYearOfStudyId() == null) {
+                continue;
+            }
+
+            var yearOfStudy = yearsOfStudy.computeIfAbsent(row.getYearOfStudyId(), x -> {
+                var dto = new TranscriptYearOfStudyDto().fromTranscriptRow(row);
+                programme.getYearsOfStudy().add(dto);
+                return dto;
+            });
+
+            if(row.getSemesterId() == null) {
+                continue;
+            }
+
+            var semester = semesters.computeIfAbsent(row.getSemesterId(), x -> {
+                var dto = new TranscriptSemesterDto().fromTranscriptRow(row);
+                yearOfStudy.getSemesters().add(dto);
+                return dto;
+            });
+
+            if(row.getCourseId() != null) {
+                semester.getCourses().add(new TranscriptCourseDto().fromTranscriptRow(row));
+            }
+        }
+
+        setProgrammes(new ArrayList<>(programmes.values()));
+
+        return this;
+    }
+
+    static Double gradeAverage(Long weightedGradeSum, Integer totalCredits) {
+        if(weightedGradeSum == null || totalCredits == null) {
+            return null;
+        }
+
+        return GradeCalculator.average(weightedGradeSum, totalCredits);
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public List<TranscriptProgrammeDto> getProgrammes() {
+        return programmes;
+    }
+
+    public void setProgrammes(List<TranscriptProgrammeDto> programmes) {
+        this.programmes = programmes;
+    }
+}
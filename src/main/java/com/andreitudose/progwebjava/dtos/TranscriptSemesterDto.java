@@ -0,0 +1,65 @@
+package com.andreitudose.progwebjava.dtos;
+
+import com.andreitudose.progwebjava.repositories.TranscriptRow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TranscriptSemesterDto {
+    private Integer id;
+    private Integer number;
+    private Double gradeAverage;
+    private Integer credits;
+    private List<TranscriptCourseDto> courses = new ArrayList<>();
+
+    public TranscriptSemesterDto fromTranscriptRow(TranscriptRow row) {
+
+        setId(row.getSemesterId());
+        setNumber(row.getSemesterNumber());
+        setGradeAverage(TranscriptResponseDto.gradeAverage(row.getSemesterWeightedGradeSum(),
+                                                           row.getSemesterTotalCredits()));
+        setCredits(row.getSemesterPassedCredits());
+
+        return this;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Integer getNumber() {
+        return number;
+    }
+
+    public void setNumber(Integer number) {
+        this.number = number;
+    }
+
+    public Double getGradeAverage() {
+        return gradeAverage;
+    }
+
+    public void setGradeAverage(Double gradeAverage) {
+        this.gradeAverage = gradeAverage;
+    }
+
+    public Integer getCredits() {
+        return credits;
+    }
+
+    public void setCredits(Integer credits) {
+        this.credits = credits;
+    }
+
+    public List<TranscriptCourseDto> getCourses() {
+        return courses;
+    }
+
+    public void setCourses(List<TranscriptCourseDto> courses) {
+        this.courses = courses;
+    }
+}
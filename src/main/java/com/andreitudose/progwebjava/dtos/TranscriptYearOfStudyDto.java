@@ -0,0 +1,85 @@
+package com.andreitudose.progwebjava.dtos;
+
+import com.andreitudose.progwebjava.repositories.TranscriptRow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TranscriptYearOfStudyDto {
+    private Integer id;
+    private Integer number;
+    private Integer calendarYearOfStart;
+    private Integer calendarYearOfEnd;
+    private Double gradeAverage;
+    private Integer credits;
+    private List<TranscriptSemesterDto> semesters = new ArrayList<>();
+
+    public TranscriptYearOfStudyDto fromTranscriptRow(TranscriptRow row) {
+
+        setId(row.getYearOfStudyId());
+        setNumber(row.getYearOfStudyNumber());
+        setCalendarYearOfStart(row.getYearOfStudyCalendarYearOfStart());
+        setCalendarYearOfEnd(row.getYearOfStudyCalendarYearOfEnd());
+        setGradeAverage(TranscriptResponseDto.gradeAverage(row.getYearOfStudyWeightedGradeSum(),
+                                                           row.getYearOfStudyTotalCredits()));
+        setCredits(row.getYearOfStudyPassedCredits());
+
+        return this;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Integer getNumber() {
+        return number;
+    }
+
+    public void setNumber(Integer number) {
+        this.number = number;
+    }
+
+    public Integer getCalendarYearOfStart() {
+        return calendarYearOfStart;
+    }
+
+    public void setCalendarYearOfStart(Integer calendarYearOfStart) {
+        this.calendarYearOfStart = calendarYearOfStart;
+    }
+
+    public Integer getCalendarYearOfEnd() {
+        return calendarYearOfEnd;
+    }
+
+    public void setCalendarYearOfEnd(Integer calendarYearOfEnd) {
+        this.calendarYearOfEnd = calendarYearOfEnd;
+    }
+
+    public Double getGradeAverage() {
+        return gradeAverage;
+    }
+
+    public void setGradeAverage(Double gradeAverage) {
+        this.gradeAverage = gradeAverage;
+    }
+
+    public Integer getCredits() {
+        return credits;
+    }
+
+    public void setCredits(Integer credits) {
+        this.credits = credits;
+    }
+
+    public List<TranscriptSemesterDto> getSemesters() {
+        return semesters;
+    }
+
+    public void setSemesters(List<TranscriptSemesterDto> semesters) {
+        this.semesters = semesters;
+    }
+}
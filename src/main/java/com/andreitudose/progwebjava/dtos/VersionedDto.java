@@ -0,0 +1,9 @@
+package com.andreitudose.progwebjava.dtos;
+
+import com.andreitudose.progwebjava.repositories.VersionRow;
+
+/**
+ * A response whose entity carries an optimistic-locking version, so parents can fold it into their ETag.
+ */
+public interface VersionedDto extends VersionRow {
+}
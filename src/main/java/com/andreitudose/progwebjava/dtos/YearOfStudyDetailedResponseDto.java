@@ -2,27 +2,29 @@ package com.andreitudose.progwebjava.dtos;
 
 import com.andreitudose.progwebjava.model.Programme;
 import com.andreitudose.progwebjava.model.YearOfStudy;
+import com.andreitudose.progwebjava.utils.DtoUtils;
+import com.andreitudose.progwebjava.utils.ETagUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
 
 public class YearOfStudyDetailedResponseDto {
     private Integer id;
+    private Long version;
     private Integer number;
     private int calendarYearOfStart;
     private int calendarYearOfEnd;
-    private Set<SemesterResponseDto> semesters = new HashSet<>();
+    private List<SemesterResponseDto> semesters = new ArrayList<>();
     public YearOfStudyDetailedResponseDto fromYearOfStudy(YearOfStudy yearOfStudy) {
 
         setId(yearOfStudy.getId());
+        setVersion(yearOfStudy.getVersion());
         setNumber(yearOfStudy.getNumber());
         setSemesters(
-                yearOfStudy.getSemesters().stream()
-                        .map(x -> new SemesterResponseDto().fromSemester(x))
-                        .collect(Collectors.toSet())
+                DtoUtils.toList(yearOfStudy.getSemesters(), x -> new SemesterResponseDto().fromSemester(x))
         );
         return this;
     }
@@ -36,6 +38,20 @@ public class YearOfStudyDetailedResponseDto {
         this.id = id;
     }
 
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @JsonIgnore
+    public String getETag() {
+        return ETagUtils.of(version, semesters);
+    }
+
     public Integer getNumber() {
         return number;
     }
@@ -60,11 +76,11 @@ public class YearOfStudyDetailedResponseDto {
         this.calendarYearOfEnd = calendarYearOfEnd;
     }
 
-    public Set<SemesterResponseDto> getSemesters() {
+    public List<SemesterResponseDto> getSemesters() {
         return semesters;
     }
 
-    public void setSemesters(Set<SemesterResponseDto> semesters) {
+    public void setSemesters(List<SemesterResponseDto> semesters) {
         this.semesters = semesters;
     }
 }
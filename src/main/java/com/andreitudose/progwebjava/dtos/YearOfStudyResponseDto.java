@@ -2,23 +2,37 @@ package com.andreitudose.progwebjava.dtos;
 
 import com.andreitudose.progwebjava.model.Programme;
 import com.andreitudose.progwebjava.model.YearOfStudy;
+import com.andreitudose.progwebjava.repositories.YearOfStudyRow;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 
-public class YearOfStudyResponseDto {
+public class YearOfStudyResponseDto implements VersionedDto {
     private Integer id;
+    private Long version;
     private Integer number;
     private int calendarYearOfStart;
     private int calendarYearOfEnd;
     public YearOfStudyResponseDto fromYearOfStudy(YearOfStudy yearOfStudy) {
 
         setId(yearOfStudy.getId());
+        setVersion(yearOfStudy.getVersion());
         setNumber(yearOfStudy.getNumber());
         setCalendarYearOfStart(yearOfStudy.getCalendarYearOfStart());
         setCalendarYearOfEnd(yearOfStudy.getCalendarYearOfEnd());
         return this;
     }
 
+    public YearOfStudyResponseDto fromYearOfStudyRow(YearOfStudyRow row) {
+
+        setId(row.getId());
+        setVersion(row.getVersion());
+        setNumber(row.getNumber());
+        setCalendarYearOfStart(row.getCalendarYearOfStart());
+        setCalendarYearOfEnd(row.getCalendarYearOfEnd());
+        return this;
+    }
+
 
     public Integer getId() {
         return id;
@@ -28,6 +42,15 @@ public class YearOfStudyResponseDto {
         this.id = id;
     }
 
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Integer getNumber() {
         return number;
     }
@@ -0,0 +1,7 @@
+package com.andreitudose.progwebjava.events;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,18 @@
+package com.andreitudose.progwebjava.events;
+
+import java.util.List;
+
+/**
+ * The changes committed by one transaction, in the order they were made.
+ */
+public class EntityChangeBatch {
+    private final List<EntityChangedEvent> events;
+
+    public EntityChangeBatch(List<EntityChangedEvent> events) {
+        this.events = List.copyOf(events);
+    }
+
+    public List<EntityChangedEvent> getEvents() {
+        return events;
+    }
+}
@@ -0,0 +1,44 @@
+package com.andreitudose.progwebjava.events;
+
+import com.andreitudose.progwebjava.config.AsyncConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Counts the committed entity changes as app.entity.changes, tagged by kind and type. Runs after the commit on the
+ * entity change executor, off the request thread.
+ */
+@Component
+public class EntityChangeMetrics {
+    private final Map<EntityKind, Map<ChangeType, Counter>> counters = new EnumMap<>(EntityKind.class);
+
+    public EntityChangeMetrics(MeterRegistry meterRegistry) {
+        for(var kind : EntityKind.values()) {
+            var byType = new EnumMap<ChangeType, Counter>(ChangeType.class);
+
+            for(var type : ChangeType.values()) {
+                byType.put(type, Counter.builder("app.entity.changes")
+                        .tag("kind", kind.name())
+                        .tag("type", type.name())
+                        .register(meterRegistry));
+            }
+
+            counters.put(kind, byType);
+        }
+    }
+
+    @Async(AsyncConfiguration.ENTITY_CHANGE_EXECUTOR)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEntityChanges(EntityChangeBatch batch) {
+        for(var event : batch.getEvents()) {
+            counters.get(event.getKind()).get(event.getType()).increment();
+        }
+    }
+}
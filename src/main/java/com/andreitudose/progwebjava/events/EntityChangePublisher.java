@@ -0,0 +1,73 @@
+package com.andreitudose.progwebjava.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the changes made in the current transaction and publishes them as a single {@link EntityChangeBatch}
+ * right before it commits. Listeners are {@code @TransactionalEventListener(phase = AFTER_COMMIT)}, so they only run
+ * once the transaction has committed, and Spring logs their failures instead of failing the committed write; nothing
+ * reaches them on rollback. Outside a transaction the change is published right away.
+ */
+@Component
+public class EntityChangePublisher {
+    private static final Logger logger = LoggerFactory.getLogger(EntityChangePublisher.class);
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public EntityChangePublisher(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    public void publish(EntityChangedEvent event) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // the change is already committed, a failing listener must not turn it into an error
+            try {
+                applicationEventPublisher.publishEvent(new EntityChangeBatch(List.of(event)));
+            }
+            catch(RuntimeException ex) {
+                logger.error("Entity change listener failed for {}", event, ex);
+            }
+
+            return;
+        }
+
+        getPendingBatch().events.add(event);
+    }
+
+    // The batch is kept in its synchronization rather than bound as a resource: synchronizations are suspended with
+    // their transaction, so an inner REQUIRES_NEW transaction collects, and commits or drops, a batch of its own.
+    private PendingBatch getPendingBatch() {
+        for(var synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if(synchronization instanceof PendingBatch batch && batch.getPublisher() == this) {
+                return batch;
+            }
+        }
+
+        var batch = new PendingBatch();
+        TransactionSynchronizationManager.registerSynchronization(batch);
+
+        return batch;
+    }
+
+    private class PendingBatch implements TransactionSynchronization {
+        private final List<EntityChangedEvent> events = new ArrayList<>();
+
+        private EntityChangePublisher getPublisher() {
+            return EntityChangePublisher.this;
+        }
+
+        // Published before the commit so the transactional listeners are registered with this transaction.
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            applicationEventPublisher.publishEvent(new EntityChangeBatch(events));
+        }
+    }
+}
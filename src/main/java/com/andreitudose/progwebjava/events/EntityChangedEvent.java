@@ -0,0 +1,85 @@
+package com.andreitudose.progwebjava.events;
+
+/**
+ * A create, update or delete of one entity, with the ids of its ancestors. Ancestors that don't apply to the kind
+ * (e.g. the semester of a year of study) are null.
+ */
+public class EntityChangedEvent {
+    private final EntityKind kind;
+    private final ChangeType type;
+    private final Integer studentId;
+    private final Integer programmeId;
+    private final Integer yearOfStudyId;
+    private final Integer semesterId;
+    private final Integer entityId;
+
+    private EntityChangedEvent(EntityKind kind, ChangeType type, Integer studentId, Integer programmeId,
+                               Integer yearOfStudyId, Integer semesterId, Integer entityId) {
+        this.kind = kind;
+        this.type = type;
+        this.studentId = studentId;
+        this.programmeId = programmeId;
+        this.yearOfStudyId = yearOfStudyId;
+        this.semesterId = semesterId;
+        this.entityId = entityId;
+    }
+
+    public static EntityChangedEvent student(ChangeType type, Integer id) {
+        return new EntityChangedEvent(EntityKind.STUDENT, type, id, null, null, null, id);
+    }
+
+    public static EntityChangedEvent programme(ChangeType type, Integer studentId, Integer id) {
+        return new EntityChangedEvent(EntityKind.PROGRAMME, type, studentId, id, null, null, id);
+    }
+
+    public static EntityChangedEvent courseType(ChangeType type, Integer studentId, Integer programmeId, Integer id) {
+        return new EntityChangedEvent(EntityKind.COURSE_TYPE, type, studentId, programmeId, null, null, id);
+    }
+
+    public static EntityChangedEvent yearOfStudy(ChangeType type, Integer studentId, Integer programmeId, Integer id) {
+        return new EntityChangedEvent(EntityKind.YEAR_OF_STUDY, type, studentId, programmeId, id, null, id);
+    }
+
+    public static EntityChangedEvent semester(ChangeType type, Integer studentId, Integer programmeId,
+                                              Integer yearOfStudyId, Integer id) {
+        return new EntityChangedEvent(EntityKind.SEMESTER, type, studentId, programmeId, yearOfStudyId, id, id);
+    }
+
+    public static EntityChangedEvent course(ChangeType type, Integer studentId, Integer programmeId,
+                                            Integer yearOfStudyId, Integer semesterId, Integer id) {
+        return new EntityChangedEvent(EntityKind.COURSE, type, studentId, programmeId, yearOfStudyId, semesterId, id);
+    }
+
+    public EntityKind getKind() {
+        return kind;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Integer getStudentId() {
+        return studentId;
+    }
+
+    public Integer getProgrammeId() {
+        return programmeId;
+    }
+
+    public Integer getYearOfStudyId() {
+        return yearOfStudyId;
+    }
+
+    public Integer getSemesterId() {
+        return semesterId;
+    }
+
+    public Integer getEntityId() {
+        return entityId;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s %s", kind, entityId, type);
+    }
+}
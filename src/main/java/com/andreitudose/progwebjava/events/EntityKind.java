@@ -0,0 +1,10 @@
+package com.andreitudose.progwebjava.events;
+
+public enum EntityKind {
+    STUDENT,
+    PROGRAMME,
+    COURSE_TYPE,
+    YEAR_OF_STUDY,
+    SEMESTER,
+    COURSE
+}
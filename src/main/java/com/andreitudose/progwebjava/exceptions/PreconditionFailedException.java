@@ -0,0 +1,11 @@
+package com.andreitudose.progwebjava.exceptions;
+
+public class PreconditionFailedException extends Exception {
+	public PreconditionFailedException(String entityName, String propertyName, String propertyValue) {
+		super(String.format("%s with %s = %s has been modified since it was read",
+							entityName,
+							propertyName,
+							propertyValue));
+	}
+
+}
@@ -7,12 +7,23 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
-@Table(name="courses")
+@Table(name="courses", indexes = {
+        @Index(name = "idx_courses_semester_name", columnList = "semester_id, name"),
+        @Index(name = "idx_courses_course_type_name", columnList = "course_type_id, name") })
 public class Course {
+    public static final String ID_SEQUENCE = "courses_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // pooled sequence ids let Hibernate batch inserts, which IDENTITY generation disables
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Integer id;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(nullable = false)
     private Semester semester;
@@ -42,6 +53,14 @@ public class Course {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Semester getSemester() {
         return semester;
     }
@@ -2,17 +2,24 @@ package com.andreitudose.progwebjava.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name="course_types", uniqueConstraints = {@UniqueConstraint(columnNames = {"programme_id", "name"})})
 public class CourseType {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @NotBlank
     @Column(nullable = false, length = 100)
     private String name;
@@ -25,7 +32,8 @@ public class CourseType {
     private Programme programme;
 
     @OneToMany(mappedBy="courseType", cascade = CascadeType.ALL, orphanRemoval = true)
-    private Set<Course> courses = new HashSet<>();
+    @OrderBy("name, id")
+    private Set<Course> courses = new LinkedHashSet<>();
 
     public Integer getId() {
         return id;
@@ -35,6 +43,14 @@ public class CourseType {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
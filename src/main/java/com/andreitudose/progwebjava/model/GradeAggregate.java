@@ -0,0 +1,87 @@
+package com.andreitudose.progwebjava.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name="grade_aggregates", uniqueConstraints = { @UniqueConstraint(columnNames = {"level", "entity_id"})})
+public class GradeAggregate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private GradeAggregateLevel level;
+
+    @Column(name = "entity_id", nullable = false)
+    private Integer entityId;
+
+    @Column(nullable = false)
+    private long weightedGradeSum;
+
+    // Credits of the courses whose type is considered for the grade average, i.e. the average's denominator.
+    @Column(nullable = false)
+    private int totalCredits;
+
+    @Column(nullable = false)
+    private int passedCredits;
+
+    @Column(nullable = false)
+    private int numberOfCourses;
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public GradeAggregateLevel getLevel() {
+        return level;
+    }
+
+    public void setLevel(GradeAggregateLevel level) {
+        this.level = level;
+    }
+
+    public Integer getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Integer entityId) {
+        this.entityId = entityId;
+    }
+
+    public long getWeightedGradeSum() {
+        return weightedGradeSum;
+    }
+
+    public void setWeightedGradeSum(long weightedGradeSum) {
+        this.weightedGradeSum = weightedGradeSum;
+    }
+
+    public int getTotalCredits() {
+        return totalCredits;
+    }
+
+    public void setTotalCredits(int totalCredits) {
+        this.totalCredits = totalCredits;
+    }
+
+    public int getPassedCredits() {
+        return passedCredits;
+    }
+
+    public void setPassedCredits(int passedCredits) {
+        this.passedCredits = passedCredits;
+    }
+
+    public int getNumberOfCourses() {
+        return numberOfCourses;
+    }
+
+    public void setNumberOfCourses(int numberOfCourses) {
+        this.numberOfCourses = numberOfCourses;
+    }
+}
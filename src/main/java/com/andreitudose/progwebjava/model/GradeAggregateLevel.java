@@ -0,0 +1,7 @@
+package com.andreitudose.progwebjava.model;
+
+public enum GradeAggregateLevel {
+    SEMESTER,
+    YEAR_OF_STUDY,
+    PROGRAMME
+}
@@ -2,18 +2,27 @@ package com.andreitudose.progwebjava.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.NotNull;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 @Entity
-@Table(name="programmes", uniqueConstraints = { @UniqueConstraint(columnNames = {"student_id", "name"})})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name="programmes", uniqueConstraints = { @UniqueConstraint(columnNames = {"student_id", "name"})},
+       indexes = { @Index(name = "idx_programmes_name", columnList = "name") })
 public class Programme {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(nullable = false)
     private Student student;
@@ -23,10 +32,14 @@ public class Programme {
     private String name;
 
     @OneToMany(mappedBy="programme", cascade = CascadeType.ALL, orphanRemoval = true)
-    private Set<YearOfStudy> yearsOfStudy = new HashSet<>();
+    @OrderBy("number")
+    private Set<YearOfStudy> yearsOfStudy = new LinkedHashSet<>();
 
+    // initialized for up to 16 loaded programmes in one query
     @OneToMany(mappedBy="programme", cascade = CascadeType.ALL, orphanRemoval = true)
-    private Set<CourseType> courseTypes = new HashSet<>();
+    @BatchSize(size = 16)
+    @OrderBy("name")
+    private Set<CourseType> courseTypes = new LinkedHashSet<>();
 
     public Integer getId() {
         return id;
@@ -36,6 +49,14 @@ public class Programme {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Student getStudent() {
         return student;
     }
@@ -3,7 +3,7 @@ package com.andreitudose.progwebjava.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 @Entity
@@ -13,6 +13,10 @@ public class Semester {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @Min(1)
     private Integer number;
 
@@ -21,7 +25,8 @@ public class Semester {
     private YearOfStudy yearOfStudy;
 
     @OneToMany(mappedBy = "semester", cascade = CascadeType.ALL, orphanRemoval = true)
-    private Set<Course> courses = new HashSet<>();
+    @OrderBy("name, id")
+    private Set<Course> courses = new LinkedHashSet<>();
 
     public Integer getId() {
         return id;
@@ -31,6 +36,14 @@ public class Semester {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Integer getNumber() {
         return number;
     }
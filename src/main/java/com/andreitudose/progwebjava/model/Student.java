@@ -3,15 +3,30 @@ package com.andreitudose.progwebjava.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
 import java.util.Set;
 
 @Entity
-@Table(name="students")
+@Table(name="students",
+       uniqueConstraints = { @UniqueConstraint(name = Student.UNIQUE_EMAIL, columnNames = {"email"})},
+       indexes = {
+           @Index(name = "idx_students_first_name", columnList = "firstName, id"),
+           @Index(name = "idx_students_last_name", columnList = "lastName, id"),
+           @Index(name = "idx_students_search_first_name", columnList = "searchFirstName, id"),
+           @Index(name = "idx_students_search_last_name", columnList = "searchLastName, id"),
+           @Index(name = "idx_students_search_email", columnList = "searchEmail, id")
+       })
 public class Student {
+    public static final String UNIQUE_EMAIL = "uk_students_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
     @NotBlank
     @Column(nullable = false, length = 100)
     private String firstName;
@@ -19,11 +34,20 @@ public class Student {
     @Column(nullable = false, length = 100)
     private String lastName;
     @NotBlank
-    @Column(nullable = false, length = 100, unique = true)
+    @Column(nullable = false, length = 100)
     private String email;
 
+    // lower-cased copies matched by the prefix search, so it doesn't depend on the columns' collation
+    @Column(nullable = false, length = 100)
+    private String searchFirstName;
+    @Column(nullable = false, length = 100)
+    private String searchLastName;
+    @Column(nullable = false, length = 100)
+    private String searchEmail;
+
     @OneToMany(mappedBy="student", cascade = CascadeType.ALL, orphanRemoval = true)
-    private Set<Programme> programmes = new HashSet<>();
+    @OrderBy("name")
+    private Set<Programme> programmes = new LinkedHashSet<>();
 
     public Integer getId() {
         return id;
@@ -33,12 +57,21 @@ public class Student {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getFirstName() {
         return firstName;
     }
 
     public void setFirstName(String firstName) {
         this.firstName = firstName;
+        this.searchFirstName = toSearchValue(firstName);
     }
 
     public String getLastName() {
@@ -47,6 +80,7 @@ public class Student {
 
     public void setLastName(String lastName) {
         this.lastName = lastName;
+        this.searchLastName = toSearchValue(lastName);
     }
 
     public String getEmail() {
@@ -55,6 +89,19 @@ public class Student {
 
     public void setEmail(String email) {
         this.email = email;
+        this.searchEmail = toSearchValue(email);
+    }
+
+    public String getSearchFirstName() {
+        return searchFirstName;
+    }
+
+    public String getSearchLastName() {
+        return searchLastName;
+    }
+
+    public String getSearchEmail() {
+        return searchEmail;
     }
 
     public Set<Programme> getProgrammes() {
@@ -65,5 +112,7 @@ public class Student {
         this.programmes = programmes;
     }
 
-
+    public static String toSearchValue(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
 }
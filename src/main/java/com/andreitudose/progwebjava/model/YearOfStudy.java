@@ -5,7 +5,7 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 
 import java.util.Calendar;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 @Entity
@@ -15,6 +15,10 @@ public class YearOfStudy {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(nullable = false)
     private Programme programme;
@@ -32,7 +36,8 @@ public class YearOfStudy {
     private int calendarYearOfEnd;
 
     @OneToMany(mappedBy="yearOfStudy", cascade = CascadeType.ALL, orphanRemoval = true)
-    private Set<Semester> semesters = new HashSet<>();
+    @OrderBy("number")
+    private Set<Semester> semesters = new LinkedHashSet<>();
 
 
     public Integer getId() {
@@ -43,6 +48,14 @@ public class YearOfStudy {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Programme getProgramme() {
         return programme;
     }
@@ -1,9 +1,67 @@
 package com.andreitudose.progwebjava.repositories;
 
 import com.andreitudose.progwebjava.model.Course;
+import com.andreitudose.progwebjava.utils.GradeCalculator;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Integer> {
+
+    Optional<Course> findByIdAndSemesterId(Integer id, Integer semesterId);
+
+    @Query("select c.id as id, c.version as version, c.name as name, " +
+           "c.numberOfCredits as numberOfCredits, c.grade as grade " +
+           "from Course c join c.semester s join s.yearOfStudy y join y.programme p " +
+           "where s.id = :semesterId and y.id = :yearOfStudyId and p.id = :programmeId " +
+           "and p.student.id = :studentId order by c.name, c.id")
+    List<CourseRow> findRowsByPath(@Param("studentId") Integer studentId,
+                                   @Param("programmeId") Integer programmeId,
+                                   @Param("yearOfStudyId") Integer yearOfStudyId,
+                                   @Param("semesterId") Integer semesterId);
+
+    String GRADE_TOTALS =
+            "coalesce(sum(case when t.isConsideredForGradeAverage = true " +
+            "then cast(c.grade as long) * coalesce(c.numberOfCredits, 0) else 0 end), 0) as weightedGradeSum, " +
+            "coalesce(sum(case when t.isConsideredForGradeAverage = true " +
+            "then coalesce(c.numberOfCredits, 0) else 0 end), 0) as averagedCredits, " +
+            "coalesce(sum(case when c.grade >= " + GradeCalculator.PASSING_GRADE + " then coalesce(c.numberOfCredits, 0) else 0 end), 0) as passedCredits, " +
+            "count(c) as numberOfCourses ";
+
+    @Query("select s.id as entityId, " + GRADE_TOTALS +
+           "from Semester s left join s.courses c left join c.courseType t " +
+           "where s.id in :ids group by s.id")
+    List<GradeTotalsRow> sumGradesBySemester(@Param("ids") Collection<Integer> semesterIds);
+
+    @Query("select y.id as entityId, " + GRADE_TOTALS +
+           "from YearOfStudy y left join y.semesters s left join s.courses c left join c.courseType t " +
+           "where y.id in :ids group by y.id")
+    List<GradeTotalsRow> sumGradesByYearOfStudy(@Param("ids") Collection<Integer> yearOfStudyIds);
+
+    @Query("select p.id as entityId, " + GRADE_TOTALS +
+           "from Programme p left join p.yearsOfStudy y left join y.semesters s " +
+           "left join s.courses c left join c.courseType t " +
+           "where p.id in :ids group by p.id")
+    List<GradeTotalsRow> sumGradesByProgramme(@Param("ids") Collection<Integer> programmeIds);
+
+    @Query("select c.version from Course c join c.semester s join s.yearOfStudy y join y.programme p " +
+           "where c.id = :id and s.id = :semesterId and y.id = :yearOfStudyId and p.id = :programmeId " +
+           "and p.student.id = :studentId")
+    Optional<Long> findVersionByPath(@Param("studentId") Integer studentId,
+                                     @Param("programmeId") Integer programmeId,
+                                     @Param("yearOfStudyId") Integer yearOfStudyId,
+                                     @Param("semesterId") Integer semesterId,
+                                     @Param("id") Integer id);
+
+    @Query("select c.id as id, c.version as version from Course c where c.semester.id = :semesterId")
+    List<VersionRow> findVersionRowsBySemesterId(@Param("semesterId") Integer semesterId);
+
+    @Query("select c.id as id, c.version as version from Course c where c.courseType.id = :courseTypeId")
+    List<VersionRow> findVersionRowsByCourseTypeId(@Param("courseTypeId") Integer courseTypeId);
 }
@@ -0,0 +1,12 @@
+package com.andreitudose.progwebjava.repositories;
+
+/**
+ * The columns of a course shown in its parent's list.
+ */
+public interface CourseRow {
+    Integer getId();
+    Long getVersion();
+    String getName();
+    Integer getNumberOfCredits();
+    Integer getGrade();
+}
@@ -1,9 +1,48 @@
 package com.andreitudose.progwebjava.repositories;
 
 import com.andreitudose.progwebjava.model.CourseType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CourseTypeRepository extends JpaRepository<CourseType, Integer> {
+
+    List<CourseType> findAllByProgrammeId(Integer programmeId);
+
+    // Not a derived query: looked up by id so the second-level cache can answer it, and the owner is
+    // checked in Java, only reading the programme's id.
+    default Optional<CourseType> findCachedByIdOwnedByProgramme(Integer id, Integer programmeId) {
+        return findById(id).filter(x -> x.getProgramme().getId().equals(programmeId));
+    }
+
+    boolean existsByProgrammeIdAndName(Integer programmeId, String name);
+
+    boolean existsByProgrammeIdAndNameAndIdNot(Integer programmeId, String name, Integer id);
+
+    @Modifying
+    @Query("update CourseType t set t.isConsideredForGradeAverage = true, t.version = t.version + 1")
+    int considerAllForGradeAverage();
+
+    @EntityGraph(attributePaths = "courses")
+    @Query("select t from CourseType t join t.programme p " +
+           "where t.id = :id and p.id = :programmeId and p.student.id = :studentId")
+    Optional<CourseType> findDetailedByPath(@Param("studentId") Integer studentId,
+                                            @Param("programmeId") Integer programmeId,
+                                            @Param("id") Integer id);
+
+    @Query("select t.version from CourseType t join t.programme p " +
+           "where t.id = :id and p.id = :programmeId and p.student.id = :studentId")
+    Optional<Long> findVersionByPath(@Param("studentId") Integer studentId,
+                                     @Param("programmeId") Integer programmeId,
+                                     @Param("id") Integer id);
+
+    @Query("select t.id as id, t.version as version from CourseType t where t.programme.id = :programmeId")
+    List<VersionRow> findVersionRowsByProgrammeId(@Param("programmeId") Integer programmeId);
 }
@@ -0,0 +1,56 @@
+package com.andreitudose.progwebjava.repositories;
+
+import com.andreitudose.progwebjava.model.GradeAggregate;
+import com.andreitudose.progwebjava.model.GradeAggregateLevel;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GradeAggregateRepository extends JpaRepository<GradeAggregate, Integer> {
+
+    Optional<GradeAggregate> findByLevelAndEntityId(GradeAggregateLevel level, Integer entityId);
+
+    // Locks the rows, only used by the rebuilds which overwrite them, see GradeAggregateService.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<GradeAggregate> findByLevelAndEntityIdIn(GradeAggregateLevel level, Collection<Integer> entityIds);
+
+    // The database keeps only the best rows while sorting, so the cohort is never materialized in the application.
+    @Query("select s.id as studentId, s.firstName as firstName, s.lastName as lastName, s.email as email, " +
+           "a.weightedGradeSum as weightedGradeSum, a.totalCredits as totalCredits, a.passedCredits as passedCredits " +
+           "from YearOfStudy y join y.programme p join p.student s " +
+           "join GradeAggregate a on a.level = com.andreitudose.progwebjava.model.GradeAggregateLevel.YEAR_OF_STUDY " +
+           "and a.entityId = y.id " +
+           "where p.name = :programmeName and y.number = :yearOfStudyNumber and a.totalCredits > 0 " +
+           "order by a.weightedGradeSum * 1.0 / a.totalCredits desc, a.passedCredits desc, s.id")
+    List<RankingRow> findRanking(@Param("programmeName") String programmeName,
+                                 @Param("yearOfStudyNumber") Integer yearOfStudyNumber,
+                                 Pageable pageable);
+
+    @Modifying
+    void deleteByLevelAndEntityId(GradeAggregateLevel level, Integer entityId);
+
+    // A relative update so concurrent course writes in the same subtree don't lose increments.
+    @Modifying
+    @Query("update GradeAggregate a set " +
+           "a.weightedGradeSum = a.weightedGradeSum + :weightedGradeSum, " +
+           "a.totalCredits = a.totalCredits + :totalCredits, " +
+           "a.passedCredits = a.passedCredits + :passedCredits, " +
+           "a.numberOfCourses = a.numberOfCourses + :numberOfCourses " +
+           "where a.level = :level and a.entityId = :entityId")
+    int applyDelta(@Param("level") GradeAggregateLevel level,
+                   @Param("entityId") Integer entityId,
+                   @Param("weightedGradeSum") long weightedGradeSum,
+                   @Param("totalCredits") int totalCredits,
+                   @Param("passedCredits") int passedCredits,
+                   @Param("numberOfCourses") int numberOfCourses);
+}
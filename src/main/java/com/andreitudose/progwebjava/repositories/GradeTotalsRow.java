@@ -0,0 +1,13 @@
+package com.andreitudose.progwebjava.repositories;
+
+/**
+ * The grade sums of one semester, year of study or programme, computed by the database.
+ * Levels without courses come back with zero sums.
+ */
+public interface GradeTotalsRow {
+    Integer getEntityId();
+    Long getWeightedGradeSum();
+    Long getAveragedCredits();
+    Long getPassedCredits();
+    Long getNumberOfCourses();
+}
@@ -1,14 +1,76 @@
 package com.andreitudose.progwebjava.repositories;
 
 import com.andreitudose.progwebjava.model.Programme;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Repository
 public interface ProgrammeRepository extends JpaRepository<Programme, Integer> {
 
+    // Not a derived query: looked up by id so the second-level cache can answer it, and the owner is
+    // checked in Java, only reading the student's id.
+    default Optional<Programme> findCachedByIdOwnedByStudent(Integer id, Integer studentId) {
+        return findById(id).filter(x -> x.getStudent().getId().equals(studentId));
+    }
+
+    boolean existsByStudentIdAndName(Integer studentId, String name);
+
+    boolean existsByStudentIdAndNameAndIdNot(Integer studentId, String name, Integer id);
+
+    // only one collection is joined, fetching both multiplies the years of study by the course types;
+    // the course types follow in a second query, see Programme.courseTypes
+    @EntityGraph(attributePaths = "yearsOfStudy")
+    @Query("select p from Programme p where p.id = :id and p.student.id = :studentId")
+    Optional<Programme> findDetailedByPath(@Param("studentId") Integer studentId, @Param("id") Integer id);
+
+    @Query("select p.id as programmeId, p.name as programmeName, " +
+           "pa.weightedGradeSum as programmeWeightedGradeSum, pa.totalCredits as programmeTotalCredits, " +
+           "pa.passedCredits as programmePassedCredits, " +
+           "y.id as yearOfStudyId, y.number as yearOfStudyNumber, " +
+           "y.calendarYearOfStart as yearOfStudyCalendarYearOfStart, y.calendarYearOfEnd as yearOfStudyCalendarYearOfEnd, " +
+           "ya.weightedGradeSum as yearOfStudyWeightedGradeSum, ya.totalCredits as yearOfStudyTotalCredits, " +
+           "ya.passedCredits as yearOfStudyPassedCredits, " +
+           "s.id as semesterId, s.number as semesterNumber, " +
+           "sa.weightedGradeSum as semesterWeightedGradeSum, sa.totalCredits as semesterTotalCredits, " +
+           "sa.passedCredits as semesterPassedCredits, " +
+           "c.id as courseId, c.name as courseName, ct.name as courseTypeName, " +
+           "c.numberOfCredits as courseNumberOfCredits, c.grade as courseGrade " +
+           "from Programme p " +
+           "left join GradeAggregate pa on pa.level = com.andreitudose.progwebjava.model.GradeAggregateLevel.PROGRAMME " +
+           "and pa.entityId = p.id " +
+           "left join p.yearsOfStudy y " +
+           "left join GradeAggregate ya on ya.level = com.andreitudose.progwebjava.model.GradeAggregateLevel.YEAR_OF_STUDY " +
+           "and ya.entityId = y.id " +
+           "left join y.semesters s " +
+           "left join GradeAggregate sa on sa.level = com.andreitudose.progwebjava.model.GradeAggregateLevel.SEMESTER " +
+           "and sa.entityId = s.id " +
+           "left join s.courses c " +
+           "left join c.courseType ct " +
+           "where p.student.id = :studentId " +
+           "order by p.name, p.id, y.number, y.id, s.number, s.id, c.name, c.id")
+    List<TranscriptRow> findTranscriptRows(@Param("studentId") Integer studentId);
+
+    @Query("select p.id from Programme p where not exists (select a from GradeAggregate a " +
+           "where a.level = com.andreitudose.progwebjava.model.GradeAggregateLevel.PROGRAMME and a.entityId = p.id)")
+    List<Integer> findIdsWithoutGradeAggregate();
+
+    // list rows are read as projections, in the order of Student.programmes, without loading the entities
+    @Query("select p.id as id, p.version as version, p.name as name " +
+           "from Programme p where p.student.id = :studentId order by p.name")
+    List<ProgrammeRow> findRowsByStudentId(@Param("studentId") Integer studentId);
+
+    @Query("select p.id from Programme p order by p.id")
+    List<Integer> findAllIds();
+
+    @Query("select p.version from Programme p where p.id = :id and p.student.id = :studentId")
+    Optional<Long> findVersionByPath(@Param("studentId") Integer studentId, @Param("id") Integer id);
+
+    @Query("select p.id as id, p.version as version from Programme p where p.student.id = :studentId")
+    List<VersionRow> findVersionRowsByStudentId(@Param("studentId") Integer studentId);
 }
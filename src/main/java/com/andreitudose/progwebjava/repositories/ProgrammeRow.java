@@ -0,0 +1,10 @@
+package com.andreitudose.progwebjava.repositories;
+
+/**
+ * The columns of a programme shown in its parent's list.
+ */
+public interface ProgrammeRow {
+    Integer getId();
+    Long getVersion();
+    String getName();
+}
@@ -0,0 +1,14 @@
+package com.andreitudose.progwebjava.repositories;
+
+/**
+ * A student of a programme/year-of-study cohort together with the grade aggregate of that year of study.
+ */
+public interface RankingRow {
+    Integer getStudentId();
+    String getFirstName();
+    String getLastName();
+    String getEmail();
+    Long getWeightedGradeSum();
+    Integer getTotalCredits();
+    Integer getPassedCredits();
+}
@@ -1,9 +1,59 @@
 package com.andreitudose.progwebjava.repositories;
 
 import com.andreitudose.progwebjava.model.Semester;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface SemesterRepository extends JpaRepository<Semester, Integer> {
+
+    boolean existsByYearOfStudyIdAndNumber(Integer yearOfStudyId, Integer number);
+
+    boolean existsByYearOfStudyIdAndNumberAndIdNot(Integer yearOfStudyId, Integer number, Integer id);
+
+    @Query("select s from Semester s join s.yearOfStudy y join y.programme p " +
+           "where s.id = :id and y.id = :yearOfStudyId and p.id = :programmeId and p.student.id = :studentId")
+    Optional<Semester> findByPath(@Param("studentId") Integer studentId,
+                                  @Param("programmeId") Integer programmeId,
+                                  @Param("yearOfStudyId") Integer yearOfStudyId,
+                                  @Param("id") Integer id);
+
+    @EntityGraph(attributePaths = "courses")
+    @Query("select s from Semester s join s.yearOfStudy y join y.programme p " +
+           "where s.id = :id and y.id = :yearOfStudyId and p.id = :programmeId and p.student.id = :studentId")
+    Optional<Semester> findDetailedByPath(@Param("studentId") Integer studentId,
+                                          @Param("programmeId") Integer programmeId,
+                                          @Param("yearOfStudyId") Integer yearOfStudyId,
+                                          @Param("id") Integer id);
+
+    @Query("select s.id as id, s.version as version, s.number as number " +
+           "from Semester s join s.yearOfStudy y join y.programme p " +
+           "where y.id = :yearOfStudyId and p.id = :programmeId and p.student.id = :studentId order by s.number")
+    List<SemesterRow> findRowsByPath(@Param("studentId") Integer studentId,
+                                     @Param("programmeId") Integer programmeId,
+                                     @Param("yearOfStudyId") Integer yearOfStudyId);
+
+    @Query("select s.id from Semester s where not exists (select a from GradeAggregate a " +
+           "where a.level = com.andreitudose.progwebjava.model.GradeAggregateLevel.SEMESTER and a.entityId = s.id)")
+    List<Integer> findIdsWithoutGradeAggregate();
+
+    @Query("select s.id from Semester s join s.yearOfStudy y where y.programme.id in :programmeIds")
+    List<Integer> findIdsByProgrammeIdIn(@Param("programmeIds") Collection<Integer> programmeIds);
+
+    @Query("select s.version from Semester s join s.yearOfStudy y join y.programme p " +
+           "where s.id = :id and y.id = :yearOfStudyId and p.id = :programmeId and p.student.id = :studentId")
+    Optional<Long> findVersionByPath(@Param("studentId") Integer studentId,
+                                     @Param("programmeId") Integer programmeId,
+                                     @Param("yearOfStudyId") Integer yearOfStudyId,
+                                     @Param("id") Integer id);
+
+    @Query("select s.id as id, s.version as version from Semester s where s.yearOfStudy.id = :yearOfStudyId")
+    List<VersionRow> findVersionRowsByYearOfStudyId(@Param("yearOfStudyId") Integer yearOfStudyId);
 }
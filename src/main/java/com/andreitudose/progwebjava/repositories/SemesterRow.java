@@ -0,0 +1,10 @@
+package com.andreitudose.progwebjava.repositories;
+
+/**
+ * The columns of a semester shown in its parent's list.
+ */
+public interface SemesterRow {
+    Integer getId();
+    Long getVersion();
+    Integer getNumber();
+}
@@ -1,9 +1,31 @@
 package com.andreitudose.progwebjava.repositories;
 
 import com.andreitudose.progwebjava.model.Student;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
-public interface StudentRepository extends JpaRepository<Student, Integer> {
+public interface StudentRepository extends JpaRepository<Student, Integer>, StudentRepositoryCustom {
+
+    boolean existsByEmail(String email);
+
+    boolean existsByEmailAndIdNot(String email, Integer id);
+
+    @EntityGraph(attributePaths = "programmes")
+    Optional<Student> findDetailedById(Integer id);
+
+    @Modifying
+    @Query("update Student s set s.searchFirstName = lower(s.firstName), s.searchLastName = lower(s.lastName), " +
+           "s.searchEmail = lower(s.email)")
+    int fillSearchColumns();
+
+    // the versions make up the ETag of the detailed student, see ETagResolver
+    @Query("select s.version from Student s where s.id = :id")
+    Optional<Long> findVersionById(@Param("id") Integer id);
 }
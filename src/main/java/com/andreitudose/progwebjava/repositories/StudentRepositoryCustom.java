@@ -0,0 +1,19 @@
+package com.andreitudose.progwebjava.repositories;
+
+import com.andreitudose.progwebjava.model.Student;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface StudentRepositoryCustom {
+
+    List<Student> findPage(StudentSortField sortField,
+                           boolean descending,
+                           String afterValue,
+                           Integer afterId,
+                           int limit);
+
+    List<StudentSearchRow> search(List<String> prefixes, String afterValue, Integer afterId, int limit);
+
+    void streamAll(Consumer<Student> consumer);
+}
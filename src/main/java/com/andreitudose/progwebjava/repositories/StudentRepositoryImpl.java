@@ -0,0 +1,213 @@
+package com.andreitudose.progwebjava.repositories;
+
+import com.andreitudose.progwebjava.model.Student;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class StudentRepositoryImpl implements StudentRepositoryCustom {
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final List<String> SEARCH_COLUMNS = List.of("search_first_name", "search_last_name", "search_email");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate exportJdbcTemplate;
+
+    public StudentRepositoryImpl(DataSource dataSource) {
+        exportJdbcTemplate = new JdbcTemplate(dataSource);
+        exportJdbcTemplate.setFetchSize(EXPORT_FETCH_SIZE);
+    }
+
+    // Keyset (seek) pagination: the page starts right after the (sort value, id) of the previous page's last row,
+    // so the cost doesn't grow with the page number the way an OFFSET does.
+    @Override
+    public List<Student> findPage(StudentSortField sortField,
+                                  boolean descending,
+                                  String afterValue,
+                                  Integer afterId,
+                                  int limit) {
+        var property = "s." + sortField.getProperty();
+        var comparison = descending ? "<" : ">";
+        var direction = descending ? " desc" : " asc";
+
+        var jpql = new StringBuilder("select s from Student s");
+
+        if(afterId != null) {
+            if(sortField == StudentSortField.ID) {
+                jpql.append(" where s.id ").append(comparison).append(" :afterId");
+            }
+            else {
+                jpql.append(" where ").append(property).append(" ").append(comparison).append(" :afterValue")
+                    .append(" or (").append(property).append(" = :afterValue")
+                    .append(" and s.id ").append(comparison).append(" :afterId)");
+            }
+        }
+
+        if(sortField == StudentSortField.ID) {
+            jpql.append(" order by s.id").append(direction);
+        }
+        else {
+            jpql.append(" order by ").append(property).append(direction).append(", s.id").append(direction);
+        }
+
+        var query = entityManager.createQuery(jpql.toString(), Student.class);
+
+        if(afterId != null) {
+            query.setParameter("afterId", afterId);
+
+            if(sortField != StudentSortField.ID) {
+                query.setParameter("afterValue", afterValue);
+            }
+        }
+
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    // Every term has to be a prefix of the first name, last name or email, matched on their lower-cased copies.
+    // The longest term is looked up in each column on its own, a range scan of that column's (value, id) index read
+    // in index order, so it stops after the limit. The other terms only filter the rows it reads. The database merges
+    // the three lookups by (matched value, id), which is also the keyset of the next page.
+    // A student matching in several columns is kept only where it matches first. It appears at most three times, so
+    // three times the limit of merged rows always holds the first limit students.
+    @Override
+    public List<StudentSearchRow> search(List<String> prefixes, String afterValue, Integer afterId, int limit) {
+        var terms = prefixes.stream().map(x -> escapeLike(Student.toSearchValue(x)) + "%").toList();
+        var driving = terms.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        var filters = new ArrayList<>(terms);
+        filters.remove(driving);
+
+        var sql = new StringBuilder();
+
+        for(int i = 0; i < SEARCH_COLUMNS.size(); i++) {
+            if(i > 0) {
+                sql.append(" union all ");
+            }
+
+            appendSearchLookup(sql, i, filters.size(), afterId != null);
+        }
+
+        sql.append(" order by search_value, id limit :limit");
+
+        var query = entityManager.createNativeQuery(sql.toString(), Object[].class)
+                .setParameter("driving", driving)
+                .setParameter("limit", limit * SEARCH_COLUMNS.size());
+
+        for(int i = 0; i < filters.size(); i++) {
+            query.setParameter("filter" + i, filters.get(i));
+        }
+
+        if(afterId != null) {
+            query.setParameter("afterValue", afterValue);
+            query.setParameter("afterId", afterId);
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+
+        return rows.stream()
+                .filter(x -> ((Number) x[5]).intValue() == 1)
+                .limit(limit)
+                .<StudentSearchRow>map(x -> new SearchRow(((Number) x[0]).intValue(), (String) x[1], (String) x[2],
+                                                          (String) x[3], (String) x[4]))
+                .toList();
+    }
+
+    // Rows are read through a JDBC cursor and handed over one at a time, without a persistence context.
+    @Override
+    public void streamAll(Consumer<Student> consumer) {
+        exportJdbcTemplate.query("select id, first_name, last_name, email from students order by id", resultSet -> {
+            var student = new Student();
+            student.setId(resultSet.getInt("id"));
+            student.setFirstName(resultSet.getString("first_name"));
+            student.setLastName(resultSet.getString("last_name"));
+            student.setEmail(resultSet.getString("email"));
+
+            consumer.accept(student);
+        });
+    }
+
+    private static void appendSearchLookup(StringBuilder sql, int index, int filterCount, boolean afterCursor) {
+        var column = SEARCH_COLUMNS.get(index);
+
+        sql.append("(select id, first_name, last_name, email, ").append(column).append(" as search_value, ");
+
+        // whether this is where the student matches first: no other column matches with a smaller value, ties going
+        // to the column listed first. Computed by the database, so it compares the values the way it sorts them.
+        sql.append("case when ");
+
+        for(int j = 0, conditions = 0; j < SEARCH_COLUMNS.size(); j++) {
+            if(j != index) {
+                var other = SEARCH_COLUMNS.get(j);
+
+                sql.append(conditions++ > 0 ? " or " : "")
+                   .append("(").append(other).append(" like :driving escape '!' and ")
+                   .append(other).append(j < index ? " <= " : " < ").append(column).append(")");
+            }
+        }
+
+        sql.append(" then 0 else 1 end as first_match from students where ")
+           .append(column).append(" like :driving escape '!'");
+
+        for(int i = 0; i < filterCount; i++) {
+            sql.append(" and (");
+
+            for(int j = 0; j < SEARCH_COLUMNS.size(); j++) {
+                if(j > 0) {
+                    sql.append(" or ");
+                }
+
+                sql.append(SEARCH_COLUMNS.get(j)).append(" like :filter").append(i).append(" escape '!'");
+            }
+
+            sql.append(")");
+        }
+
+        // the first condition alone starts the range scan at the cursor
+        if(afterCursor) {
+            sql.append(" and ").append(column).append(" >= :afterValue and (")
+               .append(column).append(" > :afterValue or id > :afterId)");
+        }
+
+        sql.append(" order by ").append(column).append(", id limit :limit)");
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private record SearchRow(Integer id, String firstName, String lastName, String email, String searchValue)
+            implements StudentSearchRow {
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        @Override
+        public String getFirstName() {
+            return firstName;
+        }
+
+        @Override
+        public String getLastName() {
+            return lastName;
+        }
+
+        @Override
+        public String getEmail() {
+            return email;
+        }
+
+        @Override
+        public String getSearchValue() {
+            return searchValue;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.andreitudose.progwebjava.repositories;
+
+/**
+ * A student found by the prefix search, with the lower-cased value it matched on, which orders the results.
+ */
+public interface StudentSearchRow {
+    Integer getId();
+    String getFirstName();
+    String getLastName();
+    String getEmail();
+    String getSearchValue();
+}
@@ -0,0 +1,27 @@
+package com.andreitudose.progwebjava.repositories;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum StudentSortField {
+    ID("id"),
+    FIRST_NAME("firstName"),
+    LAST_NAME("lastName"),
+    EMAIL("email");
+
+    private final String property;
+
+    StudentSortField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static Optional<StudentSortField> fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(x -> x.property.equals(property))
+                .findFirst();
+    }
+}
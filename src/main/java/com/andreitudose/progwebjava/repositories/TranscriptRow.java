@@ -0,0 +1,33 @@
+package com.andreitudose.progwebjava.repositories;
+
+/**
+ * One row of the flattened Programme -> YearOfStudy -> Semester -> Course tree, together with the
+ * grade aggregates of its ancestors. Levels without children come back with null child columns.
+ */
+public interface TranscriptRow {
+    Integer getProgrammeId();
+    String getProgrammeName();
+    Long getProgrammeWeightedGradeSum();
+    Integer getProgrammeTotalCredits();
+    Integer getProgrammePassedCredits();
+
+    Integer getYearOfStudyId();
+    Integer getYearOfStudyNumber();
+    Integer getYearOfStudyCalendarYearOfStart();
+    Integer getYearOfStudyCalendarYearOfEnd();
+    Long getYearOfStudyWeightedGradeSum();
+    Integer getYearOfStudyTotalCredits();
+    Integer getYearOfStudyPassedCredits();
+
+    Integer getSemesterId();
+    Integer getSemesterNumber();
+    Long getSemesterWeightedGradeSum();
+    Integer getSemesterTotalCredits();
+    Integer getSemesterPassedCredits();
+
+    Integer getCourseId();
+    String getCourseName();
+    String getCourseTypeName();
+    Integer getCourseNumberOfCredits();
+    Integer getCourseGrade();
+}
@@ -0,0 +1,9 @@
+package com.andreitudose.progwebjava.repositories;
+
+/**
+ * The id and optimistic-locking version of a child, all its parent's ETag needs from it.
+ */
+public interface VersionRow {
+    Integer getId();
+    Long getVersion();
+}
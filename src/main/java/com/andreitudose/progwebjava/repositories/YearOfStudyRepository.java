@@ -1,14 +1,56 @@
 package com.andreitudose.progwebjava.repositories;
 
-import com.andreitudose.progwebjava.model.Programme;
 import com.andreitudose.progwebjava.model.YearOfStudy;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Repository
 public interface YearOfStudyRepository extends JpaRepository<YearOfStudy, Integer> {
+
+    boolean existsByProgrammeIdAndNumber(Integer programmeId, Integer number);
+
+    boolean existsByProgrammeIdAndNumberAndIdNot(Integer programmeId, Integer number, Integer id);
+
+    @Query("select y from YearOfStudy y join y.programme p " +
+           "where y.id = :id and p.id = :programmeId and p.student.id = :studentId")
+    Optional<YearOfStudy> findByPath(@Param("studentId") Integer studentId,
+                                     @Param("programmeId") Integer programmeId,
+                                     @Param("id") Integer id);
+
+    @Query("select y.id as id, y.version as version, y.number as number, " +
+           "y.calendarYearOfStart as calendarYearOfStart, y.calendarYearOfEnd as calendarYearOfEnd " +
+           "from YearOfStudy y join y.programme p " +
+           "where p.id = :programmeId and p.student.id = :studentId order by y.number")
+    List<YearOfStudyRow> findRowsByPath(@Param("studentId") Integer studentId,
+                                        @Param("programmeId") Integer programmeId);
+
+    @EntityGraph(attributePaths = "semesters")
+    @Query("select y from YearOfStudy y join y.programme p " +
+           "where y.id = :id and p.id = :programmeId and p.student.id = :studentId")
+    Optional<YearOfStudy> findDetailedByPath(@Param("studentId") Integer studentId,
+                                             @Param("programmeId") Integer programmeId,
+                                             @Param("id") Integer id);
+
+    @Query("select y.id from YearOfStudy y where not exists (select a from GradeAggregate a " +
+           "where a.level = com.andreitudose.progwebjava.model.GradeAggregateLevel.YEAR_OF_STUDY and a.entityId = y.id)")
+    List<Integer> findIdsWithoutGradeAggregate();
+
+    @Query("select y.id from YearOfStudy y where y.programme.id in :programmeIds")
+    List<Integer> findIdsByProgrammeIdIn(@Param("programmeIds") Collection<Integer> programmeIds);
+
+    @Query("select y.version from YearOfStudy y join y.programme p " +
+           "where y.id = :id and p.id = :programmeId and p.student.id = :studentId")
+    Optional<Long> findVersionByPath(@Param("studentId") Integer studentId,
+                                     @Param("programmeId") Integer programmeId,
+                                     @Param("id") Integer id);
+
+    @Query("select y.id as id, y.version as version from YearOfStudy y where y.programme.id = :programmeId")
+    List<VersionRow> findVersionRowsByProgrammeId(@Param("programmeId") Integer programmeId);
 }
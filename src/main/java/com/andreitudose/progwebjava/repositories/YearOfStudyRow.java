@@ -0,0 +1,12 @@
+package com.andreitudose.progwebjava.repositories;
+
+/**
+ * The columns of a year of study shown in its parent's list.
+ */
+public interface YearOfStudyRow {
+    Integer getId();
+    Long getVersion();
+    Integer getNumber();
+    Integer getCalendarYearOfStart();
+    Integer getCalendarYearOfEnd();
+}
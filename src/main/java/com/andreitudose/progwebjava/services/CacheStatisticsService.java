@@ -0,0 +1,29 @@
+package com.andreitudose.progwebjava.services;
+
+import com.andreitudose.progwebjava.dtos.CacheRegionStatisticsDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+@ConditionalOnProperty(name = "app.cache-statistics.enabled", havingValue = "true")
+public class CacheStatisticsService {
+    private final Statistics statistics;
+
+    public CacheStatisticsService(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public List<CacheRegionStatisticsDto> getAll() {
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(x -> new CacheRegionStatisticsDto()
+                        .fromCacheRegionStatistics(x, statistics.getDomainDataRegionStatistics(x)))
+                .toList();
+    }
+}
@@ -1,56 +1,83 @@
 package com.andreitudose.progwebjava.services;
 
+import com.andreitudose.progwebjava.dtos.CourseBulkImportErrorDto;
+import com.andreitudose.progwebjava.dtos.CourseBulkImportResponseDto;
 import com.andreitudose.progwebjava.dtos.CourseRequestDto;
 import com.andreitudose.progwebjava.dtos.CourseResponseDto;
+import com.andreitudose.progwebjava.events.ChangeType;
+import com.andreitudose.progwebjava.events.EntityChangePublisher;
+import com.andreitudose.progwebjava.events.EntityChangedEvent;
 import com.andreitudose.progwebjava.exceptions.BadRequestException;
 import com.andreitudose.progwebjava.exceptions.CannotDeleteException;
 import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.exceptions.PreconditionFailedException;
 import com.andreitudose.progwebjava.model.*;
 import com.andreitudose.progwebjava.repositories.CourseRepository;
 import com.andreitudose.progwebjava.repositories.CourseTypeRepository;
-import com.andreitudose.progwebjava.repositories.StudentRepository;
+import com.andreitudose.progwebjava.utils.CsvUtils;
+import com.andreitudose.progwebjava.utils.ETagUtils;
+import com.andreitudose.progwebjava.utils.ValidationGroups;
 import com.andreitudose.progwebjava.utils.ValidationUtils;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
 import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("app.service")
 public class CourseService {
+    private static final int MAX_BULK_IMPORT_SIZE = 10000;
+
     private final CourseRepository courseRepository;
     private final CourseTypeRepository courseTypeRepository;
-    private final StudentRepository studentRepository;
+    private final PathResolver pathResolver;
+    private final GradeAggregateService gradeAggregateService;
     private final Validator validator;
+    private final EntityChangePublisher entityChangePublisher;
+    private final ETagResolver eTagResolver;
 
     public CourseService(CourseRepository courseRepository,
                          CourseTypeRepository courseTypeRepository,
-                         StudentRepository studentRepository) {
+                         PathResolver pathResolver,
+                         GradeAggregateService gradeAggregateService,
+                         Validator validator,
+                         EntityChangePublisher entityChangePublisher,
+                         ETagResolver eTagResolver) {
         this.courseRepository = courseRepository;
         this.courseTypeRepository = courseTypeRepository;
-        this.studentRepository = studentRepository;
-
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        validator = factory.getValidator();
+        this.pathResolver = pathResolver;
+        this.gradeAggregateService = gradeAggregateService;
+        this.validator = validator;
+        this.entityChangePublisher = entityChangePublisher;
+        this.eTagResolver = eTagResolver;
     }
 
+    @Transactional(readOnly = true)
     public List<CourseResponseDto> getAll(Integer studentId,
                                           Integer programmeId,
                                           Integer yearOfStudyId,
                                           Integer semesterId)
             throws NotFoundException {
 
-        var semester = getSemesterIfExists(studentId, programmeId, yearOfStudyId, semesterId);
+        var rows = courseRepository.findRowsByPath(studentId, programmeId, yearOfStudyId, semesterId);
+
+        if(rows.isEmpty()) {
+            pathResolver.getSemester(studentId, programmeId, yearOfStudyId, semesterId);
+        }
 
-        return semester.getCourses().stream()
-                .map(x -> new CourseResponseDto().fromCourse(x))
+        return rows.stream()
+                .map(x -> new CourseResponseDto().fromCourseRow(x))
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public CourseResponseDto getById(Integer studentId,
                                      Integer programmeId,
                                      Integer yearOfStudyId,
@@ -58,9 +85,9 @@ public class CourseService {
                                      Integer id)
             throws NotFoundException {
 
-        var semester = getSemesterIfExists(studentId, programmeId, yearOfStudyId, semesterId);
+        pathResolver.getSemester(studentId, programmeId, yearOfStudyId, semesterId);
 
-        var course = semester.getCourses().stream().filter(x -> x.getId().equals(id)).findFirst();
+        var course = courseRepository.findByIdAndSemesterId(id, semesterId);
 
         if(course.isEmpty()) {
             throw new NotFoundException("Course", "id", id.toString());
@@ -69,6 +96,13 @@ public class CourseService {
         return new CourseResponseDto().fromCourse(course.get());
     }
 
+    @Transactional(readOnly = true)
+    public String getETag(Integer studentId, Integer programmeId, Integer yearOfStudyId, Integer semesterId, Integer id)
+            throws NotFoundException {
+        return eTagResolver.getCourseETag(studentId, programmeId, yearOfStudyId, semesterId, id);
+    }
+
+    @Transactional
     public CourseResponseDto create(Integer studentId,
                                     Integer programmeId,
                                     Integer yearOfStudyId,
@@ -76,15 +110,11 @@ public class CourseService {
                                     CourseRequestDto request)
             throws NotFoundException, BadRequestException {
 
-        Set<ConstraintViolation<CourseRequestDto>> validationResult = validator.validate(request);
+        ValidationUtils.validate(validator, request, ValidationGroups.Create.class);
 
-        if(validationResult.size() > 0) {
-            throw new BadRequestException(ValidationUtils.getErrors(validationResult));
-        }
-
-        var semester = getSemesterIfExists(studentId, programmeId, yearOfStudyId, semesterId);
+        var semester = pathResolver.getSemester(studentId, programmeId, yearOfStudyId, semesterId);
 
-        var courseType = courseTypeRepository.findById(request.getCourseTypeId());
+        var courseType = courseTypeRepository.findCachedByIdOwnedByProgramme(request.getCourseTypeId(), programmeId);
 
         if(courseType.isEmpty()) {
             throw new NotFoundException("Course type", "id", request.getCourseTypeId().toString());
@@ -97,105 +127,210 @@ public class CourseService {
 
         var createdCourse = courseRepository.save(course);
 
+        gradeAggregateService.courseAdded(programmeId, yearOfStudyId, semesterId,
+                createdCourse.getGrade(), createdCourse.getNumberOfCredits(),
+                courseType.get().isConsideredForGradeAverage());
+
+        entityChangePublisher.publish(EntityChangedEvent.course(ChangeType.CREATED, studentId, programmeId,
+                yearOfStudyId, semesterId, createdCourse.getId()));
+
         return new CourseResponseDto().fromCourse(createdCourse);
     }
 
+    @Transactional
+    public CourseBulkImportResponseDto createAll(Integer studentId,
+                                                 Integer programmeId,
+                                                 Integer yearOfStudyId,
+                                                 Integer semesterId,
+                                                 List<CourseRequestDto> requests)
+            throws NotFoundException, BadRequestException {
+
+        return importCourses(studentId, programmeId, yearOfStudyId, semesterId, requests, new HashMap<>());
+    }
+
+    @Transactional
+    public CourseBulkImportResponseDto createAllFromCsv(Integer studentId,
+                                                        Integer programmeId,
+                                                        Integer yearOfStudyId,
+                                                        Integer semesterId,
+                                                        String csv)
+            throws NotFoundException, BadRequestException {
+
+        var records = CsvUtils.read(csv, MAX_BULK_IMPORT_SIZE);
+
+        checkBulkImportSize(records.size());
+
+        var requests = new ArrayList<CourseRequestDto>(records.size());
+        var rowErrors = new HashMap<Integer, Map<String, String>>();
+
+        for(int i = 0; i < records.size(); i++) {
+            var record = records.get(i);
+            var errors = new HashMap<String, String>();
+            var request = new CourseRequestDto();
+
+            request.setName(record.get("name"));
+            request.setCourseTypeId(parseInteger(record, "courseTypeId", errors));
+            request.setNumberOfCredits(parseInteger(record, "numberOfCredits", errors));
+            request.setGrade(parseInteger(record, "grade", errors));
+
+            if(errors.size() > 0) {
+                rowErrors.put(i, errors);
+            }
+
+            requests.add(request);
+        }
+
+        return importCourses(studentId, programmeId, yearOfStudyId, semesterId, requests, rowErrors);
+    }
+
+    @Transactional
     public CourseResponseDto update(Integer studentId,
                                     Integer programmeId,
                                     Integer yearOfStudyId,
                                     Integer semesterId,
                                     Integer id,
-                                    CourseRequestDto request)
-            throws NotFoundException, BadRequestException {
-
-        Set<ConstraintViolation<CourseRequestDto>> validationResult = validator.validate(request);
+                                    CourseRequestDto request,
+                                    String ifMatch)
+            throws NotFoundException, BadRequestException, PreconditionFailedException {
 
-        if(validationResult.size() > 0) {
-            throw new BadRequestException(ValidationUtils.getErrors(validationResult));
-        }
+        ValidationUtils.validate(validator, request, ValidationGroups.Update.class);
 
-        var semester = getSemesterIfExists(studentId, programmeId, yearOfStudyId, semesterId);
+        pathResolver.getSemester(studentId, programmeId, yearOfStudyId, semesterId);
 
-        var course = semester.getCourses().stream().filter(x -> x.getId().equals(id)).findFirst();
+        var course = courseRepository.findByIdAndSemesterId(id, semesterId);
 
         if(course.isEmpty()) {
             throw new NotFoundException("Course", "id", id.toString());
         }
 
+        ETagUtils.checkIfMatch(ifMatch, "Course", id, () -> eTagResolver.of(course.get()));
+
+        var oldGrade = course.get().getGrade();
+        var oldNumberOfCredits = course.get().getNumberOfCredits();
+
         var updatedCourse = courseRepository.save(request.toCourse(course.get()));
 
+        gradeAggregateService.courseUpdated(programmeId, yearOfStudyId, semesterId,
+                updatedCourse.getCourseType().isConsideredForGradeAverage(),
+                oldGrade, oldNumberOfCredits,
+                updatedCourse.getGrade(), updatedCourse.getNumberOfCredits());
+
+        entityChangePublisher.publish(EntityChangedEvent.course(ChangeType.UPDATED, studentId, programmeId,
+                yearOfStudyId, semesterId, id));
+
         return new CourseResponseDto().fromCourse(updatedCourse);
     }
 
-    public void delete(Integer studentId, Integer programmeId, Integer yearOfStudyId, Integer semesterId, Integer id)
-            throws NotFoundException, CannotDeleteException {
-        var semester = getSemesterIfExists(studentId, programmeId, yearOfStudyId, semesterId);
+    @Transactional
+    public void delete(Integer studentId, Integer programmeId, Integer yearOfStudyId, Integer semesterId, Integer id,
+                       String ifMatch)
+            throws NotFoundException, CannotDeleteException, PreconditionFailedException {
+        pathResolver.getSemester(studentId, programmeId, yearOfStudyId, semesterId);
 
-        var course = semester.getCourses().stream().filter(x -> x.getId().equals(id)).findFirst();
+        var course = courseRepository.findByIdAndSemesterId(id, semesterId);
 
         if(course.isEmpty()) {
             throw new NotFoundException("Course", "id", id.toString());
         }
 
+        ETagUtils.checkIfMatch(ifMatch, "Course", id, () -> eTagResolver.of(course.get()));
+
         courseRepository.deleteById(id);
-    }
 
-    private Student getStudentIfExists(Integer studentId) throws NotFoundException {
-        var student = studentRepository.findById(studentId);
+        gradeAggregateService.courseRemoved(programmeId, yearOfStudyId, semesterId,
+                course.get().getGrade(), course.get().getNumberOfCredits(),
+                course.get().getCourseType().isConsideredForGradeAverage());
 
-        if(student.isEmpty()) {
-            throw new NotFoundException("Student", "id", studentId.toString());
-        }
+        entityChangePublisher.publish(EntityChangedEvent.course(ChangeType.DELETED, studentId, programmeId,
+                yearOfStudyId, semesterId, id));
+    }
 
-        return student.get();
+    private static void checkBulkImportSize(int size) throws BadRequestException {
+        if(size > MAX_BULK_IMPORT_SIZE) {
+            throw new BadRequestException(Map.of("courses",
+                    String.format("at most %s courses can be imported at once", MAX_BULK_IMPORT_SIZE)));
+        }
     }
 
-    private Programme getProgrammeIfExists(Integer studentId, Integer programmeId) throws NotFoundException {
+    // Invalid rows are reported by their 1-based position and skipped, the valid ones are inserted in JDBC batches.
+    private CourseBulkImportResponseDto importCourses(Integer studentId,
+                                                      Integer programmeId,
+                                                      Integer yearOfStudyId,
+                                                      Integer semesterId,
+                                                      List<CourseRequestDto> requests,
+                                                      Map<Integer, Map<String, String>> rowErrors)
+            throws NotFoundException, BadRequestException {
 
-        var student = getStudentIfExists(studentId);
+        checkBulkImportSize(requests.size());
 
-        var programme = student.getProgrammes().stream().filter(x -> x.getId().equals(programmeId)).findFirst();
+        var semester = pathResolver.getSemester(studentId, programmeId, yearOfStudyId, semesterId);
 
-        if(programme.isEmpty()) {
-            throw new NotFoundException("Programme", "id", programmeId.toString());
-        }
+        var courseTypes = courseTypeRepository.findAllByProgrammeId(programmeId).stream()
+                .collect(Collectors.toMap(CourseType::getId, Function.identity()));
 
-        return programme.get();
+        var response = new CourseBulkImportResponseDto();
+        var courses = new ArrayList<Course>(requests.size());
 
-    }
+        for(int i = 0; i < requests.size(); i++) {
+            var request = requests.get(i);
+            var errors = new HashMap<String, String>(rowErrors.getOrDefault(i, Map.of()));
 
-    private YearOfStudy getYearOfStudyIfExists(Integer studentId,
-                                               Integer programmeId,
-                                               Integer yearOfStudyId)
-            throws NotFoundException {
+            if(request == null) {
+                errors.put("course", "must not be null");
+            }
+            else {
+                validator.validate(request, ValidationGroups.Create.class).forEach(x ->
+                        errors.putIfAbsent(x.getPropertyPath().toString(), x.getMessage()));
 
-        var programme = getProgrammeIfExists(studentId, programmeId);
+                if(request.getGrade() == null) {
+                    errors.putIfAbsent("grade", "must not be null");
+                }
 
-        var yearOfStudy = programme.getYearsOfStudy().stream().filter(x -> x.getId().equals(yearOfStudyId)).findFirst();
+                if(request.getCourseTypeId() != null && !courseTypes.containsKey(request.getCourseTypeId())) {
+                    errors.putIfAbsent("courseTypeId", "course type not found");
+                }
+            }
 
-        if(yearOfStudy.isEmpty()) {
-            throw new NotFoundException("Year of study", "id", yearOfStudyId.toString());
-        }
+            if(errors.size() > 0) {
+                response.getErrors().add(new CourseBulkImportErrorDto(i + 1, errors));
+                continue;
+            }
 
-        return yearOfStudy.get();
+            Course course = request.toCourse(new Course());
 
-    }
+            course.setSemester(semester);
+            course.setCourseType(courseTypes.get(request.getCourseTypeId()));
 
-    private Semester getSemesterIfExists(Integer studentId,
-                                         Integer programmeId,
-                                         Integer yearOfStudyId,
-                                         Integer semesterId)
-            throws NotFoundException {
+            courses.add(course);
+        }
 
-        var yearOfStudy = getYearOfStudyIfExists(studentId, programmeId, yearOfStudyId);
+        courseRepository.saveAll(courses);
 
-        var semester = yearOfStudy.getSemesters().stream().filter(x -> x.getId().equals(semesterId)).findFirst();
+        gradeAggregateService.coursesAdded(programmeId, yearOfStudyId, semesterId, courses);
 
-        if(semester.isEmpty()) {
-            throw new NotFoundException("Semester", "id", studentId.toString());
+        for(var course : courses) {
+            entityChangePublisher.publish(EntityChangedEvent.course(ChangeType.CREATED, studentId, programmeId,
+                    yearOfStudyId, semesterId, course.getId()));
         }
 
-        return semester.get();
+        response.setCreated(courses.size());
 
+        return response;
+    }
+
+    private static Integer parseInteger(Map<String, String> record, String column, Map<String, String> errors) {
+        var value = record.get(column);
+
+        if(value == null || value.isBlank()) {
+            return null;
+        }
+
+        try {
+            return Integer.valueOf(value.trim());
+        }
+        catch(NumberFormatException ex) {
+            errors.put(column, "must be a number");
+            return null;
+        }
     }
 }
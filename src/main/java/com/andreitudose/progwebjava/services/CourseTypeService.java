@@ -3,76 +3,91 @@ package com.andreitudose.progwebjava.services;
 import com.andreitudose.progwebjava.dtos.CourseTypeDetailedResponseDto;
 import com.andreitudose.progwebjava.dtos.CourseTypeRequestDto;
 import com.andreitudose.progwebjava.dtos.CourseTypeResponseDto;
+import com.andreitudose.progwebjava.events.ChangeType;
+import com.andreitudose.progwebjava.events.EntityChangePublisher;
+import com.andreitudose.progwebjava.events.EntityChangedEvent;
 import com.andreitudose.progwebjava.exceptions.BadRequestException;
 import com.andreitudose.progwebjava.exceptions.CannotDeleteException;
 import com.andreitudose.progwebjava.exceptions.DuplicateItemException;
 import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.exceptions.PreconditionFailedException;
 import com.andreitudose.progwebjava.model.CourseType;
-import com.andreitudose.progwebjava.model.Programme;
-import com.andreitudose.progwebjava.model.Student;
 import com.andreitudose.progwebjava.repositories.CourseTypeRepository;
-import com.andreitudose.progwebjava.repositories.StudentRepository;
+import com.andreitudose.progwebjava.utils.ETagUtils;
+import com.andreitudose.progwebjava.utils.ValidationGroups;
 import com.andreitudose.progwebjava.utils.ValidationUtils;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
 import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("app.service")
 public class CourseTypeService {
     private final CourseTypeRepository courseTypeRepository;
-    private final StudentRepository studentRepository;
+    private final GradeAggregateService gradeAggregateService;
+    private final PathResolver pathResolver;
     private final Validator validator;
+    private final EntityChangePublisher entityChangePublisher;
+    private final ETagResolver eTagResolver;
 
     public CourseTypeService(CourseTypeRepository courseTypeRepository,
-                             StudentRepository studentRepository) {
+                             GradeAggregateService gradeAggregateService,
+                             PathResolver pathResolver,
+                             Validator validator,
+                             EntityChangePublisher entityChangePublisher,
+                             ETagResolver eTagResolver) {
         this.courseTypeRepository = courseTypeRepository;
-        this.studentRepository = studentRepository;
-
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        validator = factory.getValidator();
+        this.gradeAggregateService = gradeAggregateService;
+        this.pathResolver = pathResolver;
+        this.validator = validator;
+        this.entityChangePublisher = entityChangePublisher;
+        this.eTagResolver = eTagResolver;
     }
 
+    @Transactional(readOnly = true)
     public List<CourseTypeResponseDto> getAll(Integer studentId, Integer programmeId) throws NotFoundException {
 
-        var programme = getProgrammeIfExists(studentId, programmeId);
+        var programme = pathResolver.getProgramme(studentId, programmeId);
 
         return programme.getCourseTypes().stream()
                 .map(x -> new CourseTypeResponseDto().fromCourseType(x))
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public CourseTypeDetailedResponseDto getById(Integer studentId, Integer programmeId, Integer id)
             throws NotFoundException {
 
-        var programme = getProgrammeIfExists(studentId, programmeId);
-
-        var courseType = programme.getCourseTypes().stream().filter(x -> x.getId().equals(id)).findFirst();
+        var courseType = courseTypeRepository.findDetailedByPath(studentId, programmeId, id);
 
         if(courseType.isEmpty()) {
+            pathResolver.getProgramme(studentId, programmeId);
+
             throw new NotFoundException("Course type", "id", id.toString());
         }
 
         return new CourseTypeDetailedResponseDto().fromCourseType(courseType.get());
     }
 
+    @Transactional(readOnly = true)
+    public String getETag(Integer studentId, Integer programmeId, Integer id) throws NotFoundException {
+        return eTagResolver.getCourseTypeETag(studentId, programmeId, id);
+    }
+
+    @Transactional
     public CourseTypeResponseDto create(Integer studentId, Integer programmeId, CourseTypeRequestDto request)
             throws NotFoundException, BadRequestException, DuplicateItemException {
 
-        Set<ConstraintViolation<CourseTypeRequestDto>> validationResult = validator.validate(request);
-
-        if(validationResult.size() > 0) {
-            throw new BadRequestException(ValidationUtils.getErrors(validationResult));
-        }
+        ValidationUtils.validate(validator, request, ValidationGroups.Create.class);
 
-        var programme = getProgrammeIfExists(studentId, programmeId);
+        var programme = pathResolver.getProgramme(studentId, programmeId);
 
-        if(programme.getCourseTypes().stream().anyMatch(x -> x.getName().equals(request.getName()))) {
+        if(courseTypeRepository.existsByProgrammeIdAndName(programmeId, request.getName())) {
             throw new DuplicateItemException("Course type", "name", request.getName());
         }
 
@@ -82,74 +97,66 @@ public class CourseTypeService {
 
         var createdCourseType = courseTypeRepository.save(courseType);
 
+        entityChangePublisher.publish(EntityChangedEvent.courseType(ChangeType.CREATED, studentId, programmeId,
+                createdCourseType.getId()));
+
         return new CourseTypeResponseDto().fromCourseType(createdCourseType);
     }
 
-    public CourseTypeResponseDto update(Integer studentId, Integer programmeId, Integer id, CourseTypeRequestDto request)
-            throws NotFoundException, DuplicateItemException, BadRequestException {
+    // READ COMMITTED so the rebuild's sums see the courses committed while it waited for the aggregate locks
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public CourseTypeResponseDto update(Integer studentId, Integer programmeId, Integer id, CourseTypeRequestDto request,
+                                        String ifMatch)
+            throws NotFoundException, DuplicateItemException, BadRequestException, PreconditionFailedException {
 
-        Set<ConstraintViolation<CourseTypeRequestDto>> validationResult = validator.validate(request);
+        ValidationUtils.validate(validator, request, ValidationGroups.Update.class);
 
-        if(validationResult.size() > 0) {
-            throw new BadRequestException(ValidationUtils.getErrors(validationResult));
-        }
+        var programme = pathResolver.getProgramme(studentId, programmeId);
+
+        var courseType = courseTypeRepository.findCachedByIdOwnedByProgramme(id, programmeId);
 
-        var programme = getProgrammeIfExists(studentId, programmeId);
+        if(courseType.isEmpty()) {
+            throw new NotFoundException("Course type", "id", id.toString());
+        }
 
-        if(programme.getCourseTypes().stream().anyMatch(x ->
-                !x.getId().equals(id) && x.getName().equals(request.getName()))) {
+        if(courseTypeRepository.existsByProgrammeIdAndNameAndIdNot(programmeId, request.getName(), id)) {
             throw new DuplicateItemException("Course type", "name", request.getName());
         }
 
-        var courseType = programme.getCourseTypes().stream().filter(x -> x.getId().equals(id)).findFirst();
+        ETagUtils.checkIfMatch(ifMatch, "Course type", id, () -> eTagResolver.of(courseType.get()));
 
-        if(courseType.isEmpty()) {
-            throw new NotFoundException("Course type", "id", id.toString());
-        }
+        boolean wasConsideredForGradeAverage = courseType.get().isConsideredForGradeAverage();
 
         var updatedCourseType = courseTypeRepository.save(request.toCourseType(courseType.get()));
 
+        if(wasConsideredForGradeAverage != updatedCourseType.isConsideredForGradeAverage()) {
+            gradeAggregateService.rebuild(programme);
+        }
+
+        entityChangePublisher.publish(EntityChangedEvent.courseType(ChangeType.UPDATED, studentId, programmeId, id));
+
         return new CourseTypeResponseDto().fromCourseType(updatedCourseType);
     }
 
-    public void delete(Integer studentId, Integer programmeId, Integer id)
-            throws NotFoundException, CannotDeleteException {
-        var programme = getProgrammeIfExists(studentId, programmeId);
+    @Transactional
+    public void delete(Integer studentId, Integer programmeId, Integer id, String ifMatch)
+            throws NotFoundException, CannotDeleteException, PreconditionFailedException {
+        pathResolver.getProgramme(studentId, programmeId);
 
-        var courseType = programme.getCourseTypes().stream().filter(x -> x.getId().equals(id)).findFirst();
+        var courseType = courseTypeRepository.findCachedByIdOwnedByProgramme(id, programmeId);
 
         if(courseType.isEmpty()) {
             throw new NotFoundException("Course type", "id", id.toString());
         }
 
+        ETagUtils.checkIfMatch(ifMatch, "Course type", id, () -> eTagResolver.of(courseType.get()));
+
         if(courseType.get().getCourses().size() > 0) {
             throw new CannotDeleteException("Course Type", "id", id.toString(), "courses");
         }
 
         courseTypeRepository.deleteById(id);
-    }
-
-    private Student getStudentIfExists(Integer studentId) throws NotFoundException {
-        var student = studentRepository.findById(studentId);
-
-        if(student.isEmpty()) {
-            throw new NotFoundException("Student", "id", studentId.toString());
-        }
-
-        return student.get();
-    }
-
-    private Programme getProgrammeIfExists(Integer studentId, Integer programmeId) throws NotFoundException {
-
-        var student = getStudentIfExists(studentId);
-
-        var programme = student.getProgrammes().stream().filter(x -> x.getId().equals(programmeId)).findFirst();
-
-        if(programme.isEmpty()) {
-            throw new NotFoundException("Programme", "id", programmeId.toString());
-        }
-
-        return programme.get();
 
+        entityChangePublisher.publish(EntityChangedEvent.courseType(ChangeType.DELETED, studentId, programmeId, id));
     }
 }
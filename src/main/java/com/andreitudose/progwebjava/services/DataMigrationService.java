@@ -0,0 +1,69 @@
+package com.andreitudose.progwebjava.services;
+
+import com.andreitudose.progwebjava.model.DataMigration;
+import com.andreitudose.progwebjava.repositories.CourseTypeRepository;
+import com.andreitudose.progwebjava.repositories.DataMigrationRepository;
+import com.andreitudose.progwebjava.repositories.GradeAggregateRepository;
+import com.andreitudose.progwebjava.repositories.StudentRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Fixes the data of databases created by earlier versions. Runs at startup before the missing grade aggregates are
+ * materialized, each migration is recorded in data_migrations and only applied once.
+ */
+@Service
+public class DataMigrationService {
+    public static final String CONSIDER_COURSE_TYPES = "consider-course-types-for-grade-average";
+    public static final String FILL_STUDENT_SEARCH_COLUMNS = "fill-student-search-columns";
+
+    private final DataMigrationRepository dataMigrationRepository;
+    private final CourseTypeRepository courseTypeRepository;
+    private final GradeAggregateRepository gradeAggregateRepository;
+    private final StudentRepository studentRepository;
+
+    public DataMigrationService(DataMigrationRepository dataMigrationRepository,
+                                CourseTypeRepository courseTypeRepository,
+                                GradeAggregateRepository gradeAggregateRepository,
+                                StudentRepository studentRepository) {
+        this.dataMigrationRepository = dataMigrationRepository;
+        this.courseTypeRepository = courseTypeRepository;
+        this.gradeAggregateRepository = gradeAggregateRepository;
+        this.studentRepository = studentRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void migrate() {
+        // The flag used to be dropped by the API, so every stored course type is false although all their courses
+        // counted towards the average. The aggregates summed with it are deleted and materialized again afterwards.
+        apply(CONSIDER_COURSE_TYPES, () -> {
+            courseTypeRepository.considerAllForGradeAverage();
+            gradeAggregateRepository.deleteAllInBatch();
+        });
+
+        // the lower-cased search columns are added empty to the students that already exist
+        apply(FILL_STUDENT_SEARCH_COLUMNS, studentRepository::fillSearchColumns);
+    }
+
+    private void apply(String name, Runnable migration) {
+        if(dataMigrationRepository.existsById(name)) {
+            return;
+        }
+
+        migration.run();
+
+        var applied = new DataMigration();
+        applied.setName(name);
+        applied.setAppliedAt(Instant.now());
+
+        dataMigrationRepository.save(applied);
+    }
+}
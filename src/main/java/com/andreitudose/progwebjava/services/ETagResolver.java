@@ -0,0 +1,168 @@
+package com.andreitudose.progwebjava.services;
+
+import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.model.Course;
+import com.andreitudose.progwebjava.model.CourseType;
+import com.andreitudose.progwebjava.model.Programme;
+import com.andreitudose.progwebjava.model.Semester;
+import com.andreitudose.progwebjava.model.Student;
+import com.andreitudose.progwebjava.model.YearOfStudy;
+import com.andreitudose.progwebjava.repositories.CourseRepository;
+import com.andreitudose.progwebjava.repositories.CourseTypeRepository;
+import com.andreitudose.progwebjava.repositories.ProgrammeRepository;
+import com.andreitudose.progwebjava.repositories.SemesterRepository;
+import com.andreitudose.progwebjava.repositories.StudentRepository;
+import com.andreitudose.progwebjava.repositories.YearOfStudyRepository;
+import com.andreitudose.progwebjava.utils.ETagUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes the ETags of the detailed representations from the version column and the (id, version)
+ * pairs of the children, so If-Match and If-None-Match never load the children or build the response.
+ * The tags are equal to the ones of the detailed response DTOs.
+ */
+@Component
+public class ETagResolver {
+    private final StudentRepository studentRepository;
+    private final ProgrammeRepository programmeRepository;
+    private final CourseTypeRepository courseTypeRepository;
+    private final YearOfStudyRepository yearOfStudyRepository;
+    private final SemesterRepository semesterRepository;
+    private final CourseRepository courseRepository;
+    private final PathResolver pathResolver;
+
+    public ETagResolver(StudentRepository studentRepository,
+                        ProgrammeRepository programmeRepository,
+                        CourseTypeRepository courseTypeRepository,
+                        YearOfStudyRepository yearOfStudyRepository,
+                        SemesterRepository semesterRepository,
+                        CourseRepository courseRepository,
+                        PathResolver pathResolver) {
+        this.studentRepository = studentRepository;
+        this.programmeRepository = programmeRepository;
+        this.courseTypeRepository = courseTypeRepository;
+        this.yearOfStudyRepository = yearOfStudyRepository;
+        this.semesterRepository = semesterRepository;
+        this.courseRepository = courseRepository;
+        this.pathResolver = pathResolver;
+    }
+
+    public String of(Student student) {
+        return studentETag(student.getId(), student.getVersion());
+    }
+
+    public String of(Programme programme) {
+        return programmeETag(programme.getId(), programme.getVersion());
+    }
+
+    public String of(CourseType courseType) {
+        return courseTypeETag(courseType.getId(), courseType.getVersion());
+    }
+
+    public String of(YearOfStudy yearOfStudy) {
+        return yearOfStudyETag(yearOfStudy.getId(), yearOfStudy.getVersion());
+    }
+
+    public String of(Semester semester) {
+        return semesterETag(semester.getId(), semester.getVersion());
+    }
+
+    public String of(Course course) {
+        return ETagUtils.of(course.getVersion());
+    }
+
+    // The lookups below fail like the matching getById, naming the first missing level of the path.
+
+    public String getStudentETag(Integer studentId) throws NotFoundException {
+        var version = studentRepository.findVersionById(studentId);
+
+        if(version.isEmpty()) {
+            throw new NotFoundException("Student", "id", studentId.toString());
+        }
+
+        return studentETag(studentId, version.get());
+    }
+
+    public String getProgrammeETag(Integer studentId, Integer id) throws NotFoundException {
+        var version = programmeRepository.findVersionByPath(studentId, id);
+
+        if(version.isEmpty()) {
+            pathResolver.requireStudent(studentId);
+
+            throw new NotFoundException("Programme", "id", id.toString());
+        }
+
+        return programmeETag(id, version.get());
+    }
+
+    public String getCourseTypeETag(Integer studentId, Integer programmeId, Integer id) throws NotFoundException {
+        var version = courseTypeRepository.findVersionByPath(studentId, programmeId, id);
+
+        if(version.isEmpty()) {
+            pathResolver.getProgramme(studentId, programmeId);
+
+            throw new NotFoundException("Course type", "id", id.toString());
+        }
+
+        return courseTypeETag(id, version.get());
+    }
+
+    public String getYearOfStudyETag(Integer studentId, Integer programmeId, Integer id) throws NotFoundException {
+        var version = yearOfStudyRepository.findVersionByPath(studentId, programmeId, id);
+
+        if(version.isEmpty()) {
+            pathResolver.getProgramme(studentId, programmeId);
+
+            throw new NotFoundException("Year of study", "id", id.toString());
+        }
+
+        return yearOfStudyETag(id, version.get());
+    }
+
+    public String getSemesterETag(Integer studentId, Integer programmeId, Integer yearOfStudyId, Integer id)
+            throws NotFoundException {
+        var version = semesterRepository.findVersionByPath(studentId, programmeId, yearOfStudyId, id);
+
+        if(version.isEmpty()) {
+            pathResolver.getYearOfStudy(studentId, programmeId, yearOfStudyId);
+
+            throw new NotFoundException("Semester", "id", id.toString());
+        }
+
+        return semesterETag(id, version.get());
+    }
+
+    public String getCourseETag(Integer studentId, Integer programmeId, Integer yearOfStudyId, Integer semesterId,
+                                Integer id) throws NotFoundException {
+        var version = courseRepository.findVersionByPath(studentId, programmeId, yearOfStudyId, semesterId, id);
+
+        if(version.isEmpty()) {
+            pathResolver.getSemester(studentId, programmeId, yearOfStudyId, semesterId);
+
+            throw new NotFoundException("Course", "id", id.toString());
+        }
+
+        return ETagUtils.of(version.get());
+    }
+
+    private String studentETag(Integer id, Long version) {
+        return ETagUtils.of(version, programmeRepository.findVersionRowsByStudentId(id));
+    }
+
+    private String programmeETag(Integer id, Long version) {
+        return ETagUtils.of(version, yearOfStudyRepository.findVersionRowsByProgrammeId(id),
+                courseTypeRepository.findVersionRowsByProgrammeId(id));
+    }
+
+    private String courseTypeETag(Integer id, Long version) {
+        return ETagUtils.of(version, courseRepository.findVersionRowsByCourseTypeId(id));
+    }
+
+    private String yearOfStudyETag(Integer id, Long version) {
+        return ETagUtils.of(version, semesterRepository.findVersionRowsByYearOfStudyId(id));
+    }
+
+    private String semesterETag(Integer id, Long version) {
+        return ETagUtils.of(version, courseRepository.findVersionRowsBySemesterId(id));
+    }
+}
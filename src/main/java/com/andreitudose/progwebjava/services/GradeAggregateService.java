@@ -0,0 +1,241 @@
+package com.andreitudose.progwebjava.services;
+
+import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.model.*;
+import com.andreitudose.progwebjava.repositories.CourseRepository;
+import com.andreitudose.progwebjava.repositories.GradeAggregateRepository;
+import com.andreitudose.progwebjava.repositories.GradeTotalsRow;
+import com.andreitudose.progwebjava.repositories.ProgrammeRepository;
+import com.andreitudose.progwebjava.repositories.SemesterRepository;
+import com.andreitudose.progwebjava.repositories.YearOfStudyRepository;
+import com.andreitudose.progwebjava.utils.GradeCalculator;
+import com.andreitudose.progwebjava.utils.GradeSummary;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Keeps the persisted grade aggregates of semesters, years of study and programmes in sync with their courses.
+ * Course writes apply their difference to the three ancestor aggregates inside the caller's transaction,
+ * so reading an average or a credit total never has to load the courses.
+ */
+@Service
+public class GradeAggregateService {
+    // Keeps the IN lists of the grouped sums well below the database's parameter limits.
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private final GradeAggregateRepository gradeAggregateRepository;
+    private final CourseRepository courseRepository;
+    private final ProgrammeRepository programmeRepository;
+    private final YearOfStudyRepository yearOfStudyRepository;
+    private final SemesterRepository semesterRepository;
+    private final GradeSummaryCache gradeSummaryCache;
+
+    public GradeAggregateService(GradeAggregateRepository gradeAggregateRepository,
+                                 CourseRepository courseRepository,
+                                 ProgrammeRepository programmeRepository,
+                                 YearOfStudyRepository yearOfStudyRepository,
+                                 SemesterRepository semesterRepository,
+                                 GradeSummaryCache gradeSummaryCache) {
+        this.gradeAggregateRepository = gradeAggregateRepository;
+        this.courseRepository = courseRepository;
+        this.programmeRepository = programmeRepository;
+        this.yearOfStudyRepository = yearOfStudyRepository;
+        this.semesterRepository = semesterRepository;
+        this.gradeSummaryCache = gradeSummaryCache;
+    }
+
+    public Optional<GradeAggregate> find(GradeAggregateLevel level, Integer entityId) {
+        return gradeAggregateRepository.findByLevelAndEntityId(level, entityId);
+    }
+
+    // A cached summary is only returned under the path it was resolved for, otherwise the path is checked again.
+    public Optional<GradeSummary> getSummary(GradeAggregateLevel level, Integer entityId, List<Integer> path,
+                                             PathCheck pathCheck) throws NotFoundException {
+        var cached = gradeSummaryCache.get(level, entityId);
+
+        if(cached != null && cached.getPath().equals(path)) {
+            return Optional.of(cached);
+        }
+
+        var generation = gradeSummaryCache.generation();
+
+        pathCheck.run();
+
+        var summary = find(level, entityId)
+                .map(x -> new GradeSummary(path, getGradeAverage(x), x.getPassedCredits()));
+
+        summary.ifPresent(x -> gradeSummaryCache.put(level, entityId, x, generation));
+
+        return summary;
+    }
+
+    public static Double getGradeAverage(GradeAggregate aggregate) {
+        return GradeCalculator.average(aggregate.getWeightedGradeSum(), aggregate.getTotalCredits());
+    }
+
+    public void create(GradeAggregateLevel level, Integer entityId) {
+        var aggregate = new GradeAggregate();
+        aggregate.setLevel(level);
+        aggregate.setEntityId(entityId);
+
+        gradeAggregateRepository.save(aggregate);
+    }
+
+    public void delete(GradeAggregateLevel level, Integer entityId) {
+        gradeAggregateRepository.deleteByLevelAndEntityId(level, entityId);
+    }
+
+    public void courseAdded(Integer programmeId, Integer yearOfStudyId, Integer semesterId,
+                            int grade, Integer numberOfCredits, boolean consideredForGradeAverage) {
+        applyCourse(programmeId, yearOfStudyId, semesterId, grade, numberOfCredits, consideredForGradeAverage, 1);
+    }
+
+    public void coursesAdded(Integer programmeId, Integer yearOfStudyId, Integer semesterId,
+                             Collection<Course> courses) {
+        var totals = GradeCalculator.sum(courses);
+
+        applyDelta(programmeId, yearOfStudyId, semesterId,
+                totals.getWeightedGradeSum(), totals.getAveragedCredits(), totals.getPassedCredits(),
+                totals.getNumberOfCourses());
+    }
+
+    public void courseRemoved(Integer programmeId, Integer yearOfStudyId, Integer semesterId,
+                              int grade, Integer numberOfCredits, boolean consideredForGradeAverage) {
+        applyCourse(programmeId, yearOfStudyId, semesterId, grade, numberOfCredits, consideredForGradeAverage, -1);
+    }
+
+    public void courseUpdated(Integer programmeId, Integer yearOfStudyId, Integer semesterId,
+                              boolean consideredForGradeAverage,
+                              int oldGrade, Integer oldNumberOfCredits,
+                              int newGrade, Integer newNumberOfCredits) {
+        int oldCredits = GradeCalculator.credits(oldNumberOfCredits);
+        int newCredits = GradeCalculator.credits(newNumberOfCredits);
+        int considered = consideredForGradeAverage ? 1 : 0;
+
+        applyDelta(programmeId, yearOfStudyId, semesterId,
+                ((long) newGrade * newCredits - (long) oldGrade * oldCredits) * considered,
+                (newCredits - oldCredits) * considered,
+                GradeCalculator.passedCredits(newGrade, newCredits) - GradeCalculator.passedCredits(oldGrade, oldCredits),
+                0);
+    }
+
+    // Recomputes every aggregate of the programme, e.g. after a course type starts or stops counting towards the average.
+    // The caller's transaction must be READ COMMITTED, see rebuild below.
+    public void rebuild(Programme programme) {
+        var programmeIds = List.of(programme.getId());
+
+        rebuild(programmeIds, yearOfStudyRepository.findIdsByProgrammeIdIn(programmeIds),
+                semesterRepository.findIdsByProgrammeIdIn(programmeIds));
+    }
+
+    // Recomputes every aggregate of the given programmes from the database sums, in a transaction of its own.
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void rebuildProgrammes(List<Integer> programmeIds) {
+        rebuild(programmeIds, yearOfStudyRepository.findIdsByProgrammeIdIn(programmeIds),
+                semesterRepository.findIdsByProgrammeIdIn(programmeIds));
+    }
+
+    // Rows created before the aggregates existed are materialized once, summed by the database.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void materializeMissing() {
+        save(GradeAggregateLevel.SEMESTER, semesterRepository.findIdsWithoutGradeAggregate(), new HashMap<>(),
+                courseRepository::sumGradesBySemester);
+        save(GradeAggregateLevel.YEAR_OF_STUDY, yearOfStudyRepository.findIdsWithoutGradeAggregate(), new HashMap<>(),
+                courseRepository::sumGradesByYearOfStudy);
+        save(GradeAggregateLevel.PROGRAMME, programmeRepository.findIdsWithoutGradeAggregate(), new HashMap<>(),
+                courseRepository::sumGradesByProgramme);
+    }
+
+    // The sums overwrite the aggregates while course writes apply relative deltas to them. All the rows are locked
+    // before summing, in the order of the (level, entity_id) key, which is also the order applyDelta updates them in,
+    // so the two can't deadlock. A course write has either committed before the sums, which read committed rows, or
+    // waits and applies its delta on top of them.
+    private void rebuild(List<Integer> programmeIds, List<Integer> yearOfStudyIds, List<Integer> semesterIds) {
+        var programmes = lock(GradeAggregateLevel.PROGRAMME, programmeIds);
+        var semesters = lock(GradeAggregateLevel.SEMESTER, semesterIds);
+        var yearsOfStudy = lock(GradeAggregateLevel.YEAR_OF_STUDY, yearOfStudyIds);
+
+        save(GradeAggregateLevel.SEMESTER, semesterIds, semesters, courseRepository::sumGradesBySemester);
+        save(GradeAggregateLevel.YEAR_OF_STUDY, yearOfStudyIds, yearsOfStudy, courseRepository::sumGradesByYearOfStudy);
+        save(GradeAggregateLevel.PROGRAMME, programmeIds, programmes, courseRepository::sumGradesByProgramme);
+    }
+
+    private Map<Integer, GradeAggregate> lock(GradeAggregateLevel level, List<Integer> entityIds) {
+        var sortedIds = entityIds.stream().sorted().toList();
+        var aggregates = new HashMap<Integer, GradeAggregate>();
+
+        for(int from = 0; from < sortedIds.size(); from += MAX_IDS_PER_QUERY) {
+            var ids = sortedIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, sortedIds.size()));
+
+            gradeAggregateRepository.findByLevelAndEntityIdIn(level, ids)
+                    .forEach(x -> aggregates.put(x.getEntityId(), x));
+        }
+
+        return aggregates;
+    }
+
+    private void save(GradeAggregateLevel level, List<Integer> entityIds, Map<Integer, GradeAggregate> aggregates,
+                      Function<Collection<Integer>, List<GradeTotalsRow>> sumGrades) {
+        for(int from = 0; from < entityIds.size(); from += MAX_IDS_PER_QUERY) {
+            var ids = entityIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, entityIds.size()));
+
+            for(var row : sumGrades.apply(ids)) {
+                var aggregate = aggregates.computeIfAbsent(row.getEntityId(), entityId -> {
+                    var created = new GradeAggregate();
+                    created.setLevel(level);
+                    created.setEntityId(entityId);
+                    return created;
+                });
+
+                aggregate.setWeightedGradeSum(row.getWeightedGradeSum());
+                aggregate.setTotalCredits(Math.toIntExact(row.getAveragedCredits()));
+                aggregate.setPassedCredits(Math.toIntExact(row.getPassedCredits()));
+                aggregate.setNumberOfCourses(Math.toIntExact(row.getNumberOfCourses()));
+            }
+        }
+
+        if(!aggregates.isEmpty()) {
+            gradeAggregateRepository.saveAll(aggregates.values());
+        }
+    }
+
+    private void applyCourse(Integer programmeId, Integer yearOfStudyId, Integer semesterId,
+                             int grade, Integer numberOfCredits, boolean consideredForGradeAverage, int sign) {
+        int credits = GradeCalculator.credits(numberOfCredits);
+        int averagedCredits = consideredForGradeAverage ? credits : 0;
+
+        applyDelta(programmeId, yearOfStudyId, semesterId,
+                sign * (long) grade * averagedCredits,
+                sign * averagedCredits,
+                sign * GradeCalculator.passedCredits(grade, credits),
+                sign);
+    }
+
+    // One update per row, in the order of the (level, entity_id) key the rebuild locks in. A single update over the
+    // three rows would lock them in whatever order the plan reads them.
+    private void applyDelta(Integer programmeId, Integer yearOfStudyId, Integer semesterId,
+                            long weightedGradeSum, int totalCredits, int passedCredits, int numberOfCourses) {
+        gradeAggregateRepository.applyDelta(GradeAggregateLevel.PROGRAMME, programmeId,
+                weightedGradeSum, totalCredits, passedCredits, numberOfCourses);
+        gradeAggregateRepository.applyDelta(GradeAggregateLevel.SEMESTER, semesterId,
+                weightedGradeSum, totalCredits, passedCredits, numberOfCourses);
+        gradeAggregateRepository.applyDelta(GradeAggregateLevel.YEAR_OF_STUDY, yearOfStudyId,
+                weightedGradeSum, totalCredits, passedCredits, numberOfCourses);
+    }
+
+    @FunctionalInterface
+    public interface PathCheck {
+        void run() throws NotFoundException;
+    }
+}
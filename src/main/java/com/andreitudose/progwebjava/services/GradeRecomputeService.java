@@ -0,0 +1,134 @@
+package com.andreitudose.progwebjava.services;
+
+import com.andreitudose.progwebjava.dtos.GradeRecomputeStatusDto;
+import com.andreitudose.progwebjava.dtos.GradeRecomputeStatusDto.State;
+import com.andreitudose.progwebjava.repositories.ProgrammeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recomputes the aggregates of every programme in the background, e.g. after a grading rule changes. Programmes are
+ * rebuilt in chunks, each in its own transaction, on virtual threads; at most {@code parallelism} chunks run at once
+ * so the job never holds more database connections than that. Only one run is active at a time.
+ */
+@Service
+public class GradeRecomputeService {
+    private final GradeAggregateService gradeAggregateService;
+    private final ProgrammeRepository programmeRepository;
+    private final GradeSummaryCache gradeSummaryCache;
+    private final int parallelism;
+    private final int chunkSize;
+
+    private final AtomicInteger processedProgrammes = new AtomicInteger();
+    private final AtomicInteger failedChunks = new AtomicInteger();
+    private volatile State state = State.IDLE;
+    private volatile int totalProgrammes;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String lastError;
+
+    public GradeRecomputeService(GradeAggregateService gradeAggregateService,
+                                 ProgrammeRepository programmeRepository,
+                                 GradeSummaryCache gradeSummaryCache,
+                                 @Value("${app.grade-recompute.parallelism:4}") int parallelism,
+                                 @Value("${app.grade-recompute.chunk-size:100}") int chunkSize) {
+        this.gradeAggregateService = gradeAggregateService;
+        this.programmeRepository = programmeRepository;
+        this.gradeSummaryCache = gradeSummaryCache;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    // Starting while a run is in progress returns that run's status.
+    public synchronized GradeRecomputeStatusDto start() {
+        if(state != State.RUNNING) {
+            processedProgrammes.set(0);
+            failedChunks.set(0);
+            totalProgrammes = 0;
+            startedAt = Instant.now();
+            finishedAt = null;
+            lastError = null;
+            state = State.RUNNING;
+
+            Thread.ofVirtual().name("grade-recompute").start(this::run);
+        }
+
+        return getStatus();
+    }
+
+    public GradeRecomputeStatusDto getStatus() {
+        var status = new GradeRecomputeStatusDto();
+
+        status.setState(state);
+        status.setTotalProgrammes(totalProgrammes);
+        status.setProcessedProgrammes(processedProgrammes.get());
+        status.setFailedChunks(failedChunks.get());
+        status.setStartedAt(startedAt);
+        status.setFinishedAt(finishedAt);
+        status.setLastError(lastError);
+
+        return status;
+    }
+
+    private void run() {
+        try {
+            var programmeIds = programmeRepository.findAllIds();
+            var permits = new Semaphore(parallelism);
+
+            totalProgrammes = programmeIds.size();
+
+            try(var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for(int from = 0; from < programmeIds.size(); from += chunkSize) {
+                    var chunk = programmeIds.subList(from, Math.min(from + chunkSize, programmeIds.size()));
+
+                    permits.acquire();
+
+                    executor.submit(() -> {
+                        try {
+                            recompute(chunk);
+                        }
+                        finally {
+                            permits.release();
+                        }
+                    });
+                }
+            }
+
+            finish(failedChunks.get() == 0 ? State.COMPLETED : State.FAILED);
+        }
+        catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            lastError = "interrupted";
+            finish(State.FAILED);
+        }
+        catch(RuntimeException ex) {
+            lastError = ex.getMessage();
+            finish(State.FAILED);
+        }
+    }
+
+    // A failed chunk is rolled back and counted, the remaining chunks still run.
+    private void recompute(List<Integer> programmeIds) {
+        try {
+            gradeAggregateService.rebuildProgrammes(programmeIds);
+            gradeSummaryCache.evictProgrammes(programmeIds);
+
+            processedProgrammes.addAndGet(programmeIds.size());
+        }
+        catch(RuntimeException ex) {
+            failedChunks.incrementAndGet();
+            lastError = ex.getMessage();
+        }
+    }
+
+    private synchronized void finish(State finalState) {
+        finishedAt = Instant.now();
+        state = finalState;
+    }
+}
@@ -0,0 +1,130 @@
+package com.andreitudose.progwebjava.services;
+
+import com.andreitudose.progwebjava.events.ChangeType;
+import com.andreitudose.progwebjava.events.EntityChangeBatch;
+import com.andreitudose.progwebjava.events.EntityChangedEvent;
+import com.andreitudose.progwebjava.events.EntityKind;
+import com.andreitudose.progwebjava.model.GradeAggregateLevel;
+import com.andreitudose.progwebjava.utils.GradeSummary;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived cache of the average and credit endpoints, keyed by (level, id). Entries are evicted on the committing
+ * thread, from the entity change events, before the write's response is sent.
+ */
+@Component
+public class GradeSummaryCache implements MeterBinder {
+    private final Cache<Key, GradeSummary> cache;
+    // Incremented before every eviction, so a summary loaded before it is not put back afterwards.
+    private final AtomicLong generation = new AtomicLong();
+
+    public GradeSummaryCache(@Value("${app.grade-summary-cache.expire-after-write:30s}") Duration expireAfterWrite,
+                             @Value("${app.grade-summary-cache.maximum-size:10000}") long maximumSize) {
+        cache = Caffeine.newBuilder()
+                .expireAfterWrite(expireAfterWrite)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    public GradeSummary get(GradeAggregateLevel level, Integer entityId) {
+        return cache.getIfPresent(new Key(level, entityId));
+    }
+
+    // Taken before the summary is loaded from the database and passed to put.
+    public long generation() {
+        return generation.get();
+    }
+
+    // The summary is dropped when an eviction started after it was loaded, it may have been read before that commit.
+    // Checked again after the put, in case the eviction ran between the first check and the put.
+    public void put(GradeAggregateLevel level, Integer entityId, GradeSummary summary, long loadedGeneration) {
+        var key = new Key(level, entityId);
+
+        if(generation.get() != loadedGeneration) {
+            return;
+        }
+
+        cache.put(key, summary);
+
+        if(generation.get() != loadedGeneration) {
+            cache.invalidate(key);
+        }
+    }
+
+    // Synchronous, so a read right after the write's response doesn't return the old summary.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEntityChanges(EntityChangeBatch batch) {
+        var keys = new HashSet<Key>();
+        var programmeIds = new ArrayList<Integer>();
+
+        for(var event : batch.getEvents()) {
+            if(event.getKind() == EntityKind.STUDENT) {
+                // a student can only be deleted without programmes, so none of its summaries are cached
+                continue;
+            }
+
+            if(event.getKind() == EntityKind.COURSE_TYPE && event.getType() == ChangeType.UPDATED) {
+                // a course type change recomputes the whole programme
+                programmeIds.add(event.getProgrammeId());
+            }
+
+            addKeys(event, keys);
+        }
+
+        if(keys.isEmpty()) {
+            return;
+        }
+
+        generation.incrementAndGet();
+        cache.invalidateAll(keys);
+
+        if(programmeIds.size() > 0) {
+            evictProgrammes(programmeIds);
+        }
+    }
+
+    public void evictProgrammes(Collection<Integer> programmeIds) {
+        var ids = new HashSet<>(programmeIds);
+
+        generation.incrementAndGet();
+        ids.forEach(x -> cache.invalidate(new Key(GradeAggregateLevel.PROGRAMME, x)));
+
+        // years of study and semesters are cached under [studentId, programmeId, ...]
+        cache.asMap().values().removeIf(x -> x.getPath().size() > 1 && ids.contains(x.getPath().get(1)));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "gradeSummaries");
+    }
+
+    private static void addKeys(EntityChangedEvent event, HashSet<Key> keys) {
+        keys.add(new Key(GradeAggregateLevel.PROGRAMME, event.getProgrammeId()));
+
+        if(event.getYearOfStudyId() != null) {
+            keys.add(new Key(GradeAggregateLevel.YEAR_OF_STUDY, event.getYearOfStudyId()));
+        }
+
+        if(event.getSemesterId() != null) {
+            keys.add(new Key(GradeAggregateLevel.SEMESTER, event.getSemesterId()));
+        }
+    }
+
+    private record Key(GradeAggregateLevel level, Integer entityId) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.andreitudose.progwebjava.services;
+
+import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.model.Programme;
+import com.andreitudose.progwebjava.model.Semester;
+import com.andreitudose.progwebjava.model.Student;
+import com.andreitudose.progwebjava.model.YearOfStudy;
+import com.andreitudose.progwebjava.repositories.ProgrammeRepository;
+import com.andreitudose.progwebjava.repositories.SemesterRepository;
+import com.andreitudose.progwebjava.repositories.StudentRepository;
+import com.andreitudose.progwebjava.repositories.YearOfStudyRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the /students/{id}/programmes/{id}/years-of-study/{id}/semesters/{id} ownership chain
+ * with a single joined query per depth. The ancestors are only queried again when the lookup
+ * fails, to report which level of the path does not exist.
+ */
+@Component
+public class PathResolver {
+    private final StudentRepository studentRepository;
+    private final ProgrammeRepository programmeRepository;
+    private final YearOfStudyRepository yearOfStudyRepository;
+    private final SemesterRepository semesterRepository;
+
+    public PathResolver(StudentRepository studentRepository,
+                        ProgrammeRepository programmeRepository,
+                        YearOfStudyRepository yearOfStudyRepository,
+                        SemesterRepository semesterRepository) {
+        this.studentRepository = studentRepository;
+        this.programmeRepository = programmeRepository;
+        this.yearOfStudyRepository = yearOfStudyRepository;
+        this.semesterRepository = semesterRepository;
+    }
+
+    public Student getStudent(Integer studentId) throws NotFoundException {
+        var student = studentRepository.findById(studentId);
+
+        if(student.isEmpty()) {
+            throw new NotFoundException("Student", "id", studentId.toString());
+        }
+
+        return student.get();
+    }
+
+    public Programme getProgramme(Integer studentId, Integer programmeId) throws NotFoundException {
+        var programme = programmeRepository.findCachedByIdOwnedByStudent(programmeId, studentId);
+
+        if(programme.isEmpty()) {
+            requireStudent(studentId);
+
+            throw new NotFoundException("Programme", "id", programmeId.toString());
+        }
+
+        return programme.get();
+    }
+
+    public YearOfStudy getYearOfStudy(Integer studentId, Integer programmeId, Integer yearOfStudyId)
+            throws NotFoundException {
+        var yearOfStudy = yearOfStudyRepository.findByPath(studentId, programmeId, yearOfStudyId);
+
+        if(yearOfStudy.isEmpty()) {
+            getProgramme(studentId, programmeId);
+
+            throw new NotFoundException("Year of study", "id", yearOfStudyId.toString());
+        }
+
+        return yearOfStudy.get();
+    }
+
+    public Semester getSemester(Integer studentId, Integer programmeId, Integer yearOfStudyId, Integer semesterId)
+            throws NotFoundException {
+        var semester = semesterRepository.findByPath(studentId, programmeId, yearOfStudyId, semesterId);
+
+        if(semester.isEmpty()) {
+            getYearOfStudy(studentId, programmeId, yearOfStudyId);
+
+            throw new NotFoundException("Semester", "id", semesterId.toString());
+        }
+
+        return semester.get();
+    }
+
+    public void requireStudent(Integer studentId) throws NotFoundException {
+        if(!studentRepository.existsById(studentId)) {
+            throw new NotFoundException("Student", "id", studentId.toString());
+        }
+    }
+}
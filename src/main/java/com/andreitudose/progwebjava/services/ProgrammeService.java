@@ -3,72 +3,95 @@ package com.andreitudose.progwebjava.services;
 import com.andreitudose.progwebjava.dtos.ProgrammeDetailedResponseDto;
 import com.andreitudose.progwebjava.dtos.ProgrammeRequestDto;
 import com.andreitudose.progwebjava.dtos.ProgrammeResponseDto;
+import com.andreitudose.progwebjava.events.ChangeType;
+import com.andreitudose.progwebjava.events.EntityChangePublisher;
+import com.andreitudose.progwebjava.events.EntityChangedEvent;
 import com.andreitudose.progwebjava.exceptions.BadRequestException;
 import com.andreitudose.progwebjava.exceptions.CannotDeleteException;
 import com.andreitudose.progwebjava.exceptions.DuplicateItemException;
 import com.andreitudose.progwebjava.exceptions.NotFoundException;
-import com.andreitudose.progwebjava.model.Course;
+import com.andreitudose.progwebjava.exceptions.PreconditionFailedException;
+import com.andreitudose.progwebjava.model.GradeAggregateLevel;
 import com.andreitudose.progwebjava.model.Programme;
-import com.andreitudose.progwebjava.model.Student;
 import com.andreitudose.progwebjava.repositories.ProgrammeRepository;
-import com.andreitudose.progwebjava.repositories.StudentRepository;
+import com.andreitudose.progwebjava.utils.ETagUtils;
+import com.andreitudose.progwebjava.utils.GradeSummary;
+import com.andreitudose.progwebjava.utils.ValidationGroups;
 import com.andreitudose.progwebjava.utils.ValidationUtils;
-import jakarta.validation.Validation;
 import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("app.service")
 public class ProgrammeService {
     private final ProgrammeRepository programmeRepository;
-    private final StudentRepository studentRepository;
-    private Validator validator;
+    private final PathResolver pathResolver;
+    private final GradeAggregateService gradeAggregateService;
+    private final Validator validator;
+    private final EntityChangePublisher entityChangePublisher;
+    private final ETagResolver eTagResolver;
 
     public ProgrammeService(ProgrammeRepository programmeRepository,
-                            StudentRepository studentRepository) {
+                            PathResolver pathResolver,
+                            GradeAggregateService gradeAggregateService,
+                            Validator validator,
+                            EntityChangePublisher entityChangePublisher,
+                            ETagResolver eTagResolver) {
         this.programmeRepository = programmeRepository;
-        this.studentRepository = studentRepository;
-
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        validator = factory.getValidator();
+        this.pathResolver = pathResolver;
+        this.gradeAggregateService = gradeAggregateService;
+        this.validator = validator;
+        this.entityChangePublisher = entityChangePublisher;
+        this.eTagResolver = eTagResolver;
     }
 
+    @Transactional(readOnly = true)
     public List<ProgrammeResponseDto> getAll(Integer studentId) throws NotFoundException {
 
-        var student = getStudentIfExists(studentId);
+        var rows = programmeRepository.findRowsByStudentId(studentId);
+
+        // an empty list is either a student without programmes or a missing student
+        if(rows.isEmpty()) {
+            pathResolver.requireStudent(studentId);
+        }
 
-        return student.getProgrammes().stream()
-                .map(x -> new ProgrammeResponseDto().fromProgramme(x))
+        return rows.stream()
+                .map(x -> new ProgrammeResponseDto().fromProgrammeRow(x))
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public ProgrammeDetailedResponseDto getById(Integer studentId, Integer id) throws NotFoundException {
 
-        var student = getStudentIfExists(studentId);
-
-        var programme = student.getProgrammes().stream().filter(x -> x.getId().equals(id)).findFirst();
+        var programme = programmeRepository.findDetailedByPath(studentId, id);
 
         if(programme.isEmpty()) {
+            pathResolver.getStudent(studentId);
+
             throw new NotFoundException("Programme", "id", id.toString());
         }
 
         return new ProgrammeDetailedResponseDto().fromProgramme(programme.get());
     }
 
-    public ProgrammeResponseDto create(Integer studentId, ProgrammeRequestDto request) throws NotFoundException, BadRequestException, DuplicateItemException {
+    @Transactional(readOnly = true)
+    public String getETag(Integer studentId, Integer id) throws NotFoundException {
+        return eTagResolver.getProgrammeETag(studentId, id);
+    }
 
-        var validationResult = validator.validate(request);
+    @Transactional
+    public ProgrammeResponseDto create(Integer studentId, ProgrammeRequestDto request) throws NotFoundException, BadRequestException, DuplicateItemException {
 
-        if(validationResult.size() > 0) {
-            throw new BadRequestException(ValidationUtils.getErrors(validationResult));
-        }
+        ValidationUtils.validate(validator, request, ValidationGroups.Create.class);
 
-        var student = getStudentIfExists(studentId);
+        var student = pathResolver.getStudent(studentId);
 
-        if(student.getProgrammes().stream().anyMatch(x -> x.getName().equals(request.getName()))){
+        if(programmeRepository.existsByStudentIdAndName(studentId, request.getName())) {
             throw new DuplicateItemException("Programme", "name", request.getName());
         }
 
@@ -78,117 +101,68 @@ public class ProgrammeService {
 
         var createdProgramme = programmeRepository.save(programme);
 
+        gradeAggregateService.create(GradeAggregateLevel.PROGRAMME, createdProgramme.getId());
+
+        entityChangePublisher.publish(EntityChangedEvent.programme(ChangeType.CREATED, studentId,
+                createdProgramme.getId()));
+
         return new ProgrammeResponseDto().fromProgramme(createdProgramme);
     }
 
-    public ProgrammeResponseDto update(Integer studentId, Integer id, ProgrammeRequestDto request) throws NotFoundException, BadRequestException, DuplicateItemException {
+    @Transactional
+    public ProgrammeResponseDto update(Integer studentId, Integer id, ProgrammeRequestDto request, String ifMatch)
+            throws NotFoundException, BadRequestException, DuplicateItemException, PreconditionFailedException {
 
-        var validationResult = validator.validate(request);
+        ValidationUtils.validate(validator, request, ValidationGroups.Update.class);
 
-        if(validationResult.size() > 0) {
-            throw new BadRequestException(ValidationUtils.getErrors(validationResult));
-        }
-
-        var student = getStudentIfExists(studentId);
+        var programme = pathResolver.getProgramme(studentId, id);
 
-        if(student.getProgrammes().stream()
-                .anyMatch(x -> !x.getId().equals(id)
-                            && x.getName().equals(request.getName()))){
+        if(programmeRepository.existsByStudentIdAndNameAndIdNot(studentId, request.getName(), id)) {
             throw new DuplicateItemException("Programme", "name", request.getName());
         }
 
-        var programme = student.getProgrammes().stream().filter(x -> x.getId().equals(id)).findFirst();
+        ETagUtils.checkIfMatch(ifMatch, "Programme", id, () -> eTagResolver.of(programme));
 
-        if(programme.isEmpty()) {
-            throw new NotFoundException("Programme", "id", id.toString());
-        }
+        var createdProgramme = programmeRepository.save(request.toProgramme(programme));
 
-        var createdProgramme = programmeRepository.save(request.toProgramme(programme.get()));
+        entityChangePublisher.publish(EntityChangedEvent.programme(ChangeType.UPDATED, studentId, id));
 
         return new ProgrammeResponseDto().fromProgramme(createdProgramme);
     }
 
-    public void delete(Integer studentId, Integer id) throws NotFoundException, CannotDeleteException {
-        var student = getStudentIfExists(studentId);
+    @Transactional
+    public void delete(Integer studentId, Integer id, String ifMatch)
+            throws NotFoundException, CannotDeleteException, PreconditionFailedException {
+        var programme = pathResolver.getProgramme(studentId, id);
 
-        var programme = student.getProgrammes().stream().filter(x -> x.getId().equals(id)).findFirst();
+        ETagUtils.checkIfMatch(ifMatch, "Programme", id, () -> eTagResolver.of(programme));
 
-        if(programme.isEmpty()) {
-            throw new NotFoundException("Programme", "id", id.toString());
-        }
-
-        if(programme.get().getCourseTypes().size() > 0) {
+        if(programme.getCourseTypes().size() > 0) {
             throw new CannotDeleteException("Programme", "id", id.toString(), "course types");
         }
 
-        if(programme.get().getYearsOfStudy().size() > 0) {
+        if(programme.getYearsOfStudy().size() > 0) {
             throw new CannotDeleteException("Programme", "id", id.toString(), "years of study");
         }
 
         programmeRepository.deleteById(id);
-    }
 
-    public Double getGradeAverage(Integer id) throws NotFoundException {
-        var programme = programmeRepository.findById(id);
+        gradeAggregateService.delete(GradeAggregateLevel.PROGRAMME, id);
 
-        if(programme.isEmpty()) {
-            throw new NotFoundException("Programme", "id", id.toString());
-        }
-
-        var years = programme.get().getYearsOfStudy();
-
-        List<Double> yearAverages = years
-                .stream().map(year -> {
-                    var semesters = year.getSemesters();
-
-                    List<Double> semesterAverages = semesters
-                            .stream().map(semester -> {
-                                var courses = semester.getCourses();
-
-                                var totalNumberOfCredits = courses.stream()
-                                        .map(Course::getNumberOfCredits)
-                                        .reduce(0, Integer::sum);
-
-                                var sum = courses.stream()
-                                        .map(x -> Double.valueOf(x.getGrade() * x.getNumberOfCredits()))
-                                        .reduce((double) 0, Double::sum);
-
-                                return sum / totalNumberOfCredits;
-                            }).toList();
-
-                    return semesterAverages.stream().reduce((double)0, Double::sum) / semesters.size();
-                }).toList();
-
-        return yearAverages.stream().reduce((double)0, Double::sum) / years.size();
+        entityChangePublisher.publish(EntityChangedEvent.programme(ChangeType.DELETED, studentId, id));
     }
 
-    public Integer getTotalCredits(Integer id) throws NotFoundException {
-        var programme = programmeRepository.findById(id);
-
-        if(programme.isEmpty()) {
-            throw new NotFoundException("Programme", "id", id.toString());
-        }
-
-        return programme.get().getYearsOfStudy().stream()
-                .map(yearOfStudy -> yearOfStudy.getSemesters().stream()
-                        .map(semester -> semester.getCourses().stream()
-                                .filter(x -> x.getGrade() >= 5)
-                                .map(Course::getNumberOfCredits)
-                                .reduce(0, Integer::sum)
-                        )
-                        .reduce(0, Integer::sum)
-                )
-                .reduce(0, Integer::sum);
+    public Double getGradeAverage(Integer studentId, Integer id) throws NotFoundException {
+        return getGradeSummary(studentId, id).getGradeAverage();
     }
 
-    private Student getStudentIfExists(Integer studentId) throws NotFoundException {
-        var student = studentRepository.findById(studentId);
-
-        if(student.isEmpty()) {
-            throw new NotFoundException("Student", "id", studentId.toString());
-        }
-
-        return student.get();
+    public Integer getTotalCredits(Integer studentId, Integer id) throws NotFoundException {
+        return getGradeSummary(studentId, id).getPassedCredits();
+    }
 
+    private GradeSummary getGradeSummary(Integer studentId, Integer id) throws NotFoundException {
+        return gradeAggregateService.getSummary(GradeAggregateLevel.PROGRAMME, id, List.of(studentId),
+                        () -> pathResolver.getProgramme(studentId, id))
+                .orElseThrow(() -> new NotFoundException("Programme", "id", id.toString()));
     }
 }
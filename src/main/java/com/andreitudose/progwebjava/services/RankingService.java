@@ -0,0 +1,50 @@
+package com.andreitudose.progwebjava.services;
+
+import com.andreitudose.progwebjava.dtos.RankingResponseDto;
+import com.andreitudose.progwebjava.exceptions.BadRequestException;
+import com.andreitudose.progwebjava.repositories.GradeAggregateRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+
+@Service
+@Timed("app.service")
+public class RankingService {
+    private static final int MAX_RANKING_SIZE = 1000;
+
+    private final GradeAggregateRepository gradeAggregateRepository;
+
+    public RankingService(GradeAggregateRepository gradeAggregateRepository) {
+        this.gradeAggregateRepository = gradeAggregateRepository;
+    }
+
+    // Students without any credits counted in the year's average are not ranked.
+    @Transactional(readOnly = true)
+    public RankingResponseDto get(String programmeName, Integer yearOfStudyNumber, int limit)
+            throws BadRequestException {
+        var errors = new HashMap<String, String>();
+
+        if(programmeName == null || programmeName.isBlank()) {
+            errors.put("programmeName", "must not be blank");
+        }
+
+        if(yearOfStudyNumber == null || yearOfStudyNumber < 1) {
+            errors.put("yearOfStudyNumber", "must be greater than or equal to 1");
+        }
+
+        if(limit < 1 || limit > MAX_RANKING_SIZE) {
+            errors.put("limit", String.format("must be between 1 and %s", MAX_RANKING_SIZE));
+        }
+
+        if(errors.size() > 0) {
+            throw new BadRequestException(errors);
+        }
+
+        var rows = gradeAggregateRepository.findRanking(programmeName, yearOfStudyNumber, PageRequest.of(0, limit));
+
+        return new RankingResponseDto().fromRankingRows(programmeName, yearOfStudyNumber, rows);
+    }
+}
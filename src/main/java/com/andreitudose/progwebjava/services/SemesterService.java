@@ -3,81 +3,104 @@ package com.andreitudose.progwebjava.services;
 import com.andreitudose.progwebjava.dtos.SemesterDetailedResponseDto;
 import com.andreitudose.progwebjava.dtos.SemesterRequestDto;
 import com.andreitudose.progwebjava.dtos.SemesterResponseDto;
+import com.andreitudose.progwebjava.events.ChangeType;
+import com.andreitudose.progwebjava.events.EntityChangePublisher;
+import com.andreitudose.progwebjava.events.EntityChangedEvent;
 import com.andreitudose.progwebjava.exceptions.BadRequestException;
 import com.andreitudose.progwebjava.exceptions.CannotDeleteException;
 import com.andreitudose.progwebjava.exceptions.DuplicateItemException;
 import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.exceptions.PreconditionFailedException;
 import com.andreitudose.progwebjava.model.*;
 import com.andreitudose.progwebjava.repositories.SemesterRepository;
-import com.andreitudose.progwebjava.repositories.StudentRepository;
+import com.andreitudose.progwebjava.utils.ETagUtils;
+import com.andreitudose.progwebjava.utils.GradeSummary;
+import com.andreitudose.progwebjava.utils.ValidationGroups;
 import com.andreitudose.progwebjava.utils.ValidationUtils;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
 import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("app.service")
 public class SemesterService {
     private final SemesterRepository semesterRepository;
-    private final StudentRepository studentRepository;
+    private final PathResolver pathResolver;
+    private final GradeAggregateService gradeAggregateService;
     private final Validator validator;
+    private final EntityChangePublisher entityChangePublisher;
+    private final ETagResolver eTagResolver;
 
     public SemesterService(SemesterRepository semesterRepository,
-                           StudentRepository studentRepository) {
+                           PathResolver pathResolver,
+                           GradeAggregateService gradeAggregateService,
+                           Validator validator,
+                           EntityChangePublisher entityChangePublisher,
+                           ETagResolver eTagResolver) {
         this.semesterRepository = semesterRepository;
-        this.studentRepository = studentRepository;
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        validator = factory.getValidator();
+        this.pathResolver = pathResolver;
+        this.gradeAggregateService = gradeAggregateService;
+        this.validator = validator;
+        this.entityChangePublisher = entityChangePublisher;
+        this.eTagResolver = eTagResolver;
     }
 
+    @Transactional(readOnly = true)
     public List<SemesterResponseDto> getAll(Integer studentId,
                                             Integer programmeId,
                                             Integer yearOfStudyId) throws NotFoundException {
 
-        var yearOfStudy = getYearOfStudyIfExists(studentId, programmeId, yearOfStudyId);
+        var rows = semesterRepository.findRowsByPath(studentId, programmeId, yearOfStudyId);
 
-        return yearOfStudy.getSemesters().stream()
-                .map(x -> new SemesterResponseDto().fromSemester(x))
+        if(rows.isEmpty()) {
+            pathResolver.getYearOfStudy(studentId, programmeId, yearOfStudyId);
+        }
+
+        return rows.stream()
+                .map(x -> new SemesterResponseDto().fromSemesterRow(x))
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public SemesterDetailedResponseDto getById(Integer studentId,
                                                   Integer programmeId,
                                                   Integer yearOfStudyId,
                                                   Integer id)
             throws NotFoundException {
 
-        var yearOfStudy = getYearOfStudyIfExists(studentId, programmeId, yearOfStudyId);
-
-        var semester = yearOfStudy.getSemesters().stream().filter(x -> x.getId().equals(id)).findFirst();
+        var semester = semesterRepository.findDetailedByPath(studentId, programmeId, yearOfStudyId, id);
 
         if(semester.isEmpty()) {
+            pathResolver.getYearOfStudy(studentId, programmeId, yearOfStudyId);
+
             throw new NotFoundException("Semester", "id", id.toString());
         }
 
         return new SemesterDetailedResponseDto().fromSemester(semester.get());
     }
 
+    @Transactional(readOnly = true)
+    public String getETag(Integer studentId, Integer programmeId, Integer yearOfStudyId, Integer id)
+            throws NotFoundException {
+        return eTagResolver.getSemesterETag(studentId, programmeId, yearOfStudyId, id);
+    }
+
+    @Transactional
     public SemesterResponseDto create(Integer studentId,
                                          Integer programmeId,
                                          Integer yearOfStudyId,
                                          SemesterRequestDto request)
             throws NotFoundException, BadRequestException, DuplicateItemException {
 
-        Set<ConstraintViolation<SemesterRequestDto>> validationResult = validator.validate(request);
+        ValidationUtils.validate(validator, request, ValidationGroups.Create.class);
 
-        if(validationResult.size() > 0) {
-            throw new BadRequestException(ValidationUtils.getErrors(validationResult));
-        }
-
-        var yearOfStudy = getYearOfStudyIfExists(studentId, programmeId, yearOfStudyId);
+        var yearOfStudy = pathResolver.getYearOfStudy(studentId, programmeId, yearOfStudyId);
 
-        if(yearOfStudy.getSemesters().stream().anyMatch(x -> x.getNumber().equals(request.getNumber()))) {
+        if(semesterRepository.existsByYearOfStudyIdAndNumber(yearOfStudyId, request.getNumber())) {
             throw new DuplicateItemException("Semester", "number", request.getNumber().toString());
         }
 
@@ -87,128 +110,75 @@ public class SemesterService {
 
         var createdSemester = semesterRepository.save(semester);
 
+        gradeAggregateService.create(GradeAggregateLevel.SEMESTER, createdSemester.getId());
+
+        entityChangePublisher.publish(EntityChangedEvent.semester(ChangeType.CREATED, studentId, programmeId,
+                yearOfStudyId, createdSemester.getId()));
+
         return new SemesterResponseDto().fromSemester(createdSemester);
     }
 
+    @Transactional
     public SemesterResponseDto update(Integer studentId,
                                       Integer programmeId,
                                       Integer yearOfStudyId,
                                       Integer id,
-                                      SemesterRequestDto request)
-            throws NotFoundException, BadRequestException, DuplicateItemException {
-
-        Set<ConstraintViolation<SemesterRequestDto>> validationResult = validator.validate(request);
+                                      SemesterRequestDto request,
+                                      String ifMatch)
+            throws NotFoundException, BadRequestException, DuplicateItemException, PreconditionFailedException {
 
-        if(validationResult.size() > 0) {
-            throw new BadRequestException(ValidationUtils.getErrors(validationResult));
-        }
+        ValidationUtils.validate(validator, request, ValidationGroups.Update.class);
 
-        var yearOfStudy = getYearOfStudyIfExists(studentId, programmeId, yearOfStudyId);
+        var semester = pathResolver.getSemester(studentId, programmeId, yearOfStudyId, id);
 
-        if(yearOfStudy.getSemesters().stream().anyMatch(x ->
-                !x.getId().equals(id) && x.getNumber().equals(request.getNumber()))) {
+        if(semesterRepository.existsByYearOfStudyIdAndNumberAndIdNot(yearOfStudyId, request.getNumber(), id)) {
             throw new DuplicateItemException("Semester", "number", request.getNumber().toString());
         }
 
-        var semester = yearOfStudy.getSemesters().stream().filter(x -> x.getId().equals(id)).findFirst();
+        ETagUtils.checkIfMatch(ifMatch, "Semester", id, () -> eTagResolver.of(semester));
 
-        if(semester.isEmpty()) {
-            throw new NotFoundException("Semester", "id", id.toString());
-        }
+        var updatedSemester = semesterRepository.save(request.toSemester(semester));
 
-        var updatedSemester = semesterRepository.save(request.toSemester(semester.get()));
+        entityChangePublisher.publish(EntityChangedEvent.semester(ChangeType.UPDATED, studentId, programmeId,
+                yearOfStudyId, id));
 
         return new SemesterResponseDto().fromSemester(updatedSemester);
     }
 
-    public void delete(Integer studentId, Integer programmeId, Integer yearOfStudyId, Integer id)
-            throws NotFoundException, CannotDeleteException {
-        var yearOfStudy = getYearOfStudyIfExists(studentId, programmeId, yearOfStudyId);
+    @Transactional
+    public void delete(Integer studentId, Integer programmeId, Integer yearOfStudyId, Integer id, String ifMatch)
+            throws NotFoundException, CannotDeleteException, PreconditionFailedException {
+        var semester = pathResolver.getSemester(studentId, programmeId, yearOfStudyId, id);
 
-        var semester = yearOfStudy.getSemesters().stream().filter(x -> x.getId().equals(id)).findFirst();
+        ETagUtils.checkIfMatch(ifMatch, "Semester", id, () -> eTagResolver.of(semester));
 
-        if(semester.isEmpty()) {
-            throw new NotFoundException("Semester", "id", id.toString());
-        }
-
-        if(semester.get().getCourses().size() > 0) {
+        if(semester.getCourses().size() > 0) {
             throw new CannotDeleteException("Semester", "id", id.toString(), "courses");
         }
 
         semesterRepository.deleteById(id);
-    }
-
-    public Double getGradeAverage(Integer semesterId) throws NotFoundException {
-        var semester = semesterRepository.findById(semesterId);
-
-        if(semester.isEmpty()) {
-            throw new NotFoundException("Semester", "id", semesterId.toString());
-        }
 
-        var courses = semester.get().getCourses();
+        gradeAggregateService.delete(GradeAggregateLevel.SEMESTER, id);
 
-        var totalNumberOfCredits = courses.stream()
-                .map(Course::getNumberOfCredits)
-                .reduce(0, Integer::sum);
-
-        var sum = courses
-                .stream().map(x -> Double.valueOf(x.getGrade() * x.getNumberOfCredits()))
-                .reduce((double) 0, Double::sum);
-
-        return sum / totalNumberOfCredits;
+        entityChangePublisher.publish(EntityChangedEvent.semester(ChangeType.DELETED, studentId, programmeId,
+                yearOfStudyId, id));
     }
 
-    public Integer getTotalCredits(Integer id) throws NotFoundException {
-        var semester = semesterRepository.findById(id);
-
-        if(semester.isEmpty()) {
-            throw new NotFoundException("Semester", "id", id.toString());
-        }
-
-        return semester.get().getCourses().stream()
-                        .filter(x -> x.getGrade() >= 5)
-                        .map(Course::getNumberOfCredits)
-                        .reduce(0, Integer::sum);
-    }
-
-    private Student getStudentIfExists(Integer studentId) throws NotFoundException {
-        var student = studentRepository.findById(studentId);
-
-        if(student.isEmpty()) {
-            throw new NotFoundException("Student", "id", studentId.toString());
-        }
-
-        return student.get();
+    public Double getGradeAverage(Integer studentId, Integer programmeId, Integer yearOfStudyId, Integer id)
+            throws NotFoundException {
+        return getGradeSummary(studentId, programmeId, yearOfStudyId, id).getGradeAverage();
     }
 
-    private Programme getProgrammeIfExists(Integer studentId, Integer programmeId) throws NotFoundException {
-
-        var student = getStudentIfExists(studentId);
-
-        var programme = student.getProgrammes().stream().filter(x -> x.getId().equals(programmeId)).findFirst();
-
-        if(programme.isEmpty()) {
-            throw new NotFoundException("Programme", "id", programmeId.toString());
-        }
-
-        return programme.get();
-
+    public Integer getTotalCredits(Integer studentId, Integer programmeId, Integer yearOfStudyId, Integer id)
+            throws NotFoundException {
+        return getGradeSummary(studentId, programmeId, yearOfStudyId, id).getPassedCredits();
     }
 
-    private YearOfStudy getYearOfStudyIfExists(Integer studentId,
-                                               Integer programmeId,
-                                               Integer yearOfStudyId)
+    private GradeSummary getGradeSummary(Integer studentId, Integer programmeId, Integer yearOfStudyId, Integer id)
             throws NotFoundException {
-
-        var programme = getProgrammeIfExists(studentId, programmeId);
-
-        var yearOfStudy = programme.getYearsOfStudy().stream().filter(x -> x.getId().equals(yearOfStudyId)).findFirst();
-
-        if(yearOfStudy.isEmpty()) {
-            throw new NotFoundException("Year of study", "id", yearOfStudyId.toString());
-        }
-
-        return yearOfStudy.get();
-
+        return gradeAggregateService.getSummary(GradeAggregateLevel.SEMESTER, id,
+                        List.of(studentId, programmeId, yearOfStudyId),
+                        () -> pathResolver.getSemester(studentId, programmeId, yearOfStudyId, id))
+                .orElseThrow(() -> new NotFoundException("Semester", "id", id.toString()));
     }
 }
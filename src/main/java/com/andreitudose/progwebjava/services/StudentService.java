@@ -1,49 +1,205 @@
 package com.andreitudose.progwebjava.services;
 
 import com.andreitudose.progwebjava.dtos.StudentDetailedResponseDto;
+import com.andreitudose.progwebjava.dtos.StudentPageResponseDto;
 import com.andreitudose.progwebjava.dtos.StudentRequestDto;
 import com.andreitudose.progwebjava.dtos.StudentResponseDto;
+import com.andreitudose.progwebjava.events.ChangeType;
+import com.andreitudose.progwebjava.events.EntityChangePublisher;
+import com.andreitudose.progwebjava.events.EntityChangedEvent;
 import com.andreitudose.progwebjava.exceptions.BadRequestException;
 import com.andreitudose.progwebjava.exceptions.CannotDeleteException;
 import com.andreitudose.progwebjava.exceptions.DuplicateItemException;
 import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.exceptions.PreconditionFailedException;
 import com.andreitudose.progwebjava.model.Student;
 import com.andreitudose.progwebjava.repositories.StudentRepository;
+import com.andreitudose.progwebjava.repositories.StudentSortField;
+import com.andreitudose.progwebjava.utils.ETagUtils;
+import com.andreitudose.progwebjava.utils.SerializationUtils;
+import com.andreitudose.progwebjava.utils.ValidationGroups;
 import com.andreitudose.progwebjava.utils.ValidationUtils;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("app.service")
 public class StudentService {
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SEARCH_TERMS = 4;
+
     private final StudentRepository studentRepository;
     private final Validator validator;
+    private final EntityChangePublisher entityChangePublisher;
+    private final ETagResolver eTagResolver;
+    private final ObjectWriter exportWriter;
 
-    public StudentService(StudentRepository studentRepository) {
+    public StudentService(StudentRepository studentRepository, Validator validator,
+                          EntityChangePublisher entityChangePublisher, ETagResolver eTagResolver,
+                          ObjectMapper objectMapper) {
         this.studentRepository = studentRepository;
+        this.validator = validator;
+        this.exportWriter = objectMapper.writerFor(StudentResponseDto.class);
+        this.entityChangePublisher = entityChangePublisher;
+        this.eTagResolver = eTagResolver;
+    }
+
+    @Transactional(readOnly = true)
+    public StudentPageResponseDto getAll(String sort, String direction, String after, int size)
+            throws BadRequestException {
+
+        var errors = new HashMap<String, String>();
+
+        var sortField = StudentSortField.fromProperty(sort);
+        if(sortField.isEmpty()) {
+            errors.put("sort", "must be one of id, firstName, lastName, email");
+        }
+
+        var sortDirection = Sort.Direction.fromOptionalString(direction);
+        if(sortDirection.isEmpty()) {
+            errors.put("direction", "must be asc or desc");
+        }
 
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        validator = factory.getValidator();
+        if(size < 1 || size > MAX_PAGE_SIZE) {
+            errors.put("size", String.format("must be between 1 and %s", MAX_PAGE_SIZE));
+        }
+
+        Integer afterId = null;
+        String afterValue = null;
+
+        // the cursor is sort:id, or sort:id:value when sorting by a column other than id
+        if(after != null) {
+            try {
+                var cursor = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8)
+                        .split(":", 3);
+                var cursorSortField = StudentSortField.fromProperty(cursor[0])
+                        .orElseThrow(IllegalArgumentException::new);
+
+                if(cursor.length != (cursorSortField == StudentSortField.ID ? 2 : 3)) {
+                    throw new IllegalArgumentException();
+                }
+
+                afterId = Integer.valueOf(cursor[1]);
+                afterValue = cursorSortField == StudentSortField.ID ? null : cursor[2];
+
+                if(sortField.isPresent() && sortField.get() != cursorSortField) {
+                    errors.put("after", "cursor was created for a different sort");
+                }
+            }
+            catch(IllegalArgumentException | IndexOutOfBoundsException ex) {
+                errors.put("after", "invalid cursor");
+            }
+        }
+
+        if(errors.size() > 0) {
+            throw new BadRequestException(errors);
+        }
+
+        // one extra row tells whether there is a next page
+        var students = studentRepository.findPage(sortField.get(),
+                                                  sortDirection.get().isDescending(),
+                                                  afterValue,
+                                                  afterId,
+                                                  size + 1);
+
+        return getPage(students, sortField.get(), size);
     }
 
-    public List<StudentResponseDto> getAll() {
+    // Case-insensitive prefix search, each word of q has to start the first name, last name or email. Results are
+    // ordered by the lower-cased value they matched on, then id, which is also the cursor.
+    @Transactional(readOnly = true)
+    public StudentPageResponseDto search(String q, String after, int size) throws BadRequestException {
 
-        var xy = studentRepository.findAll();
+        var errors = new HashMap<String, String>();
 
-        return xy.stream()
-                .map(x -> new StudentResponseDto().fromStudent(x))
-                .collect(Collectors.toList());
+        var terms = q == null ? List.<String>of() : Arrays.stream(q.trim().split("\\s+"))
+                .filter(x -> !x.isEmpty())
+                .toList();
+
+        if(terms.isEmpty()) {
+            errors.put("q", "must not be blank");
+        }
+        else if(terms.size() > MAX_SEARCH_TERMS) {
+            errors.put("q", String.format("must have at most %s words", MAX_SEARCH_TERMS));
+        }
+
+        if(size < 1 || size > MAX_PAGE_SIZE) {
+            errors.put("size", String.format("must be between 1 and %s", MAX_PAGE_SIZE));
+        }
+
+        Integer afterId = null;
+        String afterValue = null;
+
+        if(after != null) {
+            try {
+                var cursor = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+                var separator = cursor.indexOf(':');
+
+                afterId = Integer.valueOf(cursor.substring(0, separator));
+                afterValue = cursor.substring(separator + 1);
+            }
+            catch(IllegalArgumentException | IndexOutOfBoundsException ex) {
+                errors.put("after", "invalid cursor");
+            }
+        }
+
+        if(errors.size() > 0) {
+            throw new BadRequestException(errors);
+        }
+
+        // one extra row tells whether there is a next page
+        var rows = studentRepository.search(terms, afterValue, afterId, size + 1);
+
+        var page = new StudentPageResponseDto();
+
+        page.setItems(rows.stream()
+                .limit(size)
+                .map(x -> new StudentResponseDto().fromStudentSearchRow(x))
+                .collect(Collectors.toList()));
+
+        if(rows.size() > size) {
+            var last = rows.get(size - 1);
+            page.setNextCursor(encodeCursor(last.getId() + ":" + last.getSearchValue()));
+        }
+
+        return page;
+    }
+
+    public void export(OutputStream outputStream) throws IOException {
+        try(var generator = SerializationUtils.createGenerator(exportWriter, outputStream)) {
+            studentRepository.streamAll(student -> {
+                try {
+                    exportWriter.writeValue(generator, new StudentResponseDto().fromStudent(student));
+                    generator.writeRaw('\n');
+                }
+                catch(IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
     }
 
+    @Transactional(readOnly = true)
     public StudentDetailedResponseDto getById(Integer id) throws NotFoundException {
 
-        var student = studentRepository.findById(id);
+        var student = studentRepository.findDetailedById(id);
 
         if(student.isEmpty()) {
             throw new NotFoundException("Student", "id", id.toString());
@@ -52,39 +208,34 @@ public class StudentService {
         return new StudentDetailedResponseDto().fromStudent(student.get());
     }
 
-    public StudentResponseDto create(StudentRequestDto request) throws BadRequestException, DuplicateItemException {
-
-        var validationResult = validator.validate(request);
+    @Transactional(readOnly = true)
+    public String getETag(Integer id) throws NotFoundException {
+        return eTagResolver.getStudentETag(id);
+    }
 
-        if(validationResult.size() > 0) {
-            throw new BadRequestException(ValidationUtils.getErrors(validationResult));
-        }
+    public StudentResponseDto create(StudentRequestDto request) throws BadRequestException, DuplicateItemException {
 
-        var students = studentRepository.findAll();
+        ValidationUtils.validate(validator, request, ValidationGroups.Create.class);
 
-        if(students.stream().anyMatch(x -> x.getEmail().equals(request.getEmail()))) {
+        if(studentRepository.existsByEmail(request.getEmail())) {
             throw new DuplicateItemException("Student", "email", request.getEmail());
         }
 
         Student student = request.toStudent(new Student());
 
-        var createdStudent = studentRepository.save(student);
+        var createdStudent = saveUniqueEmail(student);
+
+        entityChangePublisher.publish(EntityChangedEvent.student(ChangeType.CREATED, createdStudent.getId()));
 
         return new StudentResponseDto().fromStudent(createdStudent);
     }
 
-    public StudentResponseDto update(Integer id, StudentRequestDto request)
-            throws NotFoundException, BadRequestException, DuplicateItemException {
-
-        var validationResult = validator.validate(request);
+    public StudentResponseDto update(Integer id, StudentRequestDto request, String ifMatch)
+            throws NotFoundException, BadRequestException, DuplicateItemException, PreconditionFailedException {
 
-        if(validationResult.size() > 0) {
-            throw new BadRequestException(ValidationUtils.getErrors(validationResult));
-        }
-
-        var students = studentRepository.findAll();
+        ValidationUtils.validate(validator, request, ValidationGroups.Update.class);
 
-        if(students.stream().anyMatch(x -> !x.getId().equals(id) && x.getEmail().equals(request.getEmail()))) {
+        if(studentRepository.existsByEmailAndIdNot(request.getEmail(), id)) {
             throw new DuplicateItemException("Student", "email", request.getEmail());
         }
 
@@ -94,22 +245,91 @@ public class StudentService {
             throw new NotFoundException("Student", "id", id.toString());
         }
 
-        var createdStudent = studentRepository.save(request.toStudent(student.get()));
+        ETagUtils.checkIfMatch(ifMatch, "Student", id, () -> eTagResolver.of(student.get()));
+
+        var createdStudent = saveUniqueEmail(request.toStudent(student.get()));
+
+        entityChangePublisher.publish(EntityChangedEvent.student(ChangeType.UPDATED, id));
 
         return new StudentResponseDto().fromStudent(createdStudent);
     }
 
-    public void delete(Integer id) throws NotFoundException, CannotDeleteException {
+    @Transactional
+    public void delete(Integer id, String ifMatch)
+            throws NotFoundException, CannotDeleteException, PreconditionFailedException {
         var student = studentRepository.findById(id);
 
         if(student.isEmpty()) {
             throw new NotFoundException("Student", "id", id.toString());
         }
 
+        ETagUtils.checkIfMatch(ifMatch, "Student", id, () -> eTagResolver.of(student.get()));
+
         if(student.get().getProgrammes().size() > 0) {
             throw new CannotDeleteException("Student", "id", id.toString(), "programmes");
         }
 
         studentRepository.deleteById(id);
+
+        entityChangePublisher.publish(EntityChangedEvent.student(ChangeType.DELETED, id));
+    }
+
+    private StudentPageResponseDto getPage(List<Student> students, StudentSortField sortField, int size) {
+        var page = new StudentPageResponseDto();
+
+        page.setItems(students.stream()
+                .limit(size)
+                .map(x -> new StudentResponseDto().fromStudent(x))
+                .collect(Collectors.toList()));
+
+        if(students.size() > size) {
+            page.setNextCursor(getCursor(sortField, students.get(size - 1)));
+        }
+
+        return page;
+    }
+
+    private String getCursor(StudentSortField sortField, Student student) {
+        var cursor = sortField.getProperty() + ":" + student.getId() + (sortField == StudentSortField.ID
+                ? ""
+                : ":" + switch(sortField) {
+                    case FIRST_NAME -> student.getFirstName();
+                    case LAST_NAME -> student.getLastName();
+                    default -> student.getEmail();
+                });
+
+        return encodeCursor(cursor);
+    }
+
+    private static String encodeCursor(String cursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // create and update do not open a transaction of their own, so the save commits here and a unique key
+    // violation surfaces from it instead of from the caller's commit
+    private Student saveUniqueEmail(Student student) throws DuplicateItemException {
+        try {
+            return studentRepository.save(student);
+        }
+        catch(DataIntegrityViolationException ex) {
+            // another request inserted the same email between the existence check and the save
+            if(violatesUniqueEmail(ex)) {
+                throw new DuplicateItemException("Student", "email", student.getEmail());
+            }
+
+            throw ex;
+        }
+    }
+
+    // MySQL reports the key as students.uk_students_email and H2 as the name of its index, so the name is matched loosely
+    private static boolean violatesUniqueEmail(DataIntegrityViolationException ex) {
+        for(Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if(cause instanceof ConstraintViolationException violation) {
+                return violation.getConstraintName() != null
+                        && violation.getConstraintName().toLowerCase().contains(Student.UNIQUE_EMAIL);
+            }
+        }
+
+        return false;
     }
 }
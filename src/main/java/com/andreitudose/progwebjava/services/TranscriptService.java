@@ -0,0 +1,28 @@
+package com.andreitudose.progwebjava.services;
+
+import com.andreitudose.progwebjava.dtos.TranscriptResponseDto;
+import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.repositories.ProgrammeRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class TranscriptService {
+    private final ProgrammeRepository programmeRepository;
+    private final PathResolver pathResolver;
+
+    public TranscriptService(ProgrammeRepository programmeRepository, PathResolver pathResolver) {
+        this.programmeRepository = programmeRepository;
+        this.pathResolver = pathResolver;
+    }
+
+    // Two queries regardless of the size of the tree: the student, then every level flattened into one projection.
+    @Transactional(readOnly = true)
+    public TranscriptResponseDto get(Integer studentId) throws NotFoundException {
+        var student = pathResolver.getStudent(studentId);
+
+        var rows = programmeRepository.findTranscriptRows(studentId);
+
+        return new TranscriptResponseDto().fromTranscriptRows(student, rows);
+    }
+}
@@ -3,75 +3,96 @@ package com.andreitudose.progwebjava.services;
 import com.andreitudose.progwebjava.dtos.YearOfStudyDetailedResponseDto;
 import com.andreitudose.progwebjava.dtos.YearOfStudyRequestDto;
 import com.andreitudose.progwebjava.dtos.YearOfStudyResponseDto;
+import com.andreitudose.progwebjava.events.ChangeType;
+import com.andreitudose.progwebjava.events.EntityChangePublisher;
+import com.andreitudose.progwebjava.events.EntityChangedEvent;
 import com.andreitudose.progwebjava.exceptions.BadRequestException;
 import com.andreitudose.progwebjava.exceptions.CannotDeleteException;
 import com.andreitudose.progwebjava.exceptions.DuplicateItemException;
 import com.andreitudose.progwebjava.exceptions.NotFoundException;
-import com.andreitudose.progwebjava.model.Course;
-import com.andreitudose.progwebjava.model.Programme;
-import com.andreitudose.progwebjava.model.Student;
+import com.andreitudose.progwebjava.exceptions.PreconditionFailedException;
+import com.andreitudose.progwebjava.model.GradeAggregateLevel;
 import com.andreitudose.progwebjava.model.YearOfStudy;
-import com.andreitudose.progwebjava.repositories.StudentRepository;
 import com.andreitudose.progwebjava.repositories.YearOfStudyRepository;
+import com.andreitudose.progwebjava.utils.ETagUtils;
+import com.andreitudose.progwebjava.utils.GradeSummary;
+import com.andreitudose.progwebjava.utils.ValidationGroups;
 import com.andreitudose.progwebjava.utils.ValidationUtils;
-import jakarta.validation.Validation;
 import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("app.service")
 public class YearOfStudyService {
     private final YearOfStudyRepository yearOfStudyRepository;
-    private final StudentRepository studentRepository;
-    private Validator validator;
+    private final PathResolver pathResolver;
+    private final GradeAggregateService gradeAggregateService;
+    private final Validator validator;
+    private final EntityChangePublisher entityChangePublisher;
+    private final ETagResolver eTagResolver;
 
     public YearOfStudyService(YearOfStudyRepository yearOfStudyRepository,
-                              StudentRepository studentRepository) {
+                              PathResolver pathResolver,
+                              GradeAggregateService gradeAggregateService,
+                              Validator validator,
+                              EntityChangePublisher entityChangePublisher,
+                              ETagResolver eTagResolver) {
         this.yearOfStudyRepository = yearOfStudyRepository;
-        this.studentRepository = studentRepository;
-
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        validator = factory.getValidator();
+        this.pathResolver = pathResolver;
+        this.gradeAggregateService = gradeAggregateService;
+        this.validator = validator;
+        this.entityChangePublisher = entityChangePublisher;
+        this.eTagResolver = eTagResolver;
     }
 
+    @Transactional(readOnly = true)
     public List<YearOfStudyResponseDto> getAll(Integer studentId, Integer programmeId) throws NotFoundException {
 
-        var programme = getProgrammeIfExists(studentId, programmeId);
+        var rows = yearOfStudyRepository.findRowsByPath(studentId, programmeId);
+
+        if(rows.isEmpty()) {
+            pathResolver.getProgramme(studentId, programmeId);
+        }
 
-        return programme.getYearsOfStudy().stream()
-                .map(x -> new YearOfStudyResponseDto().fromYearOfStudy(x))
+        return rows.stream()
+                .map(x -> new YearOfStudyResponseDto().fromYearOfStudyRow(x))
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public YearOfStudyDetailedResponseDto getById(Integer studentId, Integer programmeId, Integer id)
             throws NotFoundException {
 
-        var programme = getProgrammeIfExists(studentId, programmeId);
-
-        var yearOfStudy = programme.getYearsOfStudy().stream().filter(x -> x.getId().equals(id)).findFirst();
+        var yearOfStudy = yearOfStudyRepository.findDetailedByPath(studentId, programmeId, id);
 
         if(yearOfStudy.isEmpty()) {
+            pathResolver.getProgramme(studentId, programmeId);
+
             throw new NotFoundException("Year of study", "id", id.toString());
         }
 
         return new YearOfStudyDetailedResponseDto().fromYearOfStudy(yearOfStudy.get());
     }
 
+    @Transactional(readOnly = true)
+    public String getETag(Integer studentId, Integer programmeId, Integer id) throws NotFoundException {
+        return eTagResolver.getYearOfStudyETag(studentId, programmeId, id);
+    }
+
+    @Transactional
     public YearOfStudyResponseDto create(Integer studentId, Integer programmeId, YearOfStudyRequestDto request)
             throws NotFoundException, DuplicateItemException, BadRequestException {
 
-        var validationResult = validator.validate(request);
-
-        if(validationResult.size() > 0) {
-            throw new BadRequestException(ValidationUtils.getErrors(validationResult));
-        }
+        ValidationUtils.validate(validator, request, ValidationGroups.Create.class);
 
-        var programme = getProgrammeIfExists(studentId, programmeId);
+        var programme = pathResolver.getProgramme(studentId, programmeId);
 
-        if(programme.getYearsOfStudy().stream().anyMatch(x -> x.getNumber().equals(request.getNumber()))) {
+        if(yearOfStudyRepository.existsByProgrammeIdAndNumber(programmeId, request.getNumber())) {
             throw new DuplicateItemException("Year of study", "number", request.getNumber().toString());
         }
 
@@ -81,117 +102,65 @@ public class YearOfStudyService {
 
         var createdYearOfStudy = yearOfStudyRepository.save(yearOfStudy);
 
+        gradeAggregateService.create(GradeAggregateLevel.YEAR_OF_STUDY, createdYearOfStudy.getId());
+
+        entityChangePublisher.publish(EntityChangedEvent.yearOfStudy(ChangeType.CREATED, studentId, programmeId,
+                createdYearOfStudy.getId()));
+
         return new YearOfStudyResponseDto().fromYearOfStudy(createdYearOfStudy);
     }
 
-    public YearOfStudyResponseDto update(Integer studentId, Integer programmeId, Integer id, YearOfStudyRequestDto request)
-            throws NotFoundException, DuplicateItemException, BadRequestException {
-
-        var validationResult = validator.validate(request);
+    @Transactional
+    public YearOfStudyResponseDto update(Integer studentId, Integer programmeId, Integer id, YearOfStudyRequestDto request,
+                                         String ifMatch)
+            throws NotFoundException, DuplicateItemException, BadRequestException, PreconditionFailedException {
 
-        if(validationResult.size() > 0) {
-            throw new BadRequestException(ValidationUtils.getErrors(validationResult));
-        }
+        ValidationUtils.validate(validator, request, ValidationGroups.Update.class);
 
-        var programme = getProgrammeIfExists(studentId, programmeId);
+        var yearOfStudy = pathResolver.getYearOfStudy(studentId, programmeId, id);
 
-        if(programme.getYearsOfStudy().stream().anyMatch(
-                x -> !x.getId().equals(id) && x.getNumber().equals(request.getNumber()))) {
+        if(yearOfStudyRepository.existsByProgrammeIdAndNumberAndIdNot(programmeId, request.getNumber(), id)) {
             throw new DuplicateItemException("Year of study", "number", request.getNumber().toString());
         }
 
-        var yearOfStudy = programme.getYearsOfStudy().stream().filter(x -> x.getId().equals(id)).findFirst();
+        ETagUtils.checkIfMatch(ifMatch, "Year of study", id, () -> eTagResolver.of(yearOfStudy));
 
-        if(yearOfStudy.isEmpty()) {
-            throw new NotFoundException("Year of study", "id", id.toString());
-        }
+        var updatedYearOfStudy = yearOfStudyRepository.save(request.toYearOfStudy(yearOfStudy));
 
-        var updatedYearOfStudy = yearOfStudyRepository.save(request.toYearOfStudy(yearOfStudy.get()));
+        entityChangePublisher.publish(EntityChangedEvent.yearOfStudy(ChangeType.UPDATED, studentId, programmeId, id));
 
         return new YearOfStudyResponseDto().fromYearOfStudy(updatedYearOfStudy);
     }
 
-    public void delete(Integer studentId, Integer programmeId, Integer id)
-            throws NotFoundException, CannotDeleteException {
-        var programme = getProgrammeIfExists(studentId, programmeId);
+    @Transactional
+    public void delete(Integer studentId, Integer programmeId, Integer id, String ifMatch)
+            throws NotFoundException, CannotDeleteException, PreconditionFailedException {
+        var yearOfStudy = pathResolver.getYearOfStudy(studentId, programmeId, id);
 
-        var yearOfStudy = programme.getYearsOfStudy().stream().filter(x -> x.getId().equals(id)).findFirst();
+        ETagUtils.checkIfMatch(ifMatch, "Year of study", id, () -> eTagResolver.of(yearOfStudy));
 
-        if(yearOfStudy.isEmpty()) {
-            throw new NotFoundException("Year of study", "id", id.toString());
-        }
-
-        if(yearOfStudy.get().getSemesters().size() > 0) {
+        if(yearOfStudy.getSemesters().size() > 0) {
             throw new CannotDeleteException("Year of study", "id", id.toString(), "semesters");
         }
 
         yearOfStudyRepository.deleteById(id);
-    }
 
-    public Double getGradeAverage(Integer id) throws NotFoundException {
-        var yearOfStudy = yearOfStudyRepository.findById(id);
+        gradeAggregateService.delete(GradeAggregateLevel.YEAR_OF_STUDY, id);
 
-        if(yearOfStudy.isEmpty()) {
-            throw new NotFoundException("YearOfStudy", "id", id.toString());
-        }
-
-        var semesters = yearOfStudy.get().getSemesters();
-
-        List<Double> semesterAverages = semesters
-                .stream().map(semester -> {
-                    var courses = semester.getCourses();
-
-                    var totalNumberOfCredits = courses.stream()
-                            .map(Course::getNumberOfCredits)
-                            .reduce(0, Integer::sum);
-
-                    var sum = courses.stream()
-                            .map(x -> Double.valueOf(x.getGrade() * x.getNumberOfCredits()))
-                            .reduce((double) 0, Double::sum);
-
-                    return sum / totalNumberOfCredits;
-                }).toList();
-
-        return semesterAverages.stream().reduce((double)0, Double::sum) / semesters.size();
+        entityChangePublisher.publish(EntityChangedEvent.yearOfStudy(ChangeType.DELETED, studentId, programmeId, id));
     }
 
-    public Integer getTotalCredits(Integer id) throws NotFoundException {
-        var yearOfStudy = yearOfStudyRepository.findById(id);
-
-        if(yearOfStudy.isEmpty()) {
-            throw new NotFoundException("YearOfStudy", "id", id.toString());
-        }
-
-        return yearOfStudy.get().getSemesters().stream()
-                .map(semester -> semester.getCourses().stream()
-                        .filter(x -> x.getGrade() >= 5)
-                        .map(Course::getNumberOfCredits)
-                        .reduce(0, Integer::sum)
-                        )
-                .reduce(0, Integer::sum);
+    public Double getGradeAverage(Integer studentId, Integer programmeId, Integer id) throws NotFoundException {
+        return getGradeSummary(studentId, programmeId, id).getGradeAverage();
     }
 
-    private Student getStudentIfExists(Integer studentId) throws NotFoundException {
-        var student = studentRepository.findById(studentId);
-
-        if(student.isEmpty()) {
-            throw new NotFoundException("Student", "id", studentId.toString());
-        }
-
-        return student.get();
+    public Integer getTotalCredits(Integer studentId, Integer programmeId, Integer id) throws NotFoundException {
+        return getGradeSummary(studentId, programmeId, id).getPassedCredits();
     }
 
-    private Programme getProgrammeIfExists(Integer studentId, Integer programmeId) throws NotFoundException {
-
-        var student = getStudentIfExists(studentId);
-
-        var programme = student.getProgrammes().stream().filter(x -> x.getId().equals(programmeId)).findFirst();
-
-        if(programme.isEmpty()) {
-            throw new NotFoundException("Programme", "id", programmeId.toString());
-        }
-
-        return programme.get();
-
+    private GradeSummary getGradeSummary(Integer studentId, Integer programmeId, Integer id) throws NotFoundException {
+        return gradeAggregateService.getSummary(GradeAggregateLevel.YEAR_OF_STUDY, id, List.of(studentId, programmeId),
+                        () -> pathResolver.getYearOfStudy(studentId, programmeId, id))
+                .orElseThrow(() -> new NotFoundException("YearOfStudy", "id", id.toString()));
     }
 }
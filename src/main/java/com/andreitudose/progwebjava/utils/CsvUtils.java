@@ -0,0 +1,94 @@
+package com.andreitudose.progwebjava.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CsvUtils {
+
+    // Reads RFC 4180 style content: the first record is the header, fields may be quoted and quotes are escaped by doubling.
+    // Parsing stops after maxRows + 1 rows, so callers can reject oversized content without reading all of it.
+    public static List<Map<String, String>> read(String content, int maxRows) {
+        var records = parse(content, maxRows + 2);
+        var result = new ArrayList<Map<String, String>>();
+
+        if(records.isEmpty()) {
+            return result;
+        }
+
+        var header = records.get(0);
+
+        for(var record : records.subList(1, records.size())) {
+            var row = new HashMap<String, String>();
+
+            for(int i = 0; i < header.size() && i < record.size(); i++) {
+                row.put(header.get(i).trim(), record.get(i));
+            }
+
+            result.add(row);
+        }
+
+        return result;
+    }
+
+    private static List<List<String>> parse(String content, int maxRecords) {
+        var records = new ArrayList<List<String>>();
+        var record = new ArrayList<String>();
+        var field = new StringBuilder();
+        boolean quoted = false;
+
+        for(int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+
+            if(quoted) {
+                if(c == '"' && i + 1 < content.length() && content.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                }
+                else if(c == '"') {
+                    quoted = false;
+                }
+                else {
+                    field.append(c);
+                }
+            }
+            else if(c == '"') {
+                quoted = true;
+            }
+            else if(c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            }
+            else if(c == '\n' || c == '\r') {
+                if(c == '\r' && i + 1 < content.length() && content.charAt(i + 1) == '\n') {
+                    i++;
+                }
+
+                record.add(field.toString());
+                field.setLength(0);
+                addRecord(records, record);
+                record = new ArrayList<>();
+
+                if(records.size() >= maxRecords) {
+                    return records;
+                }
+            }
+            else {
+                field.append(c);
+            }
+        }
+
+        record.add(field.toString());
+        addRecord(records, record);
+
+        return records;
+    }
+
+    private static void addRecord(List<List<String>> records, List<String> record) {
+        // blank lines are skipped
+        if(record.size() > 1 || !record.get(0).isBlank()) {
+            records.add(record);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.andreitudose.progwebjava.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+public class DtoUtils {
+
+    // keeps the @OrderBy order of the entity collection, so the same entity always produces the same JSON
+    public static <S, T> List<T> toList(Collection<S> source, Function<S, T> mapper) {
+        var result = new ArrayList<T>(source.size());
+
+        for(var item : source) {
+            result.add(mapper.apply(item));
+        }
+
+        return result;
+    }
+}
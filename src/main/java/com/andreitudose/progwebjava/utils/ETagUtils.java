@@ -0,0 +1,59 @@
+package com.andreitudose.progwebjava.utils;
+
+import com.andreitudose.progwebjava.repositories.VersionRow;
+import com.andreitudose.progwebjava.exceptions.PreconditionFailedException;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.function.Supplier;
+
+/**
+ * Strong ETags built from optimistic-locking versions. A detailed representation also lists its children,
+ * whose writes don't touch the parent's version, so their ids and versions are hashed into the tag as well.
+ */
+public class ETagUtils {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    @SafeVarargs
+    public static String of(Long version, Collection<? extends VersionRow>... children) {
+        if(children.length == 0) {
+            return String.format("\"%s\"", version);
+        }
+
+        long hash = FNV_OFFSET_BASIS;
+
+        for(var collection : children) {
+            var sorted = collection.stream()
+                    .sorted(Comparator.comparing(VersionRow::getId))
+                    .toList();
+
+            for(var child : sorted) {
+                hash = (hash ^ child.getId()) * FNV_PRIME;
+                hash = (hash ^ child.getVersion()) * FNV_PRIME;
+            }
+
+            hash = (hash ^ sorted.size()) * FNV_PRIME;
+        }
+
+        return String.format("\"%s-%016x\"", version, hash);
+    }
+
+    // The current ETag is only computed when the client sent a concrete If-Match.
+    public static void checkIfMatch(String ifMatch, String entityName, Integer id, Supplier<String> currentETag)
+            throws PreconditionFailedException {
+        if(ifMatch == null || ifMatch.trim().equals("*")) {
+            return;
+        }
+
+        var eTag = currentETag.get();
+
+        for(var expectedETag : ifMatch.split(",")) {
+            if(expectedETag.trim().equals(eTag)) {
+                return;
+            }
+        }
+
+        throw new PreconditionFailedException(entityName, "id", id.toString());
+    }
+}
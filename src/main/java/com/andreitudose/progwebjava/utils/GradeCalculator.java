@@ -0,0 +1,72 @@
+package com.andreitudose.progwebjava.utils;
+
+import com.andreitudose.progwebjava.model.Course;
+
+import java.util.Collection;
+
+/**
+ * Grade arithmetic shared by the semester, year of study and programme aggregates.
+ * Courses are summed from parallel primitive arrays: {@code considered[i]} is 1 when the course type counts
+ * towards the grade average and 0 otherwise, so excluded courses drop out of the average by multiplication
+ * instead of a branch. Passed credits are counted for every course.
+ */
+public final class GradeCalculator {
+    public static final int PASSING_GRADE = 5;
+
+    private GradeCalculator() {
+    }
+
+    public static GradeTotals sum(int[] grades, int[] credits, int[] considered, int count) {
+        long weightedGradeSum = 0;
+        int averagedCredits = 0;
+        int passedCredits = 0;
+
+        for(int i = 0; i < count; i++) {
+            int countedCredits = credits[i] * considered[i];
+
+            weightedGradeSum += (long) grades[i] * countedCredits;
+            averagedCredits += countedCredits;
+            passedCredits += passedCredits(grades[i], credits[i]);
+        }
+
+        return new GradeTotals(weightedGradeSum, averagedCredits, passedCredits, count);
+    }
+
+    public static GradeTotals sum(Collection<Course> courses) {
+        int count = courses.size();
+        int[] grades = new int[count];
+        int[] credits = new int[count];
+        int[] considered = new int[count];
+
+        int i = 0;
+        for(var course : courses) {
+            grades[i] = course.getGrade();
+            credits[i] = credits(course.getNumberOfCredits());
+            considered[i] = considered(course);
+            i++;
+        }
+
+        return sum(grades, credits, considered, count);
+    }
+
+    // A level without any averaged credits has no average rather than NaN.
+    public static Double average(long weightedGradeSum, int averagedCredits) {
+        if(averagedCredits == 0) {
+            return null;
+        }
+
+        return (double) weightedGradeSum / averagedCredits;
+    }
+
+    public static int credits(Integer numberOfCredits) {
+        return numberOfCredits == null ? 0 : numberOfCredits;
+    }
+
+    public static int passedCredits(int grade, int credits) {
+        return grade >= PASSING_GRADE ? credits : 0;
+    }
+
+    public static int considered(Course course) {
+        return course.getCourseType() != null && course.getCourseType().isConsideredForGradeAverage() ? 1 : 0;
+    }
+}
@@ -0,0 +1,31 @@
+package com.andreitudose.progwebjava.utils;
+
+import java.util.List;
+
+/**
+ * The average and passed credits of one semester, year of study or programme, together with the ids of the
+ * ancestors it was resolved under (student, programme, year of study).
+ */
+public class GradeSummary {
+    private final List<Integer> path;
+    private final Double gradeAverage;
+    private final int passedCredits;
+
+    public GradeSummary(List<Integer> path, Double gradeAverage, int passedCredits) {
+        this.path = List.copyOf(path);
+        this.gradeAverage = gradeAverage;
+        this.passedCredits = passedCredits;
+    }
+
+    public List<Integer> getPath() {
+        return path;
+    }
+
+    public Double getGradeAverage() {
+        return gradeAverage;
+    }
+
+    public int getPassedCredits() {
+        return passedCredits;
+    }
+}
@@ -0,0 +1,35 @@
+package com.andreitudose.progwebjava.utils;
+
+public class GradeTotals {
+    private final long weightedGradeSum;
+    private final int averagedCredits;
+    private final int passedCredits;
+    private final int numberOfCourses;
+
+    public GradeTotals(long weightedGradeSum, int averagedCredits, int passedCredits, int numberOfCourses) {
+        this.weightedGradeSum = weightedGradeSum;
+        this.averagedCredits = averagedCredits;
+        this.passedCredits = passedCredits;
+        this.numberOfCourses = numberOfCourses;
+    }
+
+    public Double getGradeAverage() {
+        return GradeCalculator.average(weightedGradeSum, averagedCredits);
+    }
+
+    public long getWeightedGradeSum() {
+        return weightedGradeSum;
+    }
+
+    public int getAveragedCredits() {
+        return averagedCredits;
+    }
+
+    public int getPassedCredits() {
+        return passedCredits;
+    }
+
+    public int getNumberOfCourses() {
+        return numberOfCourses;
+    }
+}
@@ -1,18 +1,51 @@
 package com.andreitudose.progwebjava.utils;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Serializes through one private, default ObjectMapper, for values built outside Spring such as the
+ * messages of BadRequestException. Code serializing responses injects the application's ObjectMapper instead.
+ */
 public class SerializationUtils {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public static ObjectWriter writerFor(Class<?> type) {
+        return writers.computeIfAbsent(type, objectMapper::writerFor);
+    }
 
     public static String serialize(Object object) {
         try {
-            return new ObjectMapper().writeValueAsString(object);
+            return writerFor(object.getClass()).writeValueAsString(object);
         }
         catch(JsonProcessingException ex) {
             return null;
         }
     }
+
+    public static void serialize(Object object, OutputStream outputStream) throws IOException {
+        var writer = writerFor(object.getClass());
+
+        try(var generator = createGenerator(writer, outputStream)) {
+            writer.writeValue(generator, object);
+        }
+    }
+
+    // leaves the stream open and writes no separators, so callers can stream one value per line
+    public static JsonGenerator createGenerator(ObjectWriter writer, OutputStream outputStream) throws IOException {
+        var generator = writer.createGenerator(outputStream);
+
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        return generator;
+    }
 }
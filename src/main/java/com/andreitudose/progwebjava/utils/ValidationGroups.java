@@ -0,0 +1,16 @@
+package com.andreitudose.progwebjava.utils;
+
+import jakarta.validation.groups.Default;
+
+public final class ValidationGroups {
+
+    public interface Create extends Default {
+    }
+
+    public interface Update extends Default {
+    }
+
+    private ValidationGroups() {
+    }
+
+}
@@ -1,6 +1,8 @@
 package com.andreitudose.progwebjava.utils;
 
+import com.andreitudose.progwebjava.exceptions.BadRequestException;
 import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 
 import java.util.Map;
 import java.util.Set;
@@ -8,6 +10,14 @@ import java.util.stream.Collectors;
 
 public class ValidationUtils {
 
+    public static <T> void validate(Validator validator, T request, Class<?> group) throws BadRequestException {
+        var validationResult = validator.validate(request, group);
+
+        if(validationResult.size() > 0) {
+            throw new BadRequestException(getErrors(validationResult));
+        }
+    }
+
     public static <T> Map<String, String> getErrors(Set<ConstraintViolation<T>> validationResult) {
         return validationResult.stream()
             .collect(Collectors.toMap(x -> x.getPropertyPath().toString(),
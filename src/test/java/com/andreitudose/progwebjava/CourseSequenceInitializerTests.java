@@ -0,0 +1,60 @@
+package com.andreitudose.progwebjava;
+
+import com.andreitudose.progwebjava.config.CourseSequenceInitializer;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+public class CourseSequenceInitializerTests {
+
+    private JdbcTemplate jdbcTemplateMock;
+    private CourseSequenceInitializer courseSequenceInitializer;
+
+    @BeforeEach
+    void init() {
+        jdbcTemplateMock = mock(JdbcTemplate.class);
+        courseSequenceInitializer = new CourseSequenceInitializer(jdbcTemplateMock, mock(EntityManagerFactory.class));
+    }
+
+    @Test
+    void mysqlSequenceTableIsMovedPastExistingIds() {
+
+        when(jdbcTemplateMock.queryForObject(anyString(), eq(Long.class))).thenReturn(1234L);
+        when(jdbcTemplateMock.execute(any(ConnectionCallback.class))).thenReturn("MySQL");
+
+        courseSequenceInitializer.afterSingletonsInstantiated();
+
+        verify(jdbcTemplateMock, times(1))
+                .update("update courses_seq set next_val = ? where next_val < ?", 1284L, 1284L);
+    }
+
+    @Test
+    void sequenceIsRestartedPastExistingIds() {
+
+        when(jdbcTemplateMock.queryForObject(anyString(), eq(Long.class))).thenReturn(1234L);
+        when(jdbcTemplateMock.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        courseSequenceInitializer.afterSingletonsInstantiated();
+
+        verify(jdbcTemplateMock, times(1)).execute("alter sequence courses_seq restart with 1284");
+    }
+
+    @Test
+    void sequenceOfEmptyDatabaseIsLeftAlone() {
+
+        when(jdbcTemplateMock.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
+        when(jdbcTemplateMock.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        courseSequenceInitializer.afterSingletonsInstantiated();
+
+        verify(jdbcTemplateMock, never()).execute(anyString());
+        verify(jdbcTemplateMock, never()).update(anyString(), any(Object[].class));
+    }
+}
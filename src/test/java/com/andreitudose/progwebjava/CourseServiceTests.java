@@ -0,0 +1,175 @@
+package com.andreitudose.progwebjava;
+
+import com.andreitudose.progwebjava.dtos.CourseBulkImportResponseDto;
+import com.andreitudose.progwebjava.dtos.CourseRequestDto;
+import com.andreitudose.progwebjava.events.ChangeType;
+import com.andreitudose.progwebjava.events.EntityChangePublisher;
+import com.andreitudose.progwebjava.events.EntityKind;
+import com.andreitudose.progwebjava.exceptions.BadRequestException;
+import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.exceptions.PreconditionFailedException;
+import com.andreitudose.progwebjava.model.Course;
+import com.andreitudose.progwebjava.model.CourseType;
+import com.andreitudose.progwebjava.model.Semester;
+import com.andreitudose.progwebjava.repositories.*;
+import com.andreitudose.progwebjava.services.CourseService;
+import com.andreitudose.progwebjava.services.ETagResolver;
+import com.andreitudose.progwebjava.services.GradeAggregateService;
+import com.andreitudose.progwebjava.services.PathResolver;
+import com.andreitudose.progwebjava.utils.SerializationUtils;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+public class CourseServiceTests {
+
+    @Autowired
+    private Validator validator;
+
+    private SemesterRepository semesterRepositoryMock;
+    private CourseRepository courseRepositoryMock;
+    private CourseTypeRepository courseTypeRepositoryMock;
+    private GradeAggregateService gradeAggregateServiceMock;
+    private EntityChangePublisher entityChangePublisherMock;
+    private CourseService courseService;
+
+    @BeforeEach
+    void init() {
+        semesterRepositoryMock = mock(SemesterRepository.class);
+        courseRepositoryMock = mock(CourseRepository.class);
+        courseTypeRepositoryMock = mock(CourseTypeRepository.class);
+        gradeAggregateServiceMock = mock(GradeAggregateService.class);
+        entityChangePublisherMock = mock(EntityChangePublisher.class);
+        var pathResolver = new PathResolver(mock(StudentRepository.class),
+                                            mock(ProgrammeRepository.class),
+                                            mock(YearOfStudyRepository.class),
+                                            semesterRepositoryMock);
+        courseService = new CourseService(courseRepositoryMock,
+                                          courseTypeRepositoryMock,
+                                          pathResolver,
+                                          gradeAggregateServiceMock,
+                                          validator,
+                                          entityChangePublisherMock,
+                                          mock(ETagResolver.class));
+
+        when(semesterRepositoryMock.findByPath(1, 2, 3, 4)).thenReturn(Optional.of(new Semester() {{
+            setId(4);
+        }}));
+        when(courseTypeRepositoryMock.findAllByProgrammeId(2)).thenReturn(List.of(new CourseType() {{
+            setId(5);
+        }}));
+    }
+
+    @Test
+    void coursesCreateAll() throws NotFoundException, BadRequestException {
+
+        var valid = new CourseRequestDto() {{
+            setName("Course1");
+            setCourseTypeId(5);
+            setNumberOfCredits(6);
+            setGrade(9);
+        }};
+        var unknownCourseType = new CourseRequestDto() {{
+            setName("Course2");
+            setCourseTypeId(7);
+            setNumberOfCredits(4);
+            setGrade(8);
+        }};
+
+        CourseBulkImportResponseDto response = courseService.createAll(1, 2, 3, 4,
+                List.of(valid, unknownCourseType));
+
+        assertEquals(1, response.getCreated());
+        assertEquals(1, response.getErrors().size());
+        assertEquals(2, response.getErrors().get(0).getRow());
+        assertTrue(response.getErrors().get(0).getErrors().containsKey("courseTypeId"));
+
+        verify(courseRepositoryMock, times(1)).saveAll(argThat(x -> ((Collection<Course>) x).size() == 1));
+        verify(gradeAggregateServiceMock, times(1)).coursesAdded(eq(2), eq(3), eq(4), anyCollection());
+        verify(entityChangePublisherMock, times(1)).publish(argThat(x -> x.getKind() == EntityKind.COURSE
+                && x.getType() == ChangeType.CREATED && x.getSemesterId() == 4 && x.getProgrammeId() == 2));
+    }
+
+    @Test
+    void coursesCourseTypeRequiredOnCreateOnly() throws NotFoundException, BadRequestException, PreconditionFailedException {
+
+        var request = new CourseRequestDto() {{
+            setName("Course1");
+            setNumberOfCredits(6);
+            setGrade(9);
+        }};
+        var course = new Course() {{
+            setId(6);
+            setCourseType(new CourseType());
+        }};
+
+        when(courseRepositoryMock.findByIdAndSemesterId(6, 4)).thenReturn(Optional.of(course));
+        when(courseRepositoryMock.save(course)).thenReturn(course);
+
+        var exception = assertThrows(BadRequestException.class, () -> courseService.create(1, 2, 3, 4, request));
+        assertTrue(exception.getMessage().contains("courseTypeId"));
+
+        var response = courseService.update(1, 2, 3, 4, 6, request, null);
+
+        assertEquals("Course1", response.getName());
+        verify(entityChangePublisherMock, times(1)).publish(argThat(x -> x.getKind() == EntityKind.COURSE
+                && x.getType() == ChangeType.UPDATED && x.getEntityId() == 6 && x.getYearOfStudyId() == 3));
+    }
+
+    @Test
+    void coursesGetByIdNotFound() {
+
+        when(courseRepositoryMock.findByIdAndSemesterId(6, 4)).thenReturn(Optional.empty());
+
+        var exception = assertThrows(NotFoundException.class, () -> courseService.getById(1, 2, 3, 4, 6));
+
+        assertEquals("Course with id = 6 not found", exception.getMessage());
+    }
+
+    @Test
+    void coursesCreateAllFromCsv() throws NotFoundException, BadRequestException {
+
+        var csv = "name,courseTypeId,numberOfCredits,grade\r\n" +
+                  "\"Algebra, part 1\",5,6,10\r\n" +
+                  "Geometry,5,four,7\r\n";
+
+        CourseBulkImportResponseDto response = courseService.createAllFromCsv(1, 2, 3, 4, csv);
+
+        assertEquals(1, response.getCreated());
+        assertEquals(1, response.getErrors().size());
+        assertEquals(2, response.getErrors().get(0).getRow());
+        assertEquals("must be a number", response.getErrors().get(0).getErrors().get("numberOfCredits"));
+    }
+
+    @Test
+    void coursesCreateAllFromCsvTooLarge() {
+
+        var csv = "name,courseTypeId,numberOfCredits,grade\n" + "Algebra,5,6,10\n".repeat(10001);
+
+        var exception = assertThrows(BadRequestException.class,
+                () -> courseService.createAllFromCsv(1, 2, 3, 4, csv));
+
+        assertEquals(SerializationUtils.serialize(Map.of("courses", "at most 10000 courses can be imported at once")),
+                     exception.getMessage());
+        verify(semesterRepositoryMock, never()).findByPath(any(), any(), any(), any());
+    }
+
+    @Test
+    void coursesCreateAllSemesterNotFound() {
+
+        when(semesterRepositoryMock.findByPath(1, 2, 3, 5)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> courseService.createAll(1, 2, 3, 5, List.of()));
+
+        verify(courseRepositoryMock, never()).saveAll(any());
+    }
+}
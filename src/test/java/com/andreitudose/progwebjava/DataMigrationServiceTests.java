@@ -0,0 +1,76 @@
+package com.andreitudose.progwebjava;
+
+import com.andreitudose.progwebjava.dtos.CourseTypeRequestDto;
+import com.andreitudose.progwebjava.model.CourseType;
+import com.andreitudose.progwebjava.model.DataMigration;
+import com.andreitudose.progwebjava.repositories.CourseTypeRepository;
+import com.andreitudose.progwebjava.repositories.DataMigrationRepository;
+import com.andreitudose.progwebjava.repositories.GradeAggregateRepository;
+import com.andreitudose.progwebjava.repositories.StudentRepository;
+import com.andreitudose.progwebjava.services.DataMigrationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+public class DataMigrationServiceTests {
+
+    private DataMigrationRepository dataMigrationRepositoryMock;
+    private CourseTypeRepository courseTypeRepositoryMock;
+    private GradeAggregateRepository gradeAggregateRepositoryMock;
+    private StudentRepository studentRepositoryMock;
+    private DataMigrationService dataMigrationService;
+
+    @BeforeEach
+    void init() {
+        dataMigrationRepositoryMock = mock(DataMigrationRepository.class);
+        courseTypeRepositoryMock = mock(CourseTypeRepository.class);
+        gradeAggregateRepositoryMock = mock(GradeAggregateRepository.class);
+        studentRepositoryMock = mock(StudentRepository.class);
+        dataMigrationService = new DataMigrationService(dataMigrationRepositoryMock,
+                                                        courseTypeRepositoryMock,
+                                                        gradeAggregateRepositoryMock,
+                                                        studentRepositoryMock);
+    }
+
+    @Test
+    void migrationsAreAppliedOnce() {
+
+        dataMigrationService.migrate();
+
+        verify(courseTypeRepositoryMock, times(1)).considerAllForGradeAverage();
+        verify(gradeAggregateRepositoryMock, times(1)).deleteAllInBatch();
+        verify(studentRepositoryMock, times(1)).fillSearchColumns();
+        verify(dataMigrationRepositoryMock, times(1)).save(argThat((DataMigration x) ->
+                x.getName().equals(DataMigrationService.CONSIDER_COURSE_TYPES) && x.getAppliedAt() != null));
+        verify(dataMigrationRepositoryMock, times(1)).save(argThat((DataMigration x) ->
+                x.getName().equals(DataMigrationService.FILL_STUDENT_SEARCH_COLUMNS)));
+
+        when(dataMigrationRepositoryMock.existsById(any())).thenReturn(true);
+
+        dataMigrationService.migrate();
+
+        verify(courseTypeRepositoryMock, times(1)).considerAllForGradeAverage();
+        verify(studentRepositoryMock, times(1)).fillSearchColumns();
+        verify(dataMigrationRepositoryMock, times(2)).save(any());
+    }
+
+    @Test
+    void courseTypeIsConsideredUnlessTheRequestSaysOtherwise() {
+
+        var request = new CourseTypeRequestDto();
+        request.setName("Obligatoriu");
+
+        assertTrue(request.toCourseType(new CourseType()).isConsideredForGradeAverage());
+
+        request.setConsideredForGradeAverage(false);
+
+        assertFalse(request.toCourseType(new CourseType()).isConsideredForGradeAverage());
+    }
+}
@@ -0,0 +1,114 @@
+package com.andreitudose.progwebjava;
+
+import com.andreitudose.progwebjava.events.ChangeType;
+import com.andreitudose.progwebjava.events.EntityChangeBatch;
+import com.andreitudose.progwebjava.events.EntityChangePublisher;
+import com.andreitudose.progwebjava.events.EntityChangedEvent;
+import com.andreitudose.progwebjava.events.EntityKind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+public class EntityChangePublisherTests {
+
+    private ApplicationEventPublisher applicationEventPublisherMock;
+    private EntityChangePublisher entityChangePublisher;
+
+    @BeforeEach
+    void init() {
+        applicationEventPublisherMock = mock(ApplicationEventPublisher.class);
+        entityChangePublisher = new EntityChangePublisher(applicationEventPublisherMock);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void publishesImmediatelyOutsideTransaction() {
+
+        entityChangePublisher.publish(EntityChangedEvent.programme(ChangeType.UPDATED, 1, 2));
+
+        verify(applicationEventPublisherMock, times(1)).publishEvent(any(EntityChangeBatch.class));
+    }
+
+    @Test
+    void listenerFailureOutsideTransactionIsNotThrown() {
+
+        doThrow(new IllegalStateException()).when(applicationEventPublisherMock).publishEvent(any());
+
+        assertDoesNotThrow(() -> entityChangePublisher.publish(EntityChangedEvent.student(ChangeType.CREATED, 1)));
+    }
+
+    @Test
+    void publishesOneBatchOnCommit() {
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        entityChangePublisher.publish(EntityChangedEvent.course(ChangeType.CREATED, 1, 2, 3, 4, 5));
+        entityChangePublisher.publish(EntityChangedEvent.course(ChangeType.CREATED, 1, 2, 3, 4, 6));
+
+        verify(applicationEventPublisherMock, never()).publishEvent(any());
+
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(x -> x.beforeCommit(false));
+
+        verify(applicationEventPublisherMock, times(1)).publishEvent(argThat((Object x) ->
+                x instanceof EntityChangeBatch batch && batch.getEvents().size() == 2
+                        && batch.getEvents().get(1).getEntityId() == 6));
+        assertEquals(1, synchronizations.size());
+    }
+
+    @Test
+    void innerTransactionHasItsOwnBatch() {
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        entityChangePublisher.publish(EntityChangedEvent.programme(ChangeType.UPDATED, 1, 2));
+
+        // a REQUIRES_NEW transaction suspends the synchronizations of the outer one, then rolls back
+        var outer = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+
+        entityChangePublisher.publish(EntityChangedEvent.course(ChangeType.DELETED, 1, 2, 3, 4, 5));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(x -> x.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        outer.forEach(TransactionSynchronizationManager::registerSynchronization);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(x -> x.beforeCommit(false));
+
+        verify(applicationEventPublisherMock, times(1)).publishEvent(argThat((Object x) ->
+                x instanceof EntityChangeBatch batch && batch.getEvents().size() == 1
+                        && batch.getEvents().get(0).getKind() == EntityKind.PROGRAMME));
+    }
+
+    @Test
+    void publishesNothingOnRollback() {
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        entityChangePublisher.publish(EntityChangedEvent.semester(ChangeType.DELETED, 1, 2, 3, 4));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(x -> x.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(applicationEventPublisherMock, never()).publishEvent(any());
+    }
+}
@@ -0,0 +1,228 @@
+package com.andreitudose.progwebjava;
+
+import com.andreitudose.progwebjava.events.ChangeType;
+import com.andreitudose.progwebjava.events.EntityChangeBatch;
+import com.andreitudose.progwebjava.events.EntityChangedEvent;
+import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.model.GradeAggregate;
+import com.andreitudose.progwebjava.model.GradeAggregateLevel;
+import com.andreitudose.progwebjava.model.Programme;
+import com.andreitudose.progwebjava.repositories.CourseRepository;
+import com.andreitudose.progwebjava.repositories.GradeAggregateRepository;
+import com.andreitudose.progwebjava.repositories.GradeTotalsRow;
+import com.andreitudose.progwebjava.repositories.ProgrammeRepository;
+import com.andreitudose.progwebjava.repositories.SemesterRepository;
+import com.andreitudose.progwebjava.repositories.YearOfStudyRepository;
+import com.andreitudose.progwebjava.services.GradeAggregateService;
+import com.andreitudose.progwebjava.services.GradeSummaryCache;
+import com.andreitudose.progwebjava.utils.GradeCalculator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+public class GradeAggregateServiceTests {
+
+    private GradeAggregateRepository gradeAggregateRepositoryMock;
+    private CourseRepository courseRepositoryMock;
+    private YearOfStudyRepository yearOfStudyRepositoryMock;
+    private SemesterRepository semesterRepositoryMock;
+    private GradeSummaryCache gradeSummaryCache;
+    private GradeAggregateService gradeAggregateService;
+
+    @BeforeEach
+    void init() {
+        gradeAggregateRepositoryMock = mock(GradeAggregateRepository.class);
+        courseRepositoryMock = mock(CourseRepository.class);
+        yearOfStudyRepositoryMock = mock(YearOfStudyRepository.class);
+        semesterRepositoryMock = mock(SemesterRepository.class);
+        gradeSummaryCache = new GradeSummaryCache(Duration.ofMinutes(1), 100);
+        gradeAggregateService = new GradeAggregateService(gradeAggregateRepositoryMock,
+                                                          courseRepositoryMock,
+                                                          mock(ProgrammeRepository.class),
+                                                          yearOfStudyRepositoryMock,
+                                                          semesterRepositoryMock,
+                                                          gradeSummaryCache);
+    }
+
+    @Test
+    void courseAddedAppliesPositiveDelta() {
+
+        gradeAggregateService.courseAdded(1, 2, 3, 8, 5, true);
+
+        verifyDelta(40L, 5, 5, 1);
+    }
+
+    @Test
+    void courseRemovedAppliesNegativeDelta() {
+
+        gradeAggregateService.courseRemoved(1, 2, 3, 4, 6, true);
+
+        verifyDelta(-24L, -6, 0, -1);
+    }
+
+    @Test
+    void courseUpdatedAppliesDifference() {
+
+        gradeAggregateService.courseUpdated(1, 2, 3, true, 4, 6, 9, 5);
+
+        verifyDelta(45L - 24L, -1, 5, 0);
+    }
+
+    @Test
+    void courseAddedExcludedFromAverageOnlyCountsPassedCredits() {
+
+        gradeAggregateService.courseAdded(1, 2, 3, 8, 5, false);
+
+        verifyDelta(0L, 0, 5, 1);
+    }
+
+    @Test
+    void rebuildProgrammeUsesIdQueries() {
+
+        var programme = mock(Programme.class);
+        when(programme.getId()).thenReturn(1);
+        when(yearOfStudyRepositoryMock.findIdsByProgrammeIdIn(List.of(1))).thenReturn(List.of(2));
+        when(semesterRepositoryMock.findIdsByProgrammeIdIn(List.of(1))).thenReturn(List.of(3));
+
+        gradeAggregateService.rebuild(programme);
+
+        verify(programme, never()).getYearsOfStudy();
+        verify(gradeAggregateRepositoryMock).findByLevelAndEntityIdIn(GradeAggregateLevel.YEAR_OF_STUDY, List.of(2));
+        verify(gradeAggregateRepositoryMock).findByLevelAndEntityIdIn(GradeAggregateLevel.SEMESTER, List.of(3));
+    }
+
+    @Test
+    void sumSkipsCourseTypesExcludedFromAverage() {
+
+        var totals = GradeCalculator.sum(new int[] { 10, 4, 6 }, new int[] { 5, 6, 3 }, new int[] { 1, 1, 0 }, 3);
+
+        assertEquals(50L + 24L, totals.getWeightedGradeSum());
+        assertEquals(11, totals.getAveragedCredits());
+        assertEquals(8, totals.getPassedCredits());
+        assertEquals(3, totals.getNumberOfCourses());
+        assertEquals(74.0 / 11, totals.getGradeAverage());
+    }
+
+    @Test
+    void gradeAverageOfEmptySemesterIsNull() {
+
+        assertNull(GradeAggregateService.getGradeAverage(new GradeAggregate()));
+    }
+
+    @Test
+    void materializeMissingSavesDatabaseSums() {
+
+        var row = mock(GradeTotalsRow.class);
+        when(row.getEntityId()).thenReturn(4);
+        when(row.getWeightedGradeSum()).thenReturn(74L);
+        when(row.getAveragedCredits()).thenReturn(11L);
+        when(row.getPassedCredits()).thenReturn(8L);
+        when(row.getNumberOfCourses()).thenReturn(3L);
+
+        when(semesterRepositoryMock.findIdsWithoutGradeAggregate()).thenReturn(List.of(4));
+        when(courseRepositoryMock.sumGradesBySemester(List.of(4))).thenReturn(List.of(row));
+
+        gradeAggregateService.materializeMissing();
+
+        verify(gradeAggregateRepositoryMock, times(1)).saveAll(argThat(aggregates -> {
+            var aggregate = aggregates.iterator().next();
+            return aggregate.getLevel() == GradeAggregateLevel.SEMESTER && aggregate.getEntityId() == 4
+                    && aggregate.getWeightedGradeSum() == 74L && aggregate.getTotalCredits() == 11
+                    && aggregate.getPassedCredits() == 8 && aggregate.getNumberOfCourses() == 3;
+        }));
+        verify(courseRepositoryMock, times(0)).findAll();
+    }
+
+    @Test
+    void rebuildLocksAggregatesBeforeSumming() {
+
+        when(yearOfStudyRepositoryMock.findIdsByProgrammeIdIn(List.of(1))).thenReturn(List.of(2));
+        when(semesterRepositoryMock.findIdsByProgrammeIdIn(List.of(1))).thenReturn(List.of(4, 3));
+
+        gradeAggregateService.rebuildProgrammes(List.of(1));
+
+        var inOrder = inOrder(gradeAggregateRepositoryMock, courseRepositoryMock);
+        inOrder.verify(gradeAggregateRepositoryMock).findByLevelAndEntityIdIn(GradeAggregateLevel.PROGRAMME, List.of(1));
+        inOrder.verify(gradeAggregateRepositoryMock).findByLevelAndEntityIdIn(GradeAggregateLevel.SEMESTER, List.of(3, 4));
+        inOrder.verify(gradeAggregateRepositoryMock).findByLevelAndEntityIdIn(GradeAggregateLevel.YEAR_OF_STUDY, List.of(2));
+        inOrder.verify(courseRepositoryMock).sumGradesBySemester(List.of(4, 3));
+    }
+
+    @Test
+    void summaryIsCachedUntilACourseChanges() throws NotFoundException {
+
+        when(gradeAggregateRepositoryMock.findByLevelAndEntityId(GradeAggregateLevel.SEMESTER, 3))
+                .thenReturn(Optional.of(new GradeAggregate() {{
+                    setWeightedGradeSum(40);
+                    setTotalCredits(5);
+                    setPassedCredits(5);
+                }}));
+        var pathCheck = mock(GradeAggregateService.PathCheck.class);
+
+        var first = gradeAggregateService.getSummary(GradeAggregateLevel.SEMESTER, 3, List.of(1, 2, 4), pathCheck);
+        var second = gradeAggregateService.getSummary(GradeAggregateLevel.SEMESTER, 3, List.of(1, 2, 4), pathCheck);
+
+        assertEquals(8.0, first.get().getGradeAverage());
+        assertEquals(5, second.get().getPassedCredits());
+        verify(pathCheck, times(1)).run();
+        verify(gradeAggregateRepositoryMock, times(1)).findByLevelAndEntityId(GradeAggregateLevel.SEMESTER, 3);
+
+        gradeSummaryCache.onEntityChanges(new EntityChangeBatch(List.of(
+                EntityChangedEvent.course(ChangeType.CREATED, 1, 2, 4, 3, 10))));
+        gradeAggregateService.getSummary(GradeAggregateLevel.SEMESTER, 3, List.of(1, 2, 4), pathCheck);
+
+        verify(pathCheck, times(2)).run();
+        verify(gradeAggregateRepositoryMock, times(2)).findByLevelAndEntityId(GradeAggregateLevel.SEMESTER, 3);
+    }
+
+    @Test
+    void summaryLoadedBeforeAnEvictionIsNotCached() throws NotFoundException {
+
+        when(gradeAggregateRepositoryMock.findByLevelAndEntityId(GradeAggregateLevel.SEMESTER, 3)).thenAnswer(x -> {
+            // a course write commits while the summary is being loaded
+            gradeSummaryCache.onEntityChanges(new EntityChangeBatch(List.of(
+                    EntityChangedEvent.course(ChangeType.UPDATED, 1, 2, 4, 3, 10))));
+            return Optional.of(new GradeAggregate());
+        });
+
+        gradeAggregateService.getSummary(GradeAggregateLevel.SEMESTER, 3, List.of(1, 2, 4), () -> {});
+
+        assertNull(gradeSummaryCache.get(GradeAggregateLevel.SEMESTER, 3));
+    }
+
+    @Test
+    void cachedSummaryIsNotReturnedUnderAnotherPath() throws NotFoundException {
+
+        when(gradeAggregateRepositoryMock.findByLevelAndEntityId(GradeAggregateLevel.PROGRAMME, 2))
+                .thenReturn(Optional.of(new GradeAggregate()));
+
+        gradeAggregateService.getSummary(GradeAggregateLevel.PROGRAMME, 2, List.of(1), () -> {});
+
+        assertThrows(NotFoundException.class, () -> {
+            gradeAggregateService.getSummary(GradeAggregateLevel.PROGRAMME, 2, List.of(5), () -> {
+                throw new NotFoundException("Programme", "id", "2");
+            });
+        });
+    }
+
+    // programme (1), semester (3), year of study (2): the order the rebuild locks the rows in
+    private void verifyDelta(long weightedGradeSum, int totalCredits, int passedCredits, int numberOfCourses) {
+        var inOrder = inOrder(gradeAggregateRepositoryMock);
+        inOrder.verify(gradeAggregateRepositoryMock).applyDelta(GradeAggregateLevel.PROGRAMME, 1,
+                weightedGradeSum, totalCredits, passedCredits, numberOfCourses);
+        inOrder.verify(gradeAggregateRepositoryMock).applyDelta(GradeAggregateLevel.SEMESTER, 3,
+                weightedGradeSum, totalCredits, passedCredits, numberOfCourses);
+        inOrder.verify(gradeAggregateRepositoryMock).applyDelta(GradeAggregateLevel.YEAR_OF_STUDY, 2,
+                weightedGradeSum, totalCredits, passedCredits, numberOfCourses);
+    }
+}
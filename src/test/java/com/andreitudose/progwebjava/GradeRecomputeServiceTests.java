@@ -0,0 +1,80 @@
+package com.andreitudose.progwebjava;
+
+import com.andreitudose.progwebjava.dtos.GradeRecomputeStatusDto;
+import com.andreitudose.progwebjava.repositories.ProgrammeRepository;
+import com.andreitudose.progwebjava.services.GradeAggregateService;
+import com.andreitudose.progwebjava.services.GradeRecomputeService;
+import com.andreitudose.progwebjava.services.GradeSummaryCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+public class GradeRecomputeServiceTests {
+
+    private GradeAggregateService gradeAggregateServiceMock;
+    private ProgrammeRepository programmeRepositoryMock;
+    private GradeRecomputeService gradeRecomputeService;
+
+    @BeforeEach
+    void init() {
+        gradeAggregateServiceMock = mock(GradeAggregateService.class);
+        programmeRepositoryMock = mock(ProgrammeRepository.class);
+        gradeRecomputeService = new GradeRecomputeService(gradeAggregateServiceMock,
+                                                          programmeRepositoryMock,
+                                                          mock(GradeSummaryCache.class),
+                                                          2,
+                                                          100);
+
+        when(programmeRepositoryMock.findAllIds()).thenReturn(IntStream.rangeClosed(1, 250).boxed().toList());
+    }
+
+    @Test
+    void recomputeRebuildsEveryChunk() throws InterruptedException {
+
+        gradeRecomputeService.start();
+
+        var status = awaitCompletion();
+
+        assertEquals(GradeRecomputeStatusDto.State.COMPLETED, status.getState());
+        assertEquals(250, status.getTotalProgrammes());
+        assertEquals(250, status.getProcessedProgrammes());
+        verify(gradeAggregateServiceMock, times(3)).rebuildProgrammes(anyList());
+        verify(gradeAggregateServiceMock, times(1)).rebuildProgrammes(argThat(x -> x.size() == 50 && x.get(0) == 201));
+    }
+
+    @Test
+    void recomputeReportsFailedChunks() throws InterruptedException {
+
+        doThrow(new IllegalStateException("deadlock")).when(gradeAggregateServiceMock)
+                .rebuildProgrammes(argThat(x -> x.get(0) == 101));
+
+        gradeRecomputeService.start();
+
+        var status = awaitCompletion();
+
+        assertEquals(GradeRecomputeStatusDto.State.FAILED, status.getState());
+        assertEquals(150, status.getProcessedProgrammes());
+        assertEquals(1, status.getFailedChunks());
+        assertEquals("deadlock", status.getLastError());
+    }
+
+    private GradeRecomputeStatusDto awaitCompletion() throws InterruptedException {
+        for(int i = 0; i < 100; i++) {
+            if(gradeRecomputeService.getStatus().getState() != GradeRecomputeStatusDto.State.RUNNING) {
+                break;
+            }
+
+            Thread.sleep(50);
+        }
+
+        return gradeRecomputeService.getStatus();
+    }
+}
@@ -0,0 +1,107 @@
+package com.andreitudose.progwebjava;
+
+import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.model.Programme;
+import com.andreitudose.progwebjava.model.Semester;
+import com.andreitudose.progwebjava.model.YearOfStudy;
+import com.andreitudose.progwebjava.repositories.ProgrammeRepository;
+import com.andreitudose.progwebjava.repositories.SemesterRepository;
+import com.andreitudose.progwebjava.repositories.StudentRepository;
+import com.andreitudose.progwebjava.repositories.YearOfStudyRepository;
+import com.andreitudose.progwebjava.services.PathResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+public class PathResolverTests {
+
+    private StudentRepository studentRepositoryMock;
+    private ProgrammeRepository programmeRepositoryMock;
+    private YearOfStudyRepository yearOfStudyRepositoryMock;
+    private SemesterRepository semesterRepositoryMock;
+    private PathResolver pathResolver;
+
+    @BeforeEach
+    void init() {
+        studentRepositoryMock = mock(StudentRepository.class);
+        programmeRepositoryMock = mock(ProgrammeRepository.class);
+        yearOfStudyRepositoryMock = mock(YearOfStudyRepository.class);
+        semesterRepositoryMock = mock(SemesterRepository.class);
+        pathResolver = new PathResolver(studentRepositoryMock,
+                                        programmeRepositoryMock,
+                                        yearOfStudyRepositoryMock,
+                                        semesterRepositoryMock);
+    }
+
+    @Test
+    void semesterResolvedWithSingleQuery() throws NotFoundException {
+
+        var semester = new Semester() {{
+            setId(4);
+            setNumber(1);
+        }};
+
+        when(semesterRepositoryMock.findByPath(1, 2, 3, 4)).thenReturn(Optional.of(semester));
+
+        var response = pathResolver.getSemester(1, 2, 3, 4);
+
+        assertSame(semester, response);
+        verifyNoInteractions(studentRepositoryMock, programmeRepositoryMock, yearOfStudyRepositoryMock);
+    }
+
+    @Test
+    void semesterNotFound() {
+
+        when(semesterRepositoryMock.findByPath(1, 2, 3, 4)).thenReturn(Optional.empty());
+        when(yearOfStudyRepositoryMock.findByPath(1, 2, 3)).thenReturn(Optional.of(new YearOfStudy()));
+
+        var exception = assertThrows(NotFoundException.class, () -> {
+            pathResolver.getSemester(1, 2, 3, 4);
+        });
+
+        var expectedMessage = String.format("%s with %s = %s not found",
+                "Semester", "id", 4);
+
+        assertEquals(expectedMessage, exception.getMessage());
+    }
+
+    @Test
+    void semesterNotFoundReportsMissingAncestor() {
+
+        when(semesterRepositoryMock.findByPath(any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(yearOfStudyRepositoryMock.findByPath(any(), any(), any())).thenReturn(Optional.empty());
+        when(programmeRepositoryMock.findCachedByIdOwnedByStudent(2, 1)).thenReturn(Optional.of(new Programme()));
+
+        var exception = assertThrows(NotFoundException.class, () -> {
+            pathResolver.getSemester(1, 2, 3, 4);
+        });
+
+        var expectedMessage = String.format("%s with %s = %s not found",
+                "Year of study", "id", 3);
+
+        assertEquals(expectedMessage, exception.getMessage());
+    }
+
+    @Test
+    void programmeNotFoundForMissingStudent() {
+
+        when(programmeRepositoryMock.findCachedByIdOwnedByStudent(any(), any())).thenReturn(Optional.empty());
+        when(studentRepositoryMock.existsById(1)).thenReturn(false);
+
+        var exception = assertThrows(NotFoundException.class, () -> {
+            pathResolver.getProgramme(1, 2);
+        });
+
+        var expectedMessage = String.format("%s with %s = %s not found",
+                "Student", "id", 1);
+
+        assertEquals(expectedMessage, exception.getMessage());
+    }
+}
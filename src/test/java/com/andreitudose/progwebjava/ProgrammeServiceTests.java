@@ -1,20 +1,35 @@
 package com.andreitudose.progwebjava;
 
 import com.andreitudose.progwebjava.dtos.*;
+import com.andreitudose.progwebjava.events.EntityChangePublisher;
 import com.andreitudose.progwebjava.exceptions.BadRequestException;
 import com.andreitudose.progwebjava.exceptions.CannotDeleteException;
 import com.andreitudose.progwebjava.exceptions.DuplicateItemException;
 import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.exceptions.PreconditionFailedException;
+import com.andreitudose.progwebjava.model.GradeAggregateLevel;
 import com.andreitudose.progwebjava.model.Programme;
 import com.andreitudose.progwebjava.model.Student;
 import com.andreitudose.progwebjava.model.YearOfStudy;
+import com.andreitudose.progwebjava.repositories.CourseRepository;
+import com.andreitudose.progwebjava.repositories.CourseTypeRepository;
 import com.andreitudose.progwebjava.repositories.ProgrammeRepository;
+import com.andreitudose.progwebjava.repositories.ProgrammeRow;
+import com.andreitudose.progwebjava.repositories.SemesterRepository;
 import com.andreitudose.progwebjava.repositories.StudentRepository;
+import com.andreitudose.progwebjava.repositories.VersionRow;
+import com.andreitudose.progwebjava.repositories.YearOfStudyRepository;
+import com.andreitudose.progwebjava.services.ETagResolver;
+import com.andreitudose.progwebjava.services.GradeAggregateService;
+import com.andreitudose.progwebjava.services.PathResolver;
 import com.andreitudose.progwebjava.services.ProgrammeService;
 import com.andreitudose.progwebjava.services.StudentService;
+import com.andreitudose.progwebjava.utils.GradeSummary;
 import com.andreitudose.progwebjava.utils.SerializationUtils;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import java.util.*;
@@ -22,48 +37,56 @@ import java.util.*;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
 public class ProgrammeServiceTests {
 
+    @Autowired
+    private Validator validator;
+
     private StudentRepository studentRepositoryMock;
     private ProgrammeRepository programmeRepositoryMock;
+    private CourseTypeRepository courseTypeRepositoryMock;
+    private YearOfStudyRepository yearOfStudyRepositoryMock;
+    private GradeAggregateService gradeAggregateServiceMock;
     private ProgrammeService programmeService;
 
     @BeforeEach
     void init() {
         studentRepositoryMock = mock(StudentRepository.class);
         programmeRepositoryMock = mock(ProgrammeRepository.class);
-        programmeService = new ProgrammeService(programmeRepositoryMock, studentRepositoryMock);
+        courseTypeRepositoryMock = mock(CourseTypeRepository.class);
+        yearOfStudyRepositoryMock = mock(YearOfStudyRepository.class);
+        var semesterRepositoryMock = mock(SemesterRepository.class);
+        var pathResolver = new PathResolver(studentRepositoryMock,
+                                            programmeRepositoryMock,
+                                            yearOfStudyRepositoryMock,
+                                            semesterRepositoryMock);
+        var eTagResolver = new ETagResolver(studentRepositoryMock,
+                                            programmeRepositoryMock,
+                                            courseTypeRepositoryMock,
+                                            yearOfStudyRepositoryMock,
+                                            semesterRepositoryMock,
+                                            mock(CourseRepository.class),
+                                            pathResolver);
+        gradeAggregateServiceMock = mock(GradeAggregateService.class);
+        programmeService = new ProgrammeService(programmeRepositoryMock, pathResolver, gradeAggregateServiceMock,
+                                                validator, mock(EntityChangePublisher.class), eTagResolver);
     }
 
     @Test
     void programmesGetAll() throws NotFoundException {
 
-        Student student = new Student() {{
-            setId(1);
-            setFirstName("FirstName1");
-            setLastName("LastName1");
-            setEmail("Email1");
-            setProgrammes(new HashSet<>(){{
-                add(new Programme() {{
-                    setId(1);
-                    setName("Programme1");
-                }});
-                add(new Programme() {{
-                    setId(2);
-                    setName("Programme2");
-                }});
-            }});
-        }};
+        var rows = List.of(programmeRow(1, "Programme1"), programmeRow(2, "Programme2"));
 
-        when(studentRepositoryMock.findById(any(Integer.class))).thenReturn(Optional.of(student));
+        when(programmeRepositoryMock.findRowsByStudentId(1)).thenReturn(rows);
 
         List<ProgrammeResponseDto> response = programmeService.getAll(1);
 
-        List<ProgrammeResponseDto> expected = student.getProgrammes().stream()
-                .map(x -> new ProgrammeResponseDto().fromProgramme(x))
+        List<ProgrammeResponseDto> expected = rows.stream()
+                .map(x -> new ProgrammeResponseDto().fromProgrammeRow(x))
                 .toList();
 
         assertNotNull(response);
@@ -71,6 +94,27 @@ public class ProgrammeServiceTests {
         assertThat(response)
                 .usingRecursiveComparison()
                 .isEqualTo(expected);
+        verify(studentRepositoryMock, never()).existsById(any());
+    }
+
+    @Test
+    void programmesGetAllEmpty() throws NotFoundException {
+
+        when(programmeRepositoryMock.findRowsByStudentId(any(Integer.class))).thenReturn(List.of());
+        when(studentRepositoryMock.existsById(1)).thenReturn(true);
+
+        assertTrue(programmeService.getAll(1).isEmpty());
+        assertThrows(NotFoundException.class, () -> programmeService.getAll(2));
+    }
+
+    private static ProgrammeRow programmeRow(Integer id, String name) {
+        var row = mock(ProgrammeRow.class);
+
+        when(row.getId()).thenReturn(id);
+        when(row.getVersion()).thenReturn(0L);
+        when(row.getName()).thenReturn(name);
+
+        return row;
     }
 
     @Test
@@ -87,19 +131,9 @@ public class ProgrammeServiceTests {
             }});
         }};
 
-        Student student = new Student() {{
-            setId(2);
-            setFirstName("FirstName2");
-            setLastName("LastName2");
-            setEmail("Email2");
-            setProgrammes(new HashSet<>() {{
-                add(programme);
-            }});
-        }};
-
-        when(studentRepositoryMock.findById(any(Integer.class))).thenReturn(Optional.of(student));
+        when(programmeRepositoryMock.findDetailedByPath(2, 1)).thenReturn(Optional.of(programme));
 
-        ProgrammeDetailedResponseDto response = programmeService.getById(1, 1);
+        ProgrammeDetailedResponseDto response = programmeService.getById(2, 1);
 
         ProgrammeDetailedResponseDto expected = new ProgrammeDetailedResponseDto()
                 .fromProgramme(programme);
@@ -127,6 +161,58 @@ public class ProgrammeServiceTests {
         assertEquals(expectedMessage, actualMessage);
     }
 
+    @Test
+    void programmesGetETag() throws NotFoundException {
+
+        var programme = new Programme(){{
+            setId(1);
+            setVersion(3);
+            setName("P1");
+            setYearsOfStudy(new HashSet<>(){{
+                add(new YearOfStudy() {{
+                    setId(1);
+                    setVersion(2);
+                    setNumber(1);
+                }});
+            }});
+        }};
+
+        var yearOfStudyRow = versionRow(1, 2L);
+
+        when(programmeRepositoryMock.findVersionByPath(2, 1)).thenReturn(Optional.of(3L));
+        when(yearOfStudyRepositoryMock.findVersionRowsByProgrammeId(1)).thenReturn(List.of(yearOfStudyRow));
+
+        var eTag = programmeService.getETag(2, 1);
+
+        assertEquals(new ProgrammeDetailedResponseDto().fromProgramme(programme).getETag(), eTag);
+
+        verify(programmeRepositoryMock, times(0)).findDetailedByPath(any(Integer.class), any(Integer.class));
+    }
+
+    @Test
+    void programmesGetETagNotFound() {
+
+        when(studentRepositoryMock.existsById(1)).thenReturn(true);
+
+        var exception = assertThrows(NotFoundException.class, () -> {
+            programmeService.getETag(1, 1);
+        });
+
+        var expectedMessage = String.format("%s with %s = %s not found",
+                "Programme", "id", 1);
+
+        assertEquals(expectedMessage, exception.getMessage());
+    }
+
+    private static VersionRow versionRow(Integer id, Long version) {
+        var row = mock(VersionRow.class);
+
+        when(row.getId()).thenReturn(id);
+        when(row.getVersion()).thenReturn(version);
+
+        return row;
+    }
+
     @Test
     void programmeCreate() throws BadRequestException, NotFoundException, DuplicateItemException {
 
@@ -177,18 +263,14 @@ public class ProgrammeServiceTests {
 
 
     @Test
-    void programmeUpdate() throws NotFoundException, BadRequestException, DuplicateItemException {
+    void programmeUpdate() throws NotFoundException, BadRequestException, DuplicateItemException, PreconditionFailedException {
 
         Programme programme = new Programme() {{
             setId(2);
             setName("Programme2");
         }};
 
-        when(studentRepositoryMock.findById(any(Integer.class))).thenReturn(Optional.of(new Student() {{
-            setProgrammes(new HashSet<>() {{
-                add(programme);
-            }});
-        }}));
+        when(programmeRepositoryMock.findCachedByIdOwnedByStudent(2, 1)).thenReturn(Optional.of(programme));
 
         ProgrammeRequestDto request = new ProgrammeRequestDto() {{
             setName("Update!");
@@ -201,7 +283,7 @@ public class ProgrammeServiceTests {
 
         when(programmeRepositoryMock.save(any(Programme.class))).thenReturn(updatedProgramme);
 
-        ProgrammeResponseDto response = programmeService.update(1, 2, request);
+        ProgrammeResponseDto response = programmeService.update(1, 2, request, null);
 
         ProgrammeResponseDto expected = new ProgrammeResponseDto().fromProgramme(updatedProgramme);
 
@@ -218,14 +300,14 @@ public class ProgrammeServiceTests {
     @Test
     void programmeUpdateNotFound() throws NotFoundException {
 
-        when(studentRepositoryMock.findById(any(Integer.class))).thenReturn(Optional.of(new Student()));
+        when(studentRepositoryMock.existsById(1)).thenReturn(true);
 
         ProgrammeRequestDto request = new ProgrammeRequestDto() {{
             setName("Update!");
         }};
 
         var exception = assertThrows(NotFoundException.class, () -> {
-            programmeService.update(1, 1, request);
+            programmeService.update(1, 1, request, null);
         });
 
         var expectedMessage = String.format("%s with %s = %s not found",
@@ -237,6 +319,26 @@ public class ProgrammeServiceTests {
         verify(programmeRepositoryMock, times(0)).save(any(Programme.class));
     }
 
+    @Test
+    void programmeUpdateDuplicate() {
+
+        when(programmeRepositoryMock.findCachedByIdOwnedByStudent(2, 1)).thenReturn(Optional.of(new Programme() {{
+            setId(2);
+            setName("Programme2");
+        }}));
+        when(programmeRepositoryMock.existsByStudentIdAndNameAndIdNot(1, "Programme3", 2)).thenReturn(true);
+
+        ProgrammeRequestDto request = new ProgrammeRequestDto() {{
+            setName("Programme3");
+        }};
+
+        assertThrows(DuplicateItemException.class, () -> {
+            programmeService.update(1, 2, request, null);
+        });
+
+        verify(programmeRepositoryMock, times(0)).save(any(Programme.class));
+    }
+
     @Test
     void programmesUpdateBadRequest() throws NotFoundException {
         ProgrammeRequestDto request = new ProgrammeRequestDto() {{
@@ -244,7 +346,7 @@ public class ProgrammeServiceTests {
         }};
 
         var exception = assertThrows(BadRequestException.class, () -> {
-            programmeService.update(1,1, request);
+            programmeService.update(1,1, request, null);
         });
 
         var expectedMessage = SerializationUtils.serialize(new HashMap<String, String>() {{
@@ -258,31 +360,75 @@ public class ProgrammeServiceTests {
     }
 
     @Test
-    void programmesDelete() throws NotFoundException, CannotDeleteException {
+    void programmesDelete() throws NotFoundException, CannotDeleteException, PreconditionFailedException {
 
         Programme programme = new Programme() {{
             setId(2);
             setName("name1");
         }};
 
-        when(studentRepositoryMock.findById(any(Integer.class))).thenReturn(Optional.of(new Student() {{
-            setProgrammes(new HashSet<>(){{
-                add(programme);
-            }});
-        }}));
+        when(programmeRepositoryMock.findCachedByIdOwnedByStudent(2, 1)).thenReturn(Optional.of(programme));
 
-        programmeService.delete(1, 2);
+        programmeService.delete(1, 2, null);
 
         verify(programmeRepositoryMock, times(1)).deleteById(2);
     }
 
+    @Test
+    void programmesDeleteIfMatch() throws NotFoundException, CannotDeleteException, PreconditionFailedException {
+
+        Programme programme = new Programme() {{
+            setId(2);
+            setVersion(4);
+            setName("name1");
+        }};
+
+        when(programmeRepositoryMock.findCachedByIdOwnedByStudent(2, 1)).thenReturn(Optional.of(programme));
+
+        var eTag = new ProgrammeDetailedResponseDto().fromProgramme(programme).getETag();
+
+        programmeService.delete(1, 2, eTag);
+
+        verify(programmeRepositoryMock, times(1)).deleteById(2);
+    }
+
+    @Test
+    void programmesDeletePreconditionFailed() {
+
+        Programme programme = new Programme() {{
+            setId(2);
+            setVersion(4);
+            setName("name1");
+        }};
+
+        when(programmeRepositoryMock.findCachedByIdOwnedByStudent(2, 1)).thenReturn(Optional.of(programme));
+
+        var staleETag = new ProgrammeDetailedResponseDto().fromProgramme(programme).getETag();
+
+        // a course type added since, which doesn't change the programme's own version
+        var courseTypeRow = versionRow(7, 0L);
+
+        when(courseTypeRepositoryMock.findVersionRowsByProgrammeId(2)).thenReturn(List.of(courseTypeRow));
+
+        var exception = assertThrows(PreconditionFailedException.class, () -> {
+            programmeService.delete(1, 2, staleETag);
+        });
+
+        var expectedMessage = String.format("%s with %s = %s has been modified since it was read",
+                "Programme", "id", 2);
+
+        assertEquals(expectedMessage, exception.getMessage());
+
+        verify(programmeRepositoryMock, times(0)).deleteById(2);
+    }
+
     @Test
     void programmesDeleteNotFound() throws NotFoundException, CannotDeleteException {
 
-        when(studentRepositoryMock.findById(any(Integer.class))).thenReturn(Optional.of(new Student()));
+        when(studentRepositoryMock.existsById(1)).thenReturn(true);
 
         var exception = assertThrows(NotFoundException.class, () -> {
-            programmeService.delete(1,3);
+            programmeService.delete(1,3, null);
         });
 
         var expectedMessage = String.format("%s with %s = %s not found",
@@ -297,22 +443,17 @@ public class ProgrammeServiceTests {
     @Test
     void programmesDeleteCannotDelete() throws NotFoundException, CannotDeleteException {
 
-        Student student = new Student() {{
-            setProgrammes(new HashSet<>(){{
-                setId(1);
-                add(new Programme(){{
-                    setId(3);
-                    setYearsOfStudy(new HashSet<>(){{
-                        add(new YearOfStudy());
-                    }});
-                }});
+        Programme programme = new Programme() {{
+            setId(3);
+            setYearsOfStudy(new HashSet<>(){{
+                add(new YearOfStudy());
             }});
         }};
 
-        when(studentRepositoryMock.findById(any(Integer.class))).thenReturn(Optional.of(student));
+        when(programmeRepositoryMock.findCachedByIdOwnedByStudent(3, 1)).thenReturn(Optional.of(programme));
 
         var exception = assertThrows(CannotDeleteException.class, () -> {
-            programmeService.delete(1, 3);
+            programmeService.delete(1, 3, null);
         });
 
         var expectedMessage = String.format("%s with %s = %s can not be deleted because it has associated %s",
@@ -321,6 +462,39 @@ public class ProgrammeServiceTests {
 
         assertEquals(expectedMessage, actualMessage);
 
-        verify(studentRepositoryMock, times(0)).deleteById(2);
+        verify(programmeRepositoryMock, times(0)).deleteById(3);
+    }
+
+    @Test
+    void programmesGetGradeAverage() throws NotFoundException {
+
+        when(gradeAggregateServiceMock.getSummary(eq(GradeAggregateLevel.PROGRAMME), eq(3), eq(List.of(1)), any()))
+                .thenReturn(Optional.of(new GradeSummary(List.of(1), 69.0 / 9, 9)));
+
+        assertEquals(69.0 / 9, programmeService.getGradeAverage(1, 3));
+        assertEquals(9, programmeService.getTotalCredits(1, 3));
+        verify(programmeRepositoryMock, times(0)).findById(any(Integer.class));
+    }
+
+    @Test
+    void programmesGetGradeAverageNotFound() throws NotFoundException {
+
+        when(studentRepositoryMock.existsById(1)).thenReturn(true);
+        when(gradeAggregateServiceMock.getSummary(eq(GradeAggregateLevel.PROGRAMME), eq(3), eq(List.of(1)), any()))
+                .thenAnswer(invocation -> {
+                    invocation.<GradeAggregateService.PathCheck>getArgument(3).run();
+
+                    return Optional.empty();
+                });
+
+        var exception = assertThrows(NotFoundException.class, () -> {
+            programmeService.getGradeAverage(1, 3);
+        });
+
+        var expectedMessage = String.format("%s with %s = %s not found",
+                "Programme", "id", 3);
+
+        assertEquals(expectedMessage, exception.getMessage());
+        verify(programmeRepositoryMock, times(1)).findCachedByIdOwnedByStudent(3, 1);
     }
 }
@@ -0,0 +1,68 @@
+package com.andreitudose.progwebjava;
+
+import com.andreitudose.progwebjava.exceptions.BadRequestException;
+import com.andreitudose.progwebjava.repositories.GradeAggregateRepository;
+import com.andreitudose.progwebjava.repositories.RankingRow;
+import com.andreitudose.progwebjava.services.RankingService;
+import com.andreitudose.progwebjava.utils.SerializationUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+public class RankingServiceTests {
+
+    private GradeAggregateRepository gradeAggregateRepositoryMock;
+    private RankingService rankingService;
+
+    @BeforeEach
+    void init() {
+        gradeAggregateRepositoryMock = mock(GradeAggregateRepository.class);
+        rankingService = new RankingService(gradeAggregateRepositoryMock);
+    }
+
+    private RankingRow row(Integer studentId, long weightedGradeSum, int totalCredits) {
+        var row = mock(RankingRow.class);
+        when(row.getStudentId()).thenReturn(studentId);
+        when(row.getWeightedGradeSum()).thenReturn(weightedGradeSum);
+        when(row.getTotalCredits()).thenReturn(totalCredits);
+        when(row.getPassedCredits()).thenReturn(totalCredits);
+        return row;
+    }
+
+    @Test
+    void rankingSharesRankOnEqualAverages() throws BadRequestException {
+
+        var rows = List.of(row(1, 100, 10), row(2, 45, 5), row(3, 90, 10), row(4, 80, 10));
+        when(gradeAggregateRepositoryMock.findRanking("Informatica", 2, PageRequest.of(0, 4))).thenReturn(rows);
+
+        var response = rankingService.get("Informatica", 2, 4);
+
+        assertEquals(List.of(1, 2, 2, 4), response.getStudents().stream().map(x -> x.getRank()).toList());
+        assertEquals(List.of(1, 2, 3, 4), response.getStudents().stream().map(x -> x.getStudentId()).toList());
+        assertEquals(10.0, response.getStudents().get(0).getGradeAverage());
+    }
+
+    @Test
+    void rankingRejectsLimitOutOfRange() {
+
+        var exception = assertThrows(BadRequestException.class, () -> {
+            rankingService.get("Informatica", 2, 0);
+        });
+
+        var expectedMessage = SerializationUtils.serialize(new HashMap<String, String>() {{
+            put("limit", "must be between 1 and 1000");
+        }});
+
+        assertEquals(expectedMessage, exception.getMessage());
+        verify(gradeAggregateRepositoryMock, times(0)).findRanking(any(), any(), any());
+    }
+}
@@ -1,27 +1,43 @@
 package com.andreitudose.progwebjava;
 
 import com.andreitudose.progwebjava.dtos.StudentDetailedResponseDto;
+import com.andreitudose.progwebjava.dtos.StudentPageResponseDto;
 import com.andreitudose.progwebjava.dtos.StudentRequestDto;
 import com.andreitudose.progwebjava.dtos.StudentResponseDto;
+import com.andreitudose.progwebjava.events.ChangeType;
+import com.andreitudose.progwebjava.events.EntityChangePublisher;
 import com.andreitudose.progwebjava.exceptions.BadRequestException;
 import com.andreitudose.progwebjava.exceptions.CannotDeleteException;
 import com.andreitudose.progwebjava.exceptions.DuplicateItemException;
 import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.exceptions.PreconditionFailedException;
 import com.andreitudose.progwebjava.model.Programme;
 import com.andreitudose.progwebjava.model.Student;
 import com.andreitudose.progwebjava.repositories.StudentRepository;
+import com.andreitudose.progwebjava.repositories.StudentSearchRow;
+import com.andreitudose.progwebjava.repositories.StudentSortField;
+import com.andreitudose.progwebjava.services.ETagResolver;
 import com.andreitudose.progwebjava.services.StudentService;
 import com.andreitudose.progwebjava.utils.SerializationUtils;
 import org.aspectj.weaver.ast.Not;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,17 +47,26 @@ import static org.mockito.Mockito.*;
 @SpringBootTest
 public class StudentServiceTests {
 
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private StudentRepository studentRepositoryMock;
+    private EntityChangePublisher entityChangePublisherMock;
     private StudentService studentService;
 
     @BeforeEach
     void init() {
         studentRepositoryMock = mock(StudentRepository.class);
-        studentService = new StudentService(studentRepositoryMock);
+        entityChangePublisherMock = mock(EntityChangePublisher.class);
+        studentService = new StudentService(studentRepositoryMock, validator, entityChangePublisherMock,
+                                            mock(ETagResolver.class), objectMapper);
     }
 
     @Test
-    void studentsGetAll() {
+    void studentsGetAll() throws BadRequestException {
 
         List<Student> students = new ArrayList<>();
 
@@ -58,21 +83,176 @@ public class StudentServiceTests {
             setEmail("Email2");
         }});
 
-        when(studentRepositoryMock.findAll()).thenReturn(students);
+        when(studentRepositoryMock.findPage(StudentSortField.ID, false, null, null, 51)).thenReturn(students);
 
-        List<StudentResponseDto> response = studentService.getAll();
+        StudentPageResponseDto response = studentService.getAll("id", "asc", null, 50);
 
         List<StudentResponseDto> expected = students.stream()
                 .map(x -> new StudentResponseDto().fromStudent(x))
                 .toList();
 
         assertNotNull(response);
-        assertEquals(2, response.size());
-        assertThat(response)
+        assertEquals(2, response.getItems().size());
+        assertNull(response.getNextCursor());
+        assertThat(response.getItems())
                 .usingRecursiveComparison()
                 .isEqualTo(expected);
     }
 
+    @Test
+    void studentsGetAllNextPage() throws BadRequestException {
+
+        List<Student> students = new ArrayList<>();
+
+        students.add(new Student() {{
+            setId(4);
+            setLastName("Ionescu");
+        }});
+        students.add(new Student() {{
+            setId(2);
+            setLastName("Popescu");
+        }});
+
+        when(studentRepositoryMock.findPage(StudentSortField.LAST_NAME, false, null, null, 2)).thenReturn(students);
+
+        StudentPageResponseDto firstPage = studentService.getAll("lastName", "asc", null, 1);
+
+        assertEquals(1, firstPage.getItems().size());
+        assertNotNull(firstPage.getNextCursor());
+
+        studentService.getAll("lastName", "asc", firstPage.getNextCursor(), 1);
+
+        verify(studentRepositoryMock, times(1)).findPage(StudentSortField.LAST_NAME, false, "Ionescu", 4, 2);
+    }
+
+    @Test
+    void studentsGetAllCursorOfAnotherSort() throws BadRequestException {
+
+        List<Student> students = new ArrayList<>();
+
+        students.add(new Student() {{
+            setId(4);
+            setLastName("Ionescu");
+        }});
+        students.add(new Student() {{
+            setId(2);
+            setLastName("Popescu");
+        }});
+
+        when(studentRepositoryMock.findPage(StudentSortField.LAST_NAME, false, null, null, 2)).thenReturn(students);
+
+        var cursor = studentService.getAll("lastName", "asc", null, 1).getNextCursor();
+
+        var exception = assertThrows(BadRequestException.class, () -> {
+            studentService.getAll("firstName", "asc", cursor, 1);
+        });
+
+        var expectedMessage = SerializationUtils.serialize(new HashMap<String, String>() {{
+            put("after", "cursor was created for a different sort");
+        }});
+
+        assertEquals(expectedMessage, exception.getMessage());
+
+        verify(studentRepositoryMock, never()).findPage(eq(StudentSortField.FIRST_NAME), anyBoolean(), any(), any(),
+                                                         anyInt());
+    }
+
+    @Test
+    void studentsGetAllCursorWithoutValue() {
+
+        // an id-only cursor can't position a page sorted by last name
+        var cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("lastName:4".getBytes(StandardCharsets.UTF_8));
+
+        var exception = assertThrows(BadRequestException.class, () -> {
+            studentService.getAll("lastName", "asc", cursor, 1);
+        });
+
+        var expectedMessage = SerializationUtils.serialize(new HashMap<String, String>() {{
+            put("after", "invalid cursor");
+        }});
+
+        assertEquals(expectedMessage, exception.getMessage());
+    }
+
+    @Test
+    void studentsGetAllBadRequest() {
+
+        var exception = assertThrows(BadRequestException.class, () -> {
+            studentService.getAll("password", "asc", null, 50);
+        });
+
+        var expectedMessage = SerializationUtils.serialize(new HashMap<String, String>() {{
+            put("sort", "must be one of id, firstName, lastName, email");
+        }});
+
+        assertEquals(expectedMessage, exception.getMessage());
+    }
+
+    @Test
+    void studentsSearch() throws BadRequestException {
+
+        var ion = searchRow(3, "Ion", "Popescu", "ion");
+        var ioana = searchRow(8, "Ioana", "Popa", "ioana");
+
+        when(studentRepositoryMock.search(List.of("io", "pop"), null, null, 2)).thenReturn(List.of(ion, ioana));
+
+        StudentPageResponseDto firstPage = studentService.search("  io   pop ", null, 1);
+
+        assertEquals(1, firstPage.getItems().size());
+        assertEquals("Ion", firstPage.getItems().get(0).getFirstName());
+        assertNotNull(firstPage.getNextCursor());
+
+        studentService.search("io pop", firstPage.getNextCursor(), 1);
+
+        verify(studentRepositoryMock, times(1)).search(List.of("io", "pop"), "ion", 3, 2);
+    }
+
+    @Test
+    void studentsSearchBadRequest() {
+
+        var exception = assertThrows(BadRequestException.class, () -> {
+            studentService.search(" ", null, 50);
+        });
+
+        var expectedMessage = SerializationUtils.serialize(new HashMap<String, String>() {{
+            put("q", "must not be blank");
+        }});
+
+        assertEquals(expectedMessage, exception.getMessage());
+        verify(studentRepositoryMock, never()).search(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void studentsExport() throws IOException {
+
+        doAnswer(invocation -> {
+            Consumer<Student> consumer = invocation.getArgument(0);
+            consumer.accept(new Student() {{
+                setId(1);
+                setFirstName("FirstName1");
+                setLastName("LastName1");
+                setEmail("Email1");
+            }});
+            consumer.accept(new Student() {{
+                setId(2);
+                setFirstName("FirstName2");
+                setLastName("LastName2");
+                setEmail("Email2");
+            }});
+            return null;
+        }).when(studentRepositoryMock).streamAll(any());
+
+        var outputStream = new ByteArrayOutputStream();
+
+        studentService.export(outputStream);
+
+        var lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(2, lines.length);
+        assertEquals("{\"id\":2,\"firstName\":\"FirstName2\",\"lastName\":\"LastName2\",\"email\":\"Email2\"}", lines[1]);
+    }
+
     @Test
     void studentsGetById() throws NotFoundException {
 
@@ -89,7 +269,7 @@ public class StudentServiceTests {
             }});
         }};
 
-        when(studentRepositoryMock.findById(any(Integer.class))).thenReturn(Optional.of(student));
+        when(studentRepositoryMock.findDetailedById(any(Integer.class))).thenReturn(Optional.of(student));
 
         StudentDetailedResponseDto response = studentService.getById(2);
 
@@ -105,7 +285,7 @@ public class StudentServiceTests {
     @Test
     void studentsGetByIdNotFound() throws NotFoundException {
 
-        when(studentRepositoryMock.findById(any(Integer.class))).thenReturn(Optional.empty());
+        when(studentRepositoryMock.findDetailedById(any(Integer.class))).thenReturn(Optional.empty());
 
         var exception = assertThrows(NotFoundException.class, () -> {
             studentService.getById(1);
@@ -172,9 +352,7 @@ public class StudentServiceTests {
     @Test
     void studentsCreateDuplicate() throws BadRequestException {
 
-        when(studentRepositoryMock.findAll()).thenReturn(List.of(new Student() {{
-            setEmail("email@email.com");
-        }}));
+        when(studentRepositoryMock.existsByEmail("email@email.com")).thenReturn(true);
         StudentRequestDto request = new StudentRequestDto() {{
             setFirstName("Abc");
             setLastName("LastName!");
@@ -197,7 +375,50 @@ public class StudentServiceTests {
     }
 
     @Test
-    void studentsUpdate() throws NotFoundException, BadRequestException, DuplicateItemException {
+    void studentsCreateDuplicateOnSave() throws BadRequestException {
+
+        when(studentRepositoryMock.save(any(Student.class))).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", null, "students.uk_students_email")));
+        StudentRequestDto request = new StudentRequestDto() {{
+            setFirstName("Abc");
+            setLastName("LastName!");
+            setEmail("email@email.com");
+        }};
+
+        var exception = assertThrows(DuplicateItemException.class, () -> {
+            studentService.create(request);
+        });
+
+        var expectedMessage = String.format(
+                "%s with %s = %s already exists",
+                "Student", "email", request.getEmail()
+        );
+        var actualMessage = exception.getMessage();
+
+        assertEquals(expectedMessage, actualMessage);
+    }
+
+    @Test
+    void studentsCreateOtherViolationOnSave() {
+
+        var violation = new DataIntegrityViolationException("too long",
+                new ConstraintViolationException("too long", null, null));
+        when(studentRepositoryMock.save(any(Student.class))).thenThrow(violation);
+        StudentRequestDto request = new StudentRequestDto() {{
+            setFirstName("Abc");
+            setLastName("LastName!");
+            setEmail("email@email.com");
+        }};
+
+        var exception = assertThrows(DataIntegrityViolationException.class, () -> {
+            studentService.create(request);
+        });
+
+        assertSame(violation, exception);
+    }
+
+    @Test
+    void studentsUpdate() throws NotFoundException, BadRequestException, DuplicateItemException, PreconditionFailedException {
 
         Student student = new Student() {{
             setId(2);
@@ -223,7 +444,7 @@ public class StudentServiceTests {
 
         when(studentRepositoryMock.save(any(Student.class))).thenReturn(updatedStudent);
 
-        StudentResponseDto response = studentService.update(2, request);
+        StudentResponseDto response = studentService.update(2, request, null);
 
         StudentResponseDto expected = new StudentResponseDto().fromStudent(updatedStudent);
 
@@ -249,7 +470,7 @@ public class StudentServiceTests {
         }};
 
         var exception = assertThrows(NotFoundException.class, () -> {
-            studentService.update(1, request);
+            studentService.update(1, request, null);
         });
 
         var expectedMessage = String.format("%s with %s = %s not found",
@@ -269,7 +490,7 @@ public class StudentServiceTests {
         }};
 
         var exception = assertThrows(BadRequestException.class, () -> {
-            studentService.update(1, request);
+            studentService.update(1, request, null);
         });
 
         var expectedMessage = SerializationUtils.serialize(new HashMap<String, String>() {{
@@ -282,10 +503,7 @@ public class StudentServiceTests {
 
     @Test
     void studentsUpdateDuplicate() throws BadRequestException {
-        when(studentRepositoryMock.findAll()).thenReturn(List.of(new Student() {{
-            setId(7);
-            setEmail("email@email.com");
-        }}));
+        when(studentRepositoryMock.existsByEmailAndIdNot("email@email.com", 2)).thenReturn(true);
         StudentRequestDto request = new StudentRequestDto() {{
             setFirstName("Abc");
             setLastName("LastName!");
@@ -293,7 +511,7 @@ public class StudentServiceTests {
         }};
 
         var exception = assertThrows(DuplicateItemException.class, () -> {
-            studentService.update(2, request);
+            studentService.update(2, request, null);
         });
 
         var expectedMessage = String.format(
@@ -308,7 +526,7 @@ public class StudentServiceTests {
     }
 
     @Test
-    void studentsDelete() throws NotFoundException, CannotDeleteException {
+    void studentsDelete() throws NotFoundException, CannotDeleteException, PreconditionFailedException {
 
         Student student = new Student() {{
             setId(2);
@@ -319,9 +537,11 @@ public class StudentServiceTests {
 
         when(studentRepositoryMock.findById(any(Integer.class))).thenReturn(Optional.of(student));
 
-        studentService.delete(2);
+        studentService.delete(2, null);
 
         verify(studentRepositoryMock, times(1)).deleteById(2);
+        verify(entityChangePublisherMock, times(1)).publish(argThat(x -> x.getType() == ChangeType.DELETED
+                && x.getEntityId() == 2));
     }
 
     @Test
@@ -330,7 +550,7 @@ public class StudentServiceTests {
         when(studentRepositoryMock.findById(any(Integer.class))).thenReturn(Optional.empty());
 
         var exception = assertThrows(NotFoundException.class, () -> {
-            studentService.delete(3);
+            studentService.delete(3, null);
         });
 
         var expectedMessage = String.format("%s with %s = %s not found",
@@ -358,7 +578,7 @@ public class StudentServiceTests {
         when(studentRepositoryMock.findById(any(Integer.class))).thenReturn(Optional.of(student));
 
         var exception = assertThrows(CannotDeleteException.class, () -> {
-            studentService.delete(3);
+            studentService.delete(3, null);
         });
 
         var expectedMessage = String.format("%s with %s = %s can not be deleted because it has associated %s",
@@ -369,4 +589,15 @@ public class StudentServiceTests {
 
         verify(studentRepositoryMock, times(0)).deleteById(2);
     }
+
+    private static StudentSearchRow searchRow(Integer id, String firstName, String lastName, String searchValue) {
+        var row = mock(StudentSearchRow.class);
+
+        when(row.getId()).thenReturn(id);
+        when(row.getFirstName()).thenReturn(firstName);
+        when(row.getLastName()).thenReturn(lastName);
+        when(row.getSearchValue()).thenReturn(searchValue);
+
+        return row;
+    }
 }
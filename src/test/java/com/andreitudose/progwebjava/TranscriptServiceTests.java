@@ -0,0 +1,89 @@
+package com.andreitudose.progwebjava;
+
+import com.andreitudose.progwebjava.dtos.TranscriptResponseDto;
+import com.andreitudose.progwebjava.exceptions.NotFoundException;
+import com.andreitudose.progwebjava.model.Student;
+import com.andreitudose.progwebjava.repositories.*;
+import com.andreitudose.progwebjava.services.PathResolver;
+import com.andreitudose.progwebjava.services.TranscriptService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+public class TranscriptServiceTests {
+
+    private StudentRepository studentRepositoryMock;
+    private ProgrammeRepository programmeRepositoryMock;
+    private TranscriptService transcriptService;
+
+    @BeforeEach
+    void init() {
+        studentRepositoryMock = mock(StudentRepository.class);
+        programmeRepositoryMock = mock(ProgrammeRepository.class);
+        var pathResolver = new PathResolver(studentRepositoryMock,
+                                            programmeRepositoryMock,
+                                            mock(YearOfStudyRepository.class),
+                                            mock(SemesterRepository.class));
+        transcriptService = new TranscriptService(programmeRepositoryMock, pathResolver);
+    }
+
+    private TranscriptRow row(Integer programmeId, Integer yearOfStudyId, Integer semesterId, Integer courseId) {
+        var row = mock(TranscriptRow.class);
+        when(row.getProgrammeId()).thenReturn(programmeId);
+        when(row.getProgrammeWeightedGradeSum()).thenReturn(0L);
+        when(row.getProgrammeTotalCredits()).thenReturn(0);
+        when(row.getYearOfStudyId()).thenReturn(yearOfStudyId);
+        when(row.getSemesterId()).thenReturn(semesterId);
+        when(row.getSemesterWeightedGradeSum()).thenReturn(45L);
+        when(row.getSemesterTotalCredits()).thenReturn(5);
+        when(row.getCourseId()).thenReturn(courseId);
+        return row;
+    }
+
+    @Test
+    void transcriptGet() throws NotFoundException {
+
+        when(studentRepositoryMock.findById(1)).thenReturn(Optional.of(new Student() {{
+            setId(1);
+            setFirstName("First");
+        }}));
+        var rows = List.of(
+                row(1, 1, 1, 1),
+                row(1, 1, 1, 2),
+                row(1, 1, 2, null),
+                row(1, 2, null, null),
+                row(2, null, null, null));
+        when(programmeRepositoryMock.findTranscriptRows(1)).thenReturn(rows);
+
+        TranscriptResponseDto response = transcriptService.get(1);
+
+        assertEquals("First", response.getFirstName());
+        assertEquals(2, response.getProgrammes().size());
+        assertNull(response.getProgrammes().get(0).getGradeAverage());
+        assertEquals(2, response.getProgrammes().get(0).getYearsOfStudy().size());
+        assertTrue(response.getProgrammes().get(1).getYearsOfStudy().isEmpty());
+
+        var semesters = response.getProgrammes().get(0).getYearsOfStudy().get(0).getSemesters();
+        assertEquals(2, semesters.size());
+        assertEquals(9.0, semesters.get(0).getGradeAverage());
+        assertEquals(2, semesters.get(0).getCourses().size());
+        assertTrue(semesters.get(1).getCourses().isEmpty());
+    }
+
+    @Test
+    void transcriptGetNotFound() {
+
+        when(studentRepositoryMock.findById(anyInt())).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> transcriptService.get(1));
+
+        verify(programmeRepositoryMock, never()).findTranscriptRows(anyInt());
+    }
+}
@@ -1,6 +1,7 @@
 package com.andreitudose.progwebjava;
 
 import com.andreitudose.progwebjava.dtos.*;
+import com.andreitudose.progwebjava.events.EntityChangePublisher;
 import com.andreitudose.progwebjava.exceptions.BadRequestException;
 import com.andreitudose.progwebjava.exceptions.CannotDeleteException;
 import com.andreitudose.progwebjava.exceptions.DuplicateItemException;
@@ -9,13 +10,20 @@ import com.andreitudose.progwebjava.model.Programme;
 import com.andreitudose.progwebjava.model.Student;
 import com.andreitudose.progwebjava.model.YearOfStudy;
 import com.andreitudose.progwebjava.repositories.ProgrammeRepository;
+import com.andreitudose.progwebjava.repositories.SemesterRepository;
 import com.andreitudose.progwebjava.repositories.StudentRepository;
 import com.andreitudose.progwebjava.repositories.YearOfStudyRepository;
+import com.andreitudose.progwebjava.repositories.YearOfStudyRow;
+import com.andreitudose.progwebjava.services.ETagResolver;
+import com.andreitudose.progwebjava.services.GradeAggregateService;
+import com.andreitudose.progwebjava.services.PathResolver;
 import com.andreitudose.progwebjava.services.ProgrammeService;
 import com.andreitudose.progwebjava.services.YearOfStudyService;
 import com.andreitudose.progwebjava.utils.SerializationUtils;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import java.util.*;
@@ -28,59 +36,51 @@ import static org.mockito.Mockito.*;
 @SpringBootTest
 public class YearOfStudyServiceTests {
 
+    @Autowired
+    private Validator validator;
+
     private StudentRepository studentRepositoryMock;
+    private ProgrammeRepository programmeRepositoryMock;
     private YearOfStudyRepository yearOfStudyRepositoryMock;
     private YearOfStudyService yearOfStudyService;
 
     @BeforeEach
     void init() {
         studentRepositoryMock = mock(StudentRepository.class);
+        programmeRepositoryMock = mock(ProgrammeRepository.class);
         yearOfStudyRepositoryMock = mock(YearOfStudyRepository.class);
-        yearOfStudyService = new YearOfStudyService(yearOfStudyRepositoryMock, studentRepositoryMock);
+        var pathResolver = new PathResolver(studentRepositoryMock,
+                                            programmeRepositoryMock,
+                                            yearOfStudyRepositoryMock,
+                                            mock(SemesterRepository.class));
+        yearOfStudyService = new YearOfStudyService(yearOfStudyRepositoryMock,
+                                                    pathResolver,
+                                                    mock(GradeAggregateService.class),
+                                                    validator,
+                                                    mock(EntityChangePublisher.class),
+                                                    mock(ETagResolver.class));
     }
 
     @Test
     void yearsOfStudyGetAll() throws NotFoundException {
 
-        var programme = new Programme() {{
-            setId(2);
-            setName("Programme2");
-            setYearsOfStudy(new HashSet<>(){{
-                add(new YearOfStudy(){{
-                    setNumber(1);
-                    setCalendarYearOfStart(2020);
-                    setCalendarYearOfEnd(2021);
-                }});
-            }});
-        }};
-
-        Student student = new Student() {{
-            setId(1);
-            setFirstName("FirstName1");
-            setLastName("LastName1");
-            setEmail("Email1");
-            setProgrammes(new HashSet<>(){{
-                add(new Programme() {{
-                    setId(1);
-                    setName("Programme1");
-                }});
-                add(programme);
-            }});
-        }};
+        var row = mock(YearOfStudyRow.class);
 
-        when(studentRepositoryMock.findById(any(Integer.class))).thenReturn(Optional.of(student));
+        when(row.getId()).thenReturn(3);
+        when(row.getVersion()).thenReturn(0L);
+        when(row.getNumber()).thenReturn(1);
+        when(row.getCalendarYearOfStart()).thenReturn(2020);
+        when(row.getCalendarYearOfEnd()).thenReturn(2021);
+        when(yearOfStudyRepositoryMock.findRowsByPath(1, 2)).thenReturn(List.of(row));
 
         List<YearOfStudyResponseDto> response = yearOfStudyService.getAll(1, 2);
 
-        List<YearOfStudyResponseDto> expected = programme.getYearsOfStudy().stream()
-                .map(x -> new YearOfStudyResponseDto().fromYearOfStudy(x))
-                .toList();
-
         assertNotNull(response);
         assertEquals(1, response.size());
         assertThat(response)
                 .usingRecursiveComparison()
-                .isEqualTo(expected);
+                .isEqualTo(List.of(new YearOfStudyResponseDto().fromYearOfStudyRow(row)));
+        verify(programmeRepositoryMock, never()).findCachedByIdOwnedByStudent(any(), any());
     }
 
     @Test
@@ -91,23 +91,15 @@ public class YearOfStudyServiceTests {
             setNumber(1);
         }};
 
-        Student student = new Student() {{
-            setId(2);
-            setFirstName("FirstName2");
-            setLastName("LastName2");
-            setEmail("Email2");
-            setProgrammes(new HashSet<>() {{
-                add(new Programme(){{
-                    setId(1);
-                    setName("P1");
-                    setYearsOfStudy(new HashSet<>(){{
-                        add(yearOfStudy);
-                    }});
-                }});
+        var programme = new Programme(){{
+            setId(1);
+            setName("P1");
+            setYearsOfStudy(new HashSet<>(){{
+                add(yearOfStudy);
             }});
         }};
 
-        when(studentRepositoryMock.findById(any(Integer.class))).thenReturn(Optional.of(student));
+        when(yearOfStudyRepositoryMock.findDetailedByPath(2, 1, 1)).thenReturn(Optional.of(yearOfStudy));
 
         YearOfStudyDetailedResponseDto response = yearOfStudyService.getById(2, 1, 1);
 
@@ -124,13 +116,8 @@ public class YearOfStudyServiceTests {
     @Test
     void yearsOfStudyGetByIdNotFound() throws NotFoundException {
 
-        when(studentRepositoryMock.findById(any(Integer.class))).thenReturn(Optional.of(new Student(){{
+        when(programmeRepositoryMock.findCachedByIdOwnedByStudent(4, 4)).thenReturn(Optional.of(new Programme(){{
             setId(4);
-            setProgrammes(new HashSet<>(){{
-                add(new Programme(){{
-                    setId(4);
-                }});
-            }});
         }}));
 
         var exception = assertThrows(NotFoundException.class, () -> {
@@ -147,11 +134,8 @@ public class YearOfStudyServiceTests {
     @Test
     void yearOfStudyCreate() throws BadRequestException, NotFoundException, DuplicateItemException {
 
-        when(studentRepositoryMock.findById(any(Integer.class))).thenReturn(Optional.of(new Student(){{
-            setId(2);
-            setProgrammes(Set.of(new Programme(){{
-                setId(1);
-            }}));
+        when(programmeRepositoryMock.findCachedByIdOwnedByStudent(1, 1)).thenReturn(Optional.of(new Programme(){{
+            setId(1);
         }}));
         YearOfStudyRequestDto request = new YearOfStudyRequestDto() {{
             setNumber(3);
@@ -179,10 +163,8 @@ public class YearOfStudyServiceTests {
 
     @Test
     void yearOfStudyCreateBadRequest() throws BadRequestException {
-        when(studentRepositoryMock.findById(any(Integer.class))).thenReturn(Optional.of(new Student(){{
-            setProgrammes(Set.of(new Programme(){{
-                setId(1);
-            }}));
+        when(programmeRepositoryMock.findCachedByIdOwnedByStudent(1, 1)).thenReturn(Optional.of(new Programme(){{
+            setId(1);
         }}));
 
         YearOfStudyRequestDto request = new YearOfStudyRequestDto() {{